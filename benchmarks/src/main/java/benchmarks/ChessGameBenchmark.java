@@ -0,0 +1,60 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChessGameBenchmark {
+
+    private ChessGame middlegame;
+    private ChessGame foolsMate;
+    private ChessPosition knight;
+    private ChessMove[] opening;
+
+    @Setup
+    public void setup() {
+        middlegame = Positions.middlegame();
+        foolsMate = Positions.foolsMate();
+        knight = Positions.parseSquare("f3", 0);
+        opening = new ChessMove[Positions.MIDDLEGAME.length];
+        for (int i = 0; i < opening.length; i++) {
+            opening[i] = Positions.parseMove(Positions.MIDDLEGAME[i]);
+        }
+    }
+
+    @Benchmark
+    public Collection<ChessMove> validMoves() {
+        return middlegame.validMoves(knight);
+    }
+
+    //a fresh game plus the eighteen validated moves of the middlegame line
+    @Benchmark
+    public ChessGame makeMove() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        for (ChessMove move : opening) {
+            game.makeMove(move);
+        }
+        return game;
+    }
+
+    @Benchmark
+    public boolean isInCheckmateMated() {
+        return foolsMate.isInCheckmate(ChessGame.TeamColor.WHITE);
+    }
+
+    @Benchmark
+    public boolean isInCheckmateMiddlegame() {
+        return middlegame.isInCheckmate(ChessGame.TeamColor.WHITE);
+    }
+}
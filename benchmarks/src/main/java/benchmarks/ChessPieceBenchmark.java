@@ -0,0 +1,39 @@
+package benchmarks;
+
+import chess.ChessBoard;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChessPieceBenchmark {
+
+    //squares of the white queen, knight and a-pawn in the middlegame position
+    @Param({"e2", "f3", "a4"})
+    public String square;
+
+    private ChessBoard board;
+    private ChessPosition position;
+    private ChessPiece piece;
+
+    @Setup
+    public void setup() {
+        board = Positions.middlegame().getBoard();
+        position = Positions.parseSquare(square, 0);
+        piece = board.getPiece(position);
+    }
+
+    @Benchmark
+    public Collection<ChessMove> pieceMoves() {
+        return piece.pieceMoves(board, position);
+    }
+}
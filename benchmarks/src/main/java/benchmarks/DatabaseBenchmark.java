@@ -0,0 +1,102 @@
+package benchmarks;
+
+import dataaccess.DataAccessException;
+import dataaccess.DatabaseManager;
+import dataaccess.MySQLDataAccess;
+import model.*;
+import org.openjdk.jmh.annotations.*;
+import service.Service;
+
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Login, list and join against the MySQL database named in the server's
+ * db.properties, with the per-connection prepared statement cache on and
+ * off. Needs a running database, and clears its tables. Pass
+ * {@code -t <threads>} to put the pool under concurrent load.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DatabaseBenchmark {
+
+    private static final int LISTED_GAMES = 100;
+    private static final UserData USER = new UserData("bench", "password", "bench@example.com");
+
+    @State(Scope.Benchmark)
+    public static class Database {
+        //0 turns the statement cache off
+        @Param({"0", "64"})
+        public int statementCacheSize;
+
+        Service service;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            service = new Service(connect(statementCacheSize));
+            service.clear();
+            String authToken = service.register(USER).authToken();
+            for (int i = 0; i < LISTED_GAMES; i++) {
+                service.createGame(authToken, new CreateGameRequest("game " + i));
+            }
+        }
+    }
+
+    //reloads the server's db.properties with another statement cache size and opens the database
+    static MySQLDataAccess connect(int statementCacheSize) throws Exception {
+        Properties props = new Properties();
+        try (InputStream in = DatabaseManager.class.getClassLoader().getResourceAsStream("db.properties")) {
+            if (in == null) {
+                throw new IllegalStateException("db.properties is not on the classpath");
+            }
+            props.load(in);
+        }
+        props.setProperty("db.statementCacheSize", String.valueOf(statementCacheSize));
+        Method loadProperties = DatabaseManager.class.getDeclaredMethod("loadProperties", Properties.class);
+        loadProperties.setAccessible(true);
+        loadProperties.invoke(null, props);
+        return new MySQLDataAccess();
+    }
+
+    @State(Scope.Thread)
+    public static class Session {
+        String authToken;
+
+        @Setup(Level.Iteration)
+        public void login(Database database) throws DataAccessException {
+            authToken = database.service.login(new LoginRequest(USER.username(), USER.password())).authToken();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class JoinSession extends Session {
+        int gameID;
+
+        //every join needs an open seat, so each invocation gets a game of its own
+        @Setup(Level.Invocation)
+        public void createJoinableGame(Database database) throws DataAccessException {
+            gameID = database.service.createGame(authToken, new CreateGameRequest("join"));
+        }
+    }
+
+    @Benchmark
+    public AuthData login(Database database) throws DataAccessException {
+        return database.service.login(new LoginRequest(USER.username(), USER.password()));
+    }
+
+    @Benchmark
+    public Collection<GameData> listGames(Database database, Session session) throws DataAccessException {
+        return database.service.listGames(session.authToken);
+    }
+
+    @Benchmark
+    public void joinGame(Database database, JoinSession session) throws DataAccessException {
+        database.service.joinGame(session.authToken, new JoinGameRequest("WHITE", session.gameID));
+    }
+}
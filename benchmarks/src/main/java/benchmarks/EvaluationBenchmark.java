@@ -0,0 +1,50 @@
+package benchmarks;
+
+import chess.BitBoard;
+import chess.Move;
+import chess.PieceSquareTables;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluating the middlegame position from the board's incrementally kept
+ * piece-square sums against rescanning every square, and the cost of keeping
+ * the sums current across a make and unmake.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluationBenchmark {
+
+    private BitBoard bits;
+    private int move;
+
+    @Setup
+    public void setup() {
+        bits = Positions.middlegame().getBoard().getBitBoard();
+        //Nf3xe5, a capture, so both the moved and the captured piece change the sums
+        move = Move.encode(BitBoard.square(3, 6), BitBoard.square(5, 5), Move.CAPTURE);
+    }
+
+    @Benchmark
+    public int incremental() {
+        return bits.evaluate(BitBoard.WHITE);
+    }
+
+    @Benchmark
+    public int fromScratch() {
+        return PieceSquareTables.evaluate(bits, BitBoard.WHITE);
+    }
+
+    @Benchmark
+    public int makeEvaluateUnmake() {
+        bits.makeMove(move);
+        int score = bits.evaluate(BitBoard.BLACK);
+        bits.unmakeMove();
+        return score;
+    }
+}
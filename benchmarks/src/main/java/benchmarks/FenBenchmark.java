@@ -0,0 +1,46 @@
+package benchmarks;
+
+import chess.ChessGame;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading a FEN position into a reused game, which should allocate nothing,
+ * against building a new game for it, and writing a position back out.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FenBenchmark {
+
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    private ChessGame game;
+    private ChessGame middlegame;
+
+    @Setup
+    public void setup() {
+        game = new ChessGame();
+        middlegame = Positions.middlegame();
+    }
+
+    @Benchmark
+    public ChessGame loadIntoReusedGame() {
+        game.loadFen(KIWIPETE);
+        return game;
+    }
+
+    @Benchmark
+    public ChessGame fromFen() {
+        return ChessGame.fromFen(KIWIPETE);
+    }
+
+    @Benchmark
+    public String toFen() {
+        return middlegame.toFen();
+    }
+}
@@ -0,0 +1,64 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.ChessJson;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gson's reflective serialization of a game against the compact FEN adapters
+ * of the shared ChessJson instance.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GsonBenchmark {
+
+    private final Gson gson = new Gson();
+    private final Gson compact = ChessJson.gson();
+    private ChessGame game;
+    private String json;
+    private String compactJson;
+
+    @Setup
+    public void setup() {
+        game = Positions.middlegame();
+        json = gson.toJson(game);
+        compactJson = compact.toJson(game);
+    }
+
+    @Benchmark
+    public String toJson() {
+        return gson.toJson(game);
+    }
+
+    @Benchmark
+    public ChessGame fromJson() {
+        return gson.fromJson(json, ChessGame.class);
+    }
+
+    @Benchmark
+    public ChessGame roundTrip() {
+        return gson.fromJson(gson.toJson(game), ChessGame.class);
+    }
+
+    @Benchmark
+    public String compactToJson() {
+        return compact.toJson(game);
+    }
+
+    @Benchmark
+    public ChessGame compactFromJson() {
+        return compact.fromJson(compactJson, ChessGame.class);
+    }
+
+    @Benchmark
+    public ChessGame compactRoundTrip() {
+        return compact.fromJson(compact.toJson(game), ChessGame.class);
+    }
+}
@@ -0,0 +1,67 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import dataaccess.DataAccessException;
+import dataaccess.MySQLDataAccess;
+import model.GameData;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves written per second to the MySQL database in the server's
+ * db.properties: appending each move to the game's move log against
+ * rewriting the whole stored game. Every invocation plays the next move of
+ * the Italian Game in {@link Positions#MIDDLEGAME}, starting a new game when
+ * it runs out. Needs a running database, and clears its tables.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveLogBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Database {
+        MySQLDataAccess dataAccess;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            dataAccess = DatabaseBenchmark.connect(64);
+            dataAccess.clearGameData();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Game {
+        int gameID;
+        GameData gameData;
+        ChessMove move;
+        private int next = Positions.MIDDLEGAME.length;
+
+        //the move is made in memory here, so the benchmark itself only times the write
+        @Setup(Level.Invocation)
+        public void playNextMove(Database database) throws InvalidMoveException {
+            if (next == Positions.MIDDLEGAME.length) {
+                gameID = database.dataAccess.createGame("moves");
+                gameData = new GameData(gameID, "white", "black", "moves", new ChessGame());
+                next = 0;
+            }
+            move = Positions.parseMove(Positions.MIDDLEGAME[next++]);
+            gameData.game().makeMove(move);
+        }
+    }
+
+    @Benchmark
+    public void appendMove(Database database, Game game) throws DataAccessException {
+        database.dataAccess.appendMove(game.gameID, game.gameData, game.move);
+    }
+
+    @Benchmark
+    public void rewriteGame(Database database, Game game) {
+        database.dataAccess.updateGame(game.gameID, game.gameData);
+    }
+}
@@ -0,0 +1,77 @@
+package benchmarks;
+
+import chess.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing and reading every legal move of Kiwipete in SAN and UCI. The
+ * encoders append into a reused builder, so only decoding's move generation
+ * and the final strings cost anything.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotationBenchmark {
+
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    private BitBoard bits;
+    private final MoveList moves = new MoveList();
+    private final MoveList scratch = new MoveList();
+    private final StringBuilder text = new StringBuilder(512);
+    private String[] san;
+    private String[] uci;
+
+    @Setup
+    public void setup() {
+        bits = ChessGame.fromFen(KIWIPETE).getBoard().getBitBoard();
+        MoveGenerator.generateLegal(bits, BitBoard.WHITE, -1L, moves);
+        san = new String[moves.size()];
+        uci = new String[moves.size()];
+        for (int i = 0; i < moves.size(); i++) {
+            san[i] = San.encode(bits, BitBoard.WHITE, moves.get(i), scratch);
+            uci[i] = Uci.encode(moves.get(i));
+        }
+    }
+
+    @Benchmark
+    public int encodeSan() {
+        text.setLength(0);
+        for (int i = 0; i < moves.size(); i++) {
+            San.encode(bits, BitBoard.WHITE, moves.get(i), scratch, text).append(' ');
+        }
+        return text.length();
+    }
+
+    @Benchmark
+    public int encodeUci() {
+        text.setLength(0);
+        for (int i = 0; i < moves.size(); i++) {
+            Uci.encode(moves.get(i), text).append(' ');
+        }
+        return text.length();
+    }
+
+    @Benchmark
+    public int decodeSan() {
+        int sum = 0;
+        for (String move : san) {
+            sum += San.decode(bits, BitBoard.WHITE, move, scratch);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int decodeUci() {
+        int sum = 0;
+        for (String move : uci) {
+            sum += Uci.decode(bits, BitBoard.WHITE, move, scratch);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,62 @@
+package benchmarks;
+
+import chess.PgnGame;
+import chess.PgnReader;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming an in-memory PGN archive through PgnReader, reported in games
+ * per second. Every move is resolved against the legal moves and played,
+ * so this is the ceiling for a bulk import before any storage cost.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PgnBenchmark {
+
+    private static final int GAMES = 1_000;
+
+    //the Opera Game, 33 plies with castling, captures, checks and a comment
+    private static final String GAME = """
+            [Event "Paris"]
+            [Site "Paris FRA"]
+            [Date "1858.??.??"]
+            [White "Paul Morphy"]
+            [Black "Duke Karl / Count Isouard"]
+            [Result "1-0"]
+
+            1.e4 e5 2.Nf3 d6 3.d4 Bg4 {This is a weak move already.} 4.dxe5 Bxf3 5.Qxf3 dxe5
+            6.Bc4 Nf6 7.Qb3 Qe7 8.Nc3 c6 9.Bg5 b5 10.Nxb5 cxb5 11.Bxb5+ Nbd7 12.O-O-O Rd8
+            13.Rxd7 Rxd7 14.Rd1 Qe6 15.Bxd7+ Nxd7 16.Qb8+ Nxb8 17.Rd8# 1-0
+
+            """;
+
+    private byte[] archive;
+
+    @Setup
+    public void setup() {
+        archive = GAME.repeat(GAMES).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GAMES)
+    public long gamesPerSecond() throws IOException {
+        long moves = 0;
+        try (PgnReader reader = new PgnReader(Channels.newChannel(new ByteArrayInputStream(archive)))) {
+            PgnGame game;
+            while ((game = reader.next()) != null) {
+                moves += game.moves().length;
+            }
+        }
+        return moves;
+    }
+}
@@ -0,0 +1,64 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+
+/**
+ * Games shared by the benchmarks, reached by playing moves from the
+ * starting position so they only rely on the public ChessGame API.
+ */
+public final class Positions {
+
+    //a quiet Italian Game middlegame with most pieces still on the board
+    public static final String[] MIDDLEGAME = {
+            "e2e4", "e7e5", "g1f3", "b8c6", "f1c4", "f8c5", "c2c3", "g8f6", "d2d3", "d7d6",
+            "b1d2", "a7a6", "a2a4", "c8e6", "h2h3", "h7h6", "d1e2", "d8e7"
+    };
+
+    //fool's mate: black has just checkmated white
+    public static final String[] FOOLS_MATE = {"f2f3", "e7e5", "g2g4", "d8h4"};
+
+    private Positions() {
+    }
+
+    public static ChessGame middlegame() {
+        return play(MIDDLEGAME);
+    }
+
+    public static ChessGame foolsMate() {
+        return play(FOOLS_MATE);
+    }
+
+    //plays moves written as start and end squares (plus an optional promotion letter) from a new game
+    public static ChessGame play(String... moves) {
+        ChessGame game = new ChessGame();
+        for (String move : moves) {
+            try {
+                game.makeMove(parseMove(move));
+            } catch (InvalidMoveException e) {
+                throw new IllegalStateException("illegal benchmark move " + move, e);
+            }
+        }
+        return game;
+    }
+
+    public static ChessMove parseMove(String move) {
+        ChessPiece.PieceType promotion = null;
+        if (move.length() == 5) {
+            promotion = switch (move.charAt(4)) {
+                case 'q' -> ChessPiece.PieceType.QUEEN;
+                case 'r' -> ChessPiece.PieceType.ROOK;
+                case 'b' -> ChessPiece.PieceType.BISHOP;
+                default -> ChessPiece.PieceType.KNIGHT;
+            };
+        }
+        return new ChessMove(parseSquare(move, 0), parseSquare(move, 2), promotion);
+    }
+
+    public static ChessPosition parseSquare(String text, int offset) {
+        return ChessPosition.of(text.charAt(offset + 1) - '0', text.charAt(offset) - 'a' + 1);
+    }
+}
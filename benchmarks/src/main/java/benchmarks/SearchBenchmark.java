@@ -0,0 +1,74 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.engine.ParallelSearch;
+import chess.engine.Search;
+import chess.engine.TranspositionTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to reach a fixed depth from the middlegame position, and the nodes
+ * per second behind it, for a range of search thread counts. Run every
+ * count up to the machine's cores with e.g. {@code -p threads=1,2,4,8,16}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+    private static final int DEPTH = 6;
+
+    @Param({"1", "2", "4"})
+    public int threads;
+
+    private ChessGame middlegame;
+    private ParallelSearch search;
+
+    //searched nodes, which JMH reports as nodes/sec in throughput mode
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Nodes {
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            nodes = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        middlegame = Positions.middlegame();
+        search = new ParallelSearch(threads, new TranspositionTable(TranspositionTable.DEFAULT_ENTRIES));
+    }
+
+    //every search starts cold, otherwise later ones would find the answer in the table
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        search.table().clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        search.close();
+    }
+
+    @Benchmark
+    public Search.Result timeToDepth() {
+        return search.search(middlegame, Search.Limits.depth(DEPTH));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public Search.Result nodesPerSecond(Nodes counter) {
+        Search.Result result = search.search(middlegame, Search.Limits.depth(DEPTH));
+        counter.nodes += result.nodes();
+        return result;
+    }
+}
@@ -0,0 +1,83 @@
+package benchmarks;
+
+import chess.ChessJson;
+import dataaccess.DataAccessException;
+import dataaccess.MemoryDataAccess;
+import model.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import service.Service;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServiceBenchmark {
+
+    private static final int LISTED_GAMES = 100;
+    private static final int JOINABLE_GAMES = 1024;
+
+    @State(Scope.Thread)
+    public static class ListState {
+        Service service;
+        String authToken;
+
+        @Setup(Level.Iteration)
+        public void setup() throws DataAccessException {
+            service = new Service(new MemoryDataAccess());
+            authToken = service.register(new UserData("bench", "password", "bench@example.com")).authToken();
+            for (int i = 0; i < LISTED_GAMES; i++) {
+                service.createGame(authToken, new CreateGameRequest("game " + i));
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class JoinState {
+        MemoryDataAccess dataAccess;
+        Service service;
+        String authToken;
+        //a fixed pool of games with open seats, so the game map stays the same size however many joins run
+        final GameData[] joinable = new GameData[JOINABLE_GAMES];
+        int next;
+
+        @Setup(Level.Iteration)
+        public void setup() throws DataAccessException {
+            dataAccess = new MemoryDataAccess();
+            service = new Service(dataAccess);
+            authToken = service.register(new UserData("bench", "password", "bench@example.com")).authToken();
+            for (int i = 0; i < JOINABLE_GAMES; i++) {
+                int gameID = service.createGame(authToken, new CreateGameRequest("join " + i));
+                joinable[i] = dataAccess.getGame(gameID);
+            }
+            next = 0;
+        }
+
+        //the next game with an open white seat; once the pool is used up every seat is opened again
+        int nextGameID() {
+            if (next == JOINABLE_GAMES) {
+                for (GameData game : joinable) {
+                    dataAccess.updateGame(game.gameID(), game);
+                }
+                next = 0;
+            }
+            return joinable[next++].gameID();
+        }
+    }
+
+    @Benchmark
+    public void joinGame(JoinState state) throws DataAccessException {
+        state.service.joinGame(state.authToken, new JoinGameRequest("WHITE", state.nextGameID()));
+    }
+
+    //serialized the way the HTTP handler answers GET /game, since the list itself is only a view of the map
+    @Benchmark
+    public void listGames(ListState state, Blackhole blackhole) throws DataAccessException {
+        Collection<GameData> games = state.service.listGames(state.authToken);
+        blackhole.consume(ChessJson.gson().toJson(games));
+    }
+}
@@ -0,0 +1,66 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.ChessJson;
+import chess.GameSnapshot;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding a stored game from its binary snapshot against the reflective
+ * JSON the gameJSON column used to hold and the compact FEN JSON, plus
+ * encoding a snapshot. For the start position the three take 37 bytes,
+ * 453 characters and 58 characters.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnapshotBenchmark {
+
+    private final Gson reflective = new Gson();
+    private ChessGame game;
+    private final ChessGame reused = new ChessGame();
+    private byte[] snapshot;
+    private final byte[] buffer = new byte[GameSnapshot.MAX_SIZE];
+    private String json;
+    private String compactJson;
+
+    @Setup
+    public void setup() {
+        game = Positions.middlegame();
+        snapshot = GameSnapshot.encode(game);
+        json = reflective.toJson(game);
+        compactJson = ChessJson.gson().toJson(game);
+    }
+
+    @Benchmark
+    public ChessGame decodeSnapshot() {
+        return GameSnapshot.decode(snapshot);
+    }
+
+    @Benchmark
+    public ChessGame decodeSnapshotIntoReusedGame() {
+        GameSnapshot.decode(snapshot, 0, snapshot.length, reused);
+        return reused;
+    }
+
+    @Benchmark
+    public ChessGame decodeReflectiveJson() {
+        return reflective.fromJson(json, ChessGame.class);
+    }
+
+    @Benchmark
+    public ChessGame decodeCompactJson() {
+        return ChessJson.gson().fromJson(compactJson, ChessGame.class);
+    }
+
+    @Benchmark
+    public int encodeSnapshot() {
+        return GameSnapshot.encode(game, buffer, 0);
+    }
+}
@@ -0,0 +1,402 @@
+package dataaccess;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded pool of JDBC connections. Closing a connection handed out by
+ * {@link #acquire()} puts it back in the pool instead of closing it, so the
+ * usual try-with-resources code keeps working.
+ * <p>
+ * Idle connections are reused most recently returned first, so the ones at
+ * the back of the queue are the ones that can go. A background task closes
+ * connections idle past {@code idleTimeoutMillis}, down to {@code minIdle},
+ * and opens new ones up to {@code minIdle}. A connection that sat idle long
+ * enough to have been dropped by the server is checked with
+ * {@link Connection#isValid} before it is handed out. When all
+ * {@code maxSize} connections are in use, callers wait up to
+ * {@code acquireTimeoutMillis} for one to come back.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    //opens a new physical connection
+    public interface ConnectionFactory {
+        Connection open() throws SQLException;
+    }
+
+    /**
+     * @param minIdle                 connections kept open even when nothing uses them
+     * @param maxSize                 connections open at most, in use or idle
+     * @param idleTimeoutMillis       how long a connection above minIdle may sit idle before it is closed
+     * @param acquireTimeoutMillis    how long acquire waits for a connection when all are in use
+     * @param validateAfterMillis     idle time after which a connection is validated before reuse
+     * @param validationTimeoutSeconds time allowed for that validation
+     */
+    public record Settings(int minIdle, int maxSize, long idleTimeoutMillis, long acquireTimeoutMillis,
+                           long validateAfterMillis, int validationTimeoutSeconds) {
+        public Settings {
+            if (minIdle < 0 || maxSize < 1 || minIdle > maxSize || idleTimeoutMillis < 1 || acquireTimeoutMillis < 0
+                    || validateAfterMillis < 0 || validationTimeoutSeconds < 0) {
+                throw new IllegalArgumentException("invalid connection pool settings");
+            }
+        }
+
+        public static Settings defaults() {
+            return new Settings(1, 10, 600_000, 5_000, 500, 2);
+        }
+
+        //reads db.pool.* properties, falling back to the defaults for any left out
+        public static Settings from(Properties props) {
+            Settings defaults = defaults();
+            return new Settings(
+                    Integer.parseInt(props.getProperty("db.pool.minIdle", String.valueOf(defaults.minIdle()))),
+                    Integer.parseInt(props.getProperty("db.pool.maxSize", String.valueOf(defaults.maxSize()))),
+                    Long.parseLong(props.getProperty("db.pool.idleTimeoutMillis",
+                            String.valueOf(defaults.idleTimeoutMillis()))),
+                    Long.parseLong(props.getProperty("db.pool.acquireTimeoutMillis",
+                            String.valueOf(defaults.acquireTimeoutMillis()))),
+                    Long.parseLong(props.getProperty("db.pool.validateAfterMillis",
+                            String.valueOf(defaults.validateAfterMillis()))),
+                    Integer.parseInt(props.getProperty("db.pool.validationTimeoutSeconds",
+                            String.valueOf(defaults.validationTimeoutSeconds()))));
+        }
+    }
+
+    /**
+     * A snapshot of the pool's state and counters
+     *
+     * @param open               connections open, in use or idle
+     * @param idle               connections waiting in the pool
+     * @param waiting            callers blocked in acquire
+     * @param acquired           connections handed out so far
+     * @param created            physical connections opened so far
+     * @param closed             physical connections closed so far
+     * @param timeouts           acquires that gave up waiting
+     * @param validationFailures idle connections found dead and replaced
+     * @param waitNanos          total time callers spent in acquire
+     */
+    public record Metrics(int open, int idle, int waiting, long acquired, long created, long closed, long timeouts,
+                          long validationFailures, long waitNanos) {
+        public int inUse() {
+            return open - idle;
+        }
+
+        public long averageWaitNanos() {
+            return acquired == 0 ? 0 : waitNanos / acquired;
+        }
+    }
+
+    private record Idle(Connection connection, long since) {
+    }
+
+    private final ConnectionFactory factory;
+    private final Settings settings;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition returned = lock.newCondition();
+    //most recently returned first
+    private final ArrayDeque<Idle> idle = new ArrayDeque<>();
+    private int open;
+    private int waiting;
+    private boolean closed;
+
+    private final AtomicLong acquired = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong closedCount = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+
+    private final ScheduledExecutorService maintenance;
+
+    private ConnectionPool(ConnectionFactory factory, Settings settings) {
+        this.factory = factory;
+        this.settings = settings;
+        maintenance = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "db-pool-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Creates a pool and starts its maintenance task, which opens the first
+     * minIdle connections right away
+     *
+     * @param factory  opens the pool's physical connections
+     * @param settings how many connections to keep and how long to wait for them
+     * @return the started pool; closing it stops the maintenance task
+     */
+    public static ConnectionPool start(ConnectionFactory factory, Settings settings) {
+        ConnectionPool pool = new ConnectionPool(factory, settings);
+        long interval = Math.max(settings.idleTimeoutMillis() / 4, 1_000);
+        pool.maintenance.scheduleWithFixedDelay(pool::maintain, 0, interval, TimeUnit.MILLISECONDS);
+        return pool;
+    }
+
+    /**
+     * Hands out a connection, reusing an idle one when there is one and
+     * opening a new one while fewer than maxSize are open
+     *
+     * @throws SQLTimeoutException if every connection stayed in use for acquireTimeoutMillis
+     * @throws SQLException        if a new connection could not be opened
+     */
+    public Connection acquire() throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(settings.acquireTimeoutMillis());
+        while (true) {
+            Idle reused;
+            lock.lock();
+            try {
+                while (idle.isEmpty() && open >= settings.maxSize() && !closed) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        timeouts.incrementAndGet();
+                        throw new SQLTimeoutException("Error: timed out after " + settings.acquireTimeoutMillis()
+                                + " ms waiting for a database connection");
+                    }
+                    waiting++;
+                    try {
+                        returned.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Error: interrupted waiting for a database connection", e);
+                    } finally {
+                        waiting--;
+                    }
+                }
+                if (closed) {
+                    throw new SQLException("Error: connection pool is closed");
+                }
+                reused = idle.pollFirst();
+                if (reused == null) {
+                    open++;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            Connection connection;
+            if (reused == null) {
+                connection = openCounted();
+            } else {
+                connection = reused.connection();
+                long idleMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - reused.since());
+                if (idleMillis >= settings.validateAfterMillis() && !isValid(connection)) {
+                    validationFailures.incrementAndGet();
+                    discard(connection);
+                    continue;
+                }
+            }
+            acquired.incrementAndGet();
+            waitNanos.addAndGet(System.nanoTime() - start);
+            return lend(connection);
+        }
+    }
+
+    public Metrics metrics() {
+        lock.lock();
+        try {
+            return new Metrics(open, idle.size(), waiting, acquired.get(), created.get(), closedCount.get(),
+                    timeouts.get(), validationFailures.get(), waitNanos.get());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Closes every idle connection and stops handing out new ones; connections
+     * still in use are closed as they come back
+     */
+    @Override
+    public void close() {
+        List<Idle> toClose;
+        lock.lock();
+        try {
+            closed = true;
+            toClose = new ArrayList<>(idle);
+            idle.clear();
+            open -= toClose.size();
+            returned.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        maintenance.shutdownNow();
+        for (Idle entry : toClose) {
+            closeQuietly(entry.connection());
+        }
+    }
+
+    /// MAINTENANCE ///
+
+    //closes connections idle too long, then tops the pool back up to minIdle
+    void maintain() {
+        List<Connection> expired = new ArrayList<>();
+        long now = System.nanoTime();
+        long timeout = TimeUnit.MILLISECONDS.toNanos(settings.idleTimeoutMillis());
+        int missing;
+        lock.lock();
+        try {
+            Iterator<Idle> oldestFirst = idle.descendingIterator();
+            while (oldestFirst.hasNext() && open > settings.minIdle()) {
+                Idle entry = oldestFirst.next();
+                if (now - entry.since() < timeout) {
+                    break;
+                }
+                oldestFirst.remove();
+                open--;
+                expired.add(entry.connection());
+            }
+            missing = closed ? 0 : Math.max(settings.minIdle() - open, 0);
+            open += missing;
+        } finally {
+            lock.unlock();
+        }
+        for (Connection connection : expired) {
+            closeQuietly(connection);
+        }
+        for (int i = 0; i < missing; i++) {
+            try {
+                release(openCounted());
+            } catch (SQLException e) {
+                //the database is unreachable for now, the next run tries again
+                for (int left = i + 1; left < missing; left++) {
+                    forget();
+                }
+                return;
+            }
+        }
+    }
+
+    /// LENDING ///
+
+    //opens a physical connection for a slot already counted in open, giving the slot back if that fails
+    private Connection openCounted() throws SQLException {
+        try {
+            Connection connection = factory.open();
+            created.incrementAndGet();
+            return connection;
+        } catch (SQLException | RuntimeException e) {
+            forget();
+            throw e;
+        }
+    }
+
+    //puts a connection back at the front of the pool, or closes it if it is broken or the pool is closed
+    private void release(Connection connection) {
+        boolean healthy;
+        try {
+            healthy = !connection.isClosed();
+            if (healthy && !connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            healthy = false;
+        }
+        lock.lock();
+        try {
+            if (healthy && !closed) {
+                idle.addFirst(new Idle(connection, System.nanoTime()));
+                returned.signal();
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        discard(connection);
+    }
+
+    private void discard(Connection connection) {
+        forget();
+        closeQuietly(connection);
+    }
+
+    //frees the slot of a connection that is gone
+    private void forget() {
+        lock.lock();
+        try {
+            open--;
+            returned.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isValid(Connection connection) {
+        try {
+            return connection.isValid(settings.validationTimeoutSeconds());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void closeQuietly(Connection connection) {
+        closedCount.incrementAndGet();
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            //it is being thrown away either way
+        }
+    }
+
+    //wraps a connection so that closing it returns it to the pool, once
+    private Connection lend(Connection connection) {
+        InvocationHandler handler = new InvocationHandler() {
+            private boolean returnedToPool;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close" -> {
+                        if (!returnedToPool) {
+                            returnedToPool = true;
+                            release(connection);
+                        }
+                        return null;
+                    }
+                    case "isClosed" -> {
+                        return returnedToPool || connection.isClosed();
+                    }
+                    case "equals" -> {
+                        return proxy == args[0];
+                    }
+                    case "hashCode" -> {
+                        return System.identityHashCode(proxy);
+                    }
+                    case "toString" -> {
+                        return "pooled " + connection;
+                    }
+                    default -> {
+                        if (returnedToPool) {
+                            throw new SQLException("connection has already been returned to the pool");
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    }
+                }
+            }
+        };
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, handler);
+    }
+}
@@ -1,9 +1,12 @@
 package dataaccess;
 
 
+import chess.ChessMove;
 import model.*;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 public interface DataAccess {
     //List out things we'll need for data access, create, read, update, delete
@@ -25,6 +28,15 @@ public interface DataAccess {
 
     void updateGame(int gameID, GameData gameData);
 
+    //stores several games at once, keyed by id, as updateGame would one at a time
+    void updateGames(Map<Integer, GameData> games) throws DataAccessException;
+
+    //records a legal move just made in a stored game; gameData holds the game after the move
+    void appendMove(int gameID, GameData gameData, ChessMove move) throws DataAccessException;
+
+    //stores finished games in one batch, each under a new id; the ids in the given GameData are ignored
+    void insertGames(List<GameData> games) throws DataAccessException;
+
     String getUsername(String authToken);
 
     void clearAuthData()throws DataAccessException;
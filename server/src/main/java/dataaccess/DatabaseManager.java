@@ -8,6 +8,9 @@ public class DatabaseManager {
     private static String dbUsername;
     private static String dbPassword;
     private static String connectionUrl;
+    private static ConnectionPool.Settings poolSettings;
+    //opened on first use, once the database exists
+    private static ConnectionPool pool;
 
     /*
      * Load the database information for the db.properties file.
@@ -30,9 +33,10 @@ public class DatabaseManager {
     }
 
     /**
-     * Create a connection to the database and sets the catalog based upon the
-     * properties specified in db.properties. Connections to the database should
-     * be short-lived, and you must close the connection when you are done with it.
+     * Gets a connection to the database from the pool, with the catalog set
+     * based upon the properties specified in db.properties. Connections to the
+     * database should be short-lived, and you must close the connection when
+     * you are done with it, which returns it to the pool.
      * The easiest way to do that is with a try-with-resource block.
      * <br/>
      * <code>
@@ -43,15 +47,47 @@ public class DatabaseManager {
      */
     static Connection getConnection() throws DataAccessException {
         try {
-            //do not wrap the following line with a try-with-resources
-            var conn = DriverManager.getConnection(connectionUrl, dbUsername, dbPassword);
-            conn.setCatalog(databaseName);
-            return conn;
+            return pool().acquire();
         } catch (SQLException ex) {
             throw new DataAccessException("failed to get connection", ex);
         }
     }
 
+    /**
+     * @return how busy the connection pool is, and how it has been used so far
+     */
+    public static ConnectionPool.Metrics poolMetrics() {
+        return pool().metrics();
+    }
+
+    private static synchronized ConnectionPool pool() {
+        if (pool == null) {
+            String url = connectionUrl;
+            String username = dbUsername;
+            String password = dbPassword;
+            String catalog = databaseName;
+            pool = ConnectionPool.start(() -> {
+                var conn = DriverManager.getConnection(url, username, password);
+                try {
+                    conn.setCatalog(catalog);
+                } catch (SQLException ex) {
+                    conn.close();
+                    throw ex;
+                }
+                return conn;
+            }, poolSettings);
+        }
+        return pool;
+    }
+
+    //connections made with the old settings are closed, the next getConnection opens a new pool
+    private static synchronized void closePool() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
+    }
+
     private static void loadPropertiesFromResources() {
         try (var propStream = Thread.currentThread().getContextClassLoader().getResourceAsStream("db.properties")) {
             if (propStream == null) {
@@ -72,6 +108,16 @@ public class DatabaseManager {
 
         var host = props.getProperty("db.host");
         var port = Integer.parseInt(props.getProperty("db.port"));
-        connectionUrl = String.format("jdbc:mysql://%s:%d", host, port);
+        //lets JDBC batches such as game imports go out as multi-row inserts
+        connectionUrl = String.format("jdbc:mysql://%s:%d?rewriteBatchedStatements=true", host, port);
+        //each pooled connection keeps its server-side prepared statements, so the server parses a query once per
+        //connection instead of once per request; closing the statement returns it to the connection's cache
+        var statementCacheSize = Integer.parseInt(props.getProperty("db.statementCacheSize", "64"));
+        if (statementCacheSize > 0) {
+            connectionUrl += "&useServerPrepStmts=true&cachePrepStmts=true&prepStmtCacheSize=" + statementCacheSize
+                    + "&prepStmtCacheSqlLimit=1024";
+        }
+        poolSettings = ConnectionPool.Settings.from(props);
+        closePool();
     }
 }
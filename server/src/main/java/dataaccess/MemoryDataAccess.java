@@ -1,6 +1,7 @@
 package dataaccess;
 
 import chess.ChessGame;
+import chess.ChessMove;
 import model.*;
 
 import java.util.*;
@@ -72,6 +73,26 @@ public class MemoryDataAccess implements DataAccess {
         gameDataSet.put(gameIDkey, gameData);
     }
 
+    public void updateGames(Map<Integer, GameData> games) {
+        for (Map.Entry<Integer, GameData> game : games.entrySet()) {
+            updateGame(game.getKey(), game.getValue());
+        }
+    }
+
+    //the stored game is the same object, so only the players and name can need replacing
+    public void appendMove(int gameID, GameData gameData, ChessMove move) {
+        updateGame(gameID, gameData);
+    }
+
+    public void insertGames(List<GameData> games) {
+        for (GameData game : games) {
+            int gameID = gameIDCounter;
+            gameIDCounter++;
+            gameDataSet.put(String.format("%04d", gameID), new GameData(gameID, game.whiteUsername(),
+                    game.blackUsername(), game.gameName(), game.game()));
+        }
+    }
+
     public String getUsername(String authToken) {
         return authDataSet.get(authToken);
     }
@@ -1,7 +1,11 @@
 package dataaccess;
 
 import chess.ChessGame;
-import com.google.gson.Gson;
+import chess.ChessJson;
+import chess.ChessMove;
+import chess.GameSnapshot;
+import chess.InvalidMoveException;
+import chess.Move;
 import model.*;
 
 import java.sql.*;
@@ -11,14 +15,39 @@ import java.util.*;
 
 public class MySQLDataAccess implements DataAccess {
 
+    //values are always bound as parameters, so each statement's text stays the same and the
+    //driver can reuse its server-side prepared form on every pooled connection
+    private static final String GET_USER = "SELECT * FROM userDataSet WHERE username = ?";
+    private static final String ADD_USER = "INSERT INTO userDataSet (username, password, email) VALUES (?, ?, ?)";
+    private static final String ADD_AUTH = "INSERT INTO authDataSet (authToken, username) VALUES (?, ?)";
+    private static final String GET_AUTH = "SELECT * FROM authDataSet WHERE authToken = ?";
+    private static final String REMOVE_AUTH = "DELETE FROM authDataSet WHERE authToken = ?";
+    private static final String LIST_GAMES = "SELECT * FROM gameDataSet";
+    private static final String GET_GAME = "SELECT * FROM gameDataSet WHERE id = ?";
+    private static final String CREATE_GAME = "INSERT INTO gameDataSet (gameName, gameSnapshot) VALUES (?, ?)";
+    private static final String UPDATE_GAME = "REPLACE INTO gameDataSet (id, whiteUsername, blackUsername, gameName, " +
+            "gameSnapshot, snapshotPly) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_GAME = "INSERT INTO gameDataSet (whiteUsername, blackUsername, gameName, " +
+            "gameSnapshot, snapshotPly) VALUES (?, ?, ?, ?, ?)";
+    private static final String APPEND_MOVE = "INSERT INTO gameMoveLog (gameID, ply, move) VALUES (?, ?, ?)";
+    private static final String SAVE_SNAPSHOT = "UPDATE gameDataSet SET gameSnapshot = ?, snapshotPly = ? WHERE id = ?";
+    private static final String GET_MOVES = "SELECT move FROM gameMoveLog WHERE gameID = ? AND ply > ? ORDER BY ply";
+    private static final String LIST_MOVES = "SELECT l.gameID, l.move FROM gameMoveLog l " +
+            "JOIN gameDataSet g ON g.id = l.gameID WHERE l.ply > g.snapshotPly ORDER BY l.gameID, l.ply";
+    //a game stored over again drops any logged moves past it
+    private static final String TRIM_MOVES = "DELETE FROM gameMoveLog WHERE gameID = ? AND ply > ?";
+
+    //how often appendMove stores a full snapshot, which bounds how many moves getGame replays
+    static final int SNAPSHOT_EVERY_PLIES = 16;
+
     public MySQLDataAccess() throws DataAccessException {
         configureDatabase();
     }
 
     public UserData getUserData(String username) throws DataAccessException {
-        String statement = createGetUserStatement(username);
         try (Connection conn = DatabaseManager.getConnection()) {
-            try (PreparedStatement ps = conn.prepareStatement(statement)) {
+            try (PreparedStatement ps = conn.prepareStatement(GET_USER)) {
+                ps.setString(1, username);
                 try (ResultSet rs = ps.executeQuery()) {
                     if (!rs.next()) {
                         throw new DataAccessException("username does not exist");
@@ -34,9 +63,9 @@ public class MySQLDataAccess implements DataAccess {
     }
 
     public AuthData createUser(UserData userData) throws AlreadyTakenException {
-        String statement = createGetUserStatement(userData.username());
         try (Connection conn = DatabaseManager.getConnection()) {
-            try (PreparedStatement ps = conn.prepareStatement(statement)) {
+            try (PreparedStatement ps = conn.prepareStatement(GET_USER)) {
+                ps.setString(1, userData.username());
                 try (ResultSet rs = ps.executeQuery()) {
                     if (rs.next()) {
                         throw new AlreadyTakenException("username already taken");
@@ -48,9 +77,8 @@ public class MySQLDataAccess implements DataAccess {
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
-        statement = createAddUserStatement(userData);
         try {
-            ResultSet rs = executeStatement(statement);
+            executeUpdate(ADD_USER, userData.username(), userData.password(), userData.email());
         } catch (DataAccessException e) {
             throw new RuntimeException(e);
         }
@@ -66,9 +94,8 @@ public class MySQLDataAccess implements DataAccess {
 
     public AuthData createAuthData(String username) {
         AuthData auth = new AuthData(generateToken(), username);
-        String statement = addAuthDataStatement(auth);
         try {
-            executeStatement(statement);
+            executeUpdate(ADD_AUTH, auth.authToken(), auth.username());
         } catch (DataAccessException e) {
             throw new RuntimeException(e);
         }
@@ -76,9 +103,9 @@ public class MySQLDataAccess implements DataAccess {
     }
 
     public boolean verifyAuthData(String authToken) {
-        String statement = getAuthDataStatement(authToken);
         try (Connection conn = DatabaseManager.getConnection()) {
-            try (PreparedStatement ps = conn.prepareStatement(statement)) {
+            try (PreparedStatement ps = conn.prepareStatement(GET_AUTH)) {
+                ps.setString(1, authToken);
                 try (ResultSet rs = ps.executeQuery()) {
                     return rs.next();
                 }
@@ -89,29 +116,41 @@ public class MySQLDataAccess implements DataAccess {
     }
 
     public void removeAuthData(String authToken) {
-        String statement = removeAuthDataStatement(authToken);
         try {
-            executeStatement(statement);
+            executeUpdate(REMOVE_AUTH, authToken);
         } catch (DataAccessException e) {
             throw new RuntimeException(e);
         }
     }
 
     public Collection<GameData> listGames() {
-        Collection<GameData> output = new HashSet<GameData>();
+        Map<Integer, GameData> games = new HashMap<>();
         try (Connection conn = DatabaseManager.getConnection()) {
-            String statement = "SELECT * FROM gameDataSet";
-            try (PreparedStatement ps = conn.prepareStatement(statement)) {
+            try (PreparedStatement ps = conn.prepareStatement(LIST_GAMES)) {
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        GameData game = readGameData(rs);
+                        games.put(game.gameID(), game);
+                    }
+                }
+            }
+            //every game's moves since its snapshot, in one query
+            try (PreparedStatement ps = conn.prepareStatement(LIST_MOVES)) {
                 try (ResultSet rs = ps.executeQuery()) {
                     while (rs.next()) {
-                        output.add(readGameData(rs));
+                        //a game created after the first query is left out of this listing
+                        GameData game = games.get(rs.getInt(1));
+                        if (game != null) {
+                            replay(game, rs.getInt(2));
+                        }
                     }
                 }
             }
         } catch (Exception e) {
-            throw new RuntimeException();
+            throw new RuntimeException("Error listing games", e);
         }
-        return output;
+        //hashed only now that the replayed games have stopped changing
+        return new HashSet<GameData>(games.values());
     }
 
     private GameData readGameData(ResultSet rs) throws SQLException {
@@ -119,16 +158,18 @@ public class MySQLDataAccess implements DataAccess {
         var whiteUsername = rs.getString("whiteUsername");
         var blackUsername = rs.getString("blackUsername");
         var gameName = rs.getString("gameName");
-        var json = rs.getString("gameJSON");
-        ChessGame game = new Gson().fromJson(json, ChessGame.class);
+        //rows written before snapshots were kept only have the JSON
+        var snapshot = rs.getBytes("gameSnapshot");
+        ChessGame game = snapshot != null ? GameSnapshot.decode(snapshot)
+                : ChessJson.gson().fromJson(rs.getString("gameJSON"), ChessGame.class);
         return new GameData(gameID, whiteUsername, blackUsername, gameName, game);
     }
 
     public int createGame(String gameName) {
-        ChessGame game = new ChessGame();
-        String statement = createGameStatement(gameName, game);
         try (Connection conn = DatabaseManager.getConnection()) {
-            try (PreparedStatement ps = conn.prepareStatement(statement, RETURN_GENERATED_KEYS)) {
+            try (PreparedStatement ps = conn.prepareStatement(CREATE_GAME, RETURN_GENERATED_KEYS)) {
+                ps.setString(1, gameName);
+                ps.setBytes(2, GameSnapshot.encode(new ChessGame()));
                 ps.executeUpdate();
                 ResultSet rs = ps.getGeneratedKeys();
                 if (rs.next()) {
@@ -144,104 +185,184 @@ public class MySQLDataAccess implements DataAccess {
 
     public GameData getGame(int gameID) {
         try (Connection conn = DatabaseManager.getConnection()) {
-            String statement = "SELECT * FROM gameDataSet WHERE id=" + gameID;
-            try (PreparedStatement ps = conn.prepareStatement(statement)) {
+            GameData game;
+            int snapshotPly;
+            try (PreparedStatement ps = conn.prepareStatement(GET_GAME)) {
+                ps.setInt(1, gameID);
                 try (ResultSet rs = ps.executeQuery()) {
-                    if (rs.next()) {
-                        return readGameData(rs);
+                    if (!rs.next()) {
+                        return null;
+                    }
+                    game = readGameData(rs);
+                    snapshotPly = rs.getInt("snapshotPly");
+                }
+            }
+            try (PreparedStatement ps = conn.prepareStatement(GET_MOVES)) {
+                ps.setInt(1, gameID);
+                ps.setInt(2, snapshotPly);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        replay(game, rs.getInt(1));
                     }
                 }
             }
+            return game;
         } catch (Exception e) {
-            throw new RuntimeException();
+            throw new RuntimeException("Error reading game " + gameID, e);
+        }
+    }
+
+    //moves in the log were checked when they were made, but a bad row should fail loudly rather than be skipped
+    private static void replay(GameData game, int move) {
+        try {
+            game.game().makeMove(Move.toChessMove(move));
+        } catch (InvalidMoveException | RuntimeException e) {
+            throw new IllegalStateException("Error replaying moves for game " + game.gameID()
+                    + ": logged move " + move + " is not legal", e);
         }
-        return null;
     }
 
     public void updateGame(int gameID, GameData gameData) {
-        String statement = updateGameStatement(gameID, gameData);
         try {
-            executeStatement(statement);
+            updateGames(Map.of(gameID, gameData));
         } catch (DataAccessException e) {
             throw new RuntimeException(e);
         }
     }
 
-    public String getUsername(String authToken) {
-        return null;
-    }
-
-    public void clearAuthData() throws DataAccessException{
-        executeStatement(clearTablesStatements[0]);
-    }
-
-    public void clearUserData() throws DataAccessException{
-        executeStatement(clearTablesStatements[1]);
-    }
-
-    public void clearGameData() throws DataAccessException {
-        executeStatement(clearTablesStatements[2]);
+    //one transaction and one JDBC batch per statement, so a flush of many games costs a couple of round trips
+    public void updateGames(Map<Integer, GameData> games) throws DataAccessException {
+        byte[] buffer = new byte[GameSnapshot.MAX_SIZE];
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(UPDATE_GAME);
+                 PreparedStatement trim = conn.prepareStatement(TRIM_MOVES)) {
+                for (Map.Entry<Integer, GameData> entry : games.entrySet()) {
+                    GameData game = entry.getValue();
+                    int ply = game.game().getPly();
+                    ps.setInt(1, entry.getKey());
+                    ps.setString(2, game.whiteUsername());
+                    ps.setString(3, game.blackUsername());
+                    ps.setString(4, game.gameName());
+                    int length = GameSnapshot.encode(game.game(), buffer, 0);
+                    ps.setBytes(5, Arrays.copyOf(buffer, length));
+                    ps.setInt(6, ply);
+                    ps.addBatch();
+                    trim.setInt(1, entry.getKey());
+                    trim.setInt(2, ply);
+                    trim.addBatch();
+                }
+                ps.executeBatch();
+                trim.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error updating games", e);
+        }
     }
 
-    private ResultSet executeStatement(String statement) throws DataAccessException {
+    /**
+     * Appends one move to the game's log instead of rewriting the stored
+     * game, and every SNAPSHOT_EVERY_PLIES plies also stores the game's
+     * snapshot so getGame never replays more than that many moves. Two
+     * writers adding the same ply collide on the log's primary key.
+     */
+    public void appendMove(int gameID, GameData gameData, ChessMove move) throws DataAccessException {
+        int ply = gameData.game().getPly();
+        boolean snapshot = ply % SNAPSHOT_EVERY_PLIES == 0;
         try (Connection conn = DatabaseManager.getConnection()) {
-            try (PreparedStatement ps = conn.prepareStatement(statement, Statement.RETURN_GENERATED_KEYS)) {
+            if (snapshot) {
+                conn.setAutoCommit(false);
+            }
+            try (PreparedStatement ps = conn.prepareStatement(APPEND_MOVE)) {
+                ps.setInt(1, gameID);
+                ps.setInt(2, ply);
+                ps.setInt(3, Move.of(move));
                 ps.executeUpdate();
-                return ps.getGeneratedKeys();
+                if (snapshot) {
+                    try (PreparedStatement save = conn.prepareStatement(SAVE_SNAPSHOT)) {
+                        save.setBytes(1, GameSnapshot.encode(gameData.game()));
+                        save.setInt(2, ply);
+                        save.setInt(3, gameID);
+                        save.executeUpdate();
+                    }
+                    conn.commit();
+                }
+            } catch (SQLException e) {
+                if (snapshot) {
+                    conn.rollback();
+                }
+                throw e;
             }
         } catch (SQLException e) {
-            throw new DataAccessException("Error executing Statement :" + statement);
+            throw new DataAccessException("Error appending move", e);
         }
     }
 
-    private String createAddUserStatement(UserData userData) {
-        return "INSERT INTO userDataSet (username, password, email)" +
-                "VALUES ('" + userData.username() +
-                "', '" + userData.password() +
-                "', '" + userData.email() + "')";
-    }
-
-    private String createGetUserStatement(String username) {
-        return "SELECT * FROM userDataSet WHERE username = '" + username + "'";
+    //one transaction and one JDBC batch for the lot, which the driver rewrites into multi-row inserts
+    public void insertGames(List<GameData> games) throws DataAccessException {
+        byte[] buffer = new byte[GameSnapshot.MAX_SIZE];
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(INSERT_GAME)) {
+                for (GameData game : games) {
+                    ps.setString(1, game.whiteUsername());
+                    ps.setString(2, game.blackUsername());
+                    ps.setString(3, game.gameName());
+                    int length = GameSnapshot.encode(game.game(), buffer, 0);
+                    ps.setBytes(4, Arrays.copyOf(buffer, length));
+                    ps.setInt(5, game.game().getPly());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error importing games", e);
+        }
     }
 
-    private String addAuthDataStatement(AuthData authData) {
-        return "INSERT INTO authDataSet (authToken, username)" +
-                "VALUES ('" + authData.authToken() +
-                "', '" + authData.username() + "')";
+    public String getUsername(String authToken) {
+        return null;
     }
 
-    private String getAuthDataStatement(String authToken) {
-        return "SELECT * FROM authDataSet WHERE authToken = '" + authToken + "'";
+    public void clearAuthData() throws DataAccessException{
+        executeUpdate(clearTablesStatements[0]);
     }
 
-    private String removeAuthDataStatement(String authToken) {
-        return "DELETE FROM authDataSet WHERE authToken = '" + authToken + "'";
+    public void clearUserData() throws DataAccessException{
+        executeUpdate(clearTablesStatements[1]);
     }
 
-    private String createGameStatement(String gameName, ChessGame game) {
-        Gson gson = new Gson();
-        String gameJSON = gson.toJson(game);
-        return "INSERT INTO gameDataSet (gameName, gameJSON)" +
-                "VALUES ('" + gameName +
-                "', '" + gameJSON + "')";
+    public void clearGameData() throws DataAccessException {
+        executeUpdate(clearTablesStatements[2]);
+        executeUpdate(clearTablesStatements[3]);
     }
 
-    private String updateGameStatement(int gameID, GameData gameData) {
-        Gson gson = new Gson();
-        String gameJSON = gson.toJson(gameData.game());
-        return "REPLACE INTO gameDataSet (id, whiteUsername, blackUsername, gameName, gameJSON)" +
-                "VALUES ('" + gameID +
-                "', '" + gameData.whiteUsername() +
-                "', '" + gameData.blackUsername() +
-                "', '" + gameData.gameName() +
-                "', '" + gameJSON + "')";
+    private void executeUpdate(String statement, Object... params) throws DataAccessException {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            try (PreparedStatement ps = conn.prepareStatement(statement)) {
+                for (int i = 0; i < params.length; i++) {
+                    ps.setObject(i + 1, params[i]);
+                }
+                ps.executeUpdate();
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error executing Statement :" + statement);
+        }
     }
 
     private final String[] clearTablesStatements = {
             "TRUNCATE TABLE userDataSet",
             "TRUNCATE TABLE authDataSet",
-            "TRUNCATE TABLE gameDataSet"
+            "TRUNCATE TABLE gameDataSet",
+            "TRUNCATE TABLE gameMoveLog"
     };
 
     private final String[] createTableStrings = {
@@ -267,8 +388,18 @@ CREATE TABLE IF NOT EXISTS gameDataSet (
 `blackUsername` varchar(255),
 `gameName` varchar(255) NOT NULL,
 `gameJSON` TEXT,
+`gameSnapshot` BLOB,
+`snapshotPly` int NOT NULL DEFAULT 0,
 PRIMARY KEY (`id`)
 )
+""",
+            """
+CREATE TABLE IF NOT EXISTS gameMoveLog (
+`gameID` int NOT NULL,
+`ply` int NOT NULL,
+`move` smallint unsigned NOT NULL,
+PRIMARY KEY (`gameID`, `ply`)
+)
 """
     };
 
@@ -285,8 +416,27 @@ PRIMARY KEY (`id`)
                     preparedStatement.executeUpdate();
                 }
             }
+            addMissingColumn(connection, "gameSnapshot", "BLOB");
+            addMissingColumn(connection, "snapshotPly", "int NOT NULL DEFAULT 0");
         } catch (SQLException e) {
             throw new DataAccessException("Database Configuration Failure :(");
         }
     }
+
+    //gameDataSet tables created by older versions lack the columns added since
+    private void addMissingColumn(Connection connection, String column, String definition) throws SQLException {
+        String statement = "SELECT COUNT(*) FROM information_schema.COLUMNS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'gameDataSet' AND COLUMN_NAME = ?";
+        try (var ps = connection.prepareStatement(statement)) {
+            ps.setString(1, column);
+            try (var rs = ps.executeQuery()) {
+                if (rs.next() && rs.getInt(1) > 0) {
+                    return;
+                }
+            }
+        }
+        try (var ps = connection.prepareStatement("ALTER TABLE gameDataSet ADD COLUMN `" + column + "` " + definition)) {
+            ps.executeUpdate();
+        }
+    }
 }
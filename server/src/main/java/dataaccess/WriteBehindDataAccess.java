@@ -0,0 +1,449 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.GameSnapshot;
+import model.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * Keeps games in memory in front of another DataAccess and writes game
+ * updates behind, so a request that changes a game returns without waiting
+ * on the database. Reads of a game come from memory once it has been
+ * loaded. Updates are coalesced per game: only the latest version of each
+ * game changed since the last flush is written, all of them in one
+ * {@link DataAccess#updateGames} batch.
+ * <p>
+ * Moves recorded with {@link #appendMove} are queued in order and flushed
+ * through the delegate's own appendMove, so a delegate that keeps a move log
+ * gets one small append per move rather than a rewrite of the whole game. A
+ * game updated while it has moves queued is written whole instead, since the
+ * whole game already holds those moves.
+ * <p>
+ * Queuing an update copies the game through its binary snapshot and stamps
+ * it with a version, and every read hands out a copy of its own. The flusher
+ * and concurrent requests therefore never share a game one of them may be
+ * changing. A flush only drops the version it wrote, so an update queued
+ * while a batch is in flight is written by the next flush.
+ * <p>
+ * A background task flushes every {@code flushIntervalMillis}, which bounds
+ * how much is lost if the process dies: any update older than that has
+ * reached the database, unless the database was unreachable or rejected a
+ * game, in which case those writes stay pending, the failure is counted and
+ * kept for {@link #lastFlushFailure()}, and the next flush tries again. A
+ * batch the delegate rejects is retried one game at a time, so one bad game
+ * does not keep the others from being written. The shutdown hook
+ * {@link #start} registers and {@link #close()} flush whatever is left.
+ * Games with nothing pending are dropped from memory once they go unused
+ * for {@code idleMillis}. Users, auth tokens and game creation go straight
+ * to the delegate.
+ */
+public class WriteBehindDataAccess implements DataAccess, AutoCloseable {
+
+    public static final long DEFAULT_IDLE_MILLIS = 60_000;
+
+    //a move queued for the delegate's log, with a copy of the game as the move left it
+    private record Appended(GameData game, ChessMove move) {
+    }
+
+    //what is queued for one game and which queueing it was: the latest copy of the game, and the moves
+    //to append that lead up to it, or no moves if the whole game is to be written
+    private record Write(long version, GameData game, List<Appended> moves) {
+        boolean wholeGame() {
+            return moves.isEmpty();
+        }
+    }
+
+    //a game kept in memory, and when it was last read or written
+    private static final class Cached {
+        final GameData game;
+        volatile long lastUsed = System.nanoTime();
+
+        Cached(GameData game) {
+            this.game = game;
+        }
+    }
+
+    private final DataAccess delegate;
+    private final long flushIntervalMillis;
+    private final long idleNanos;
+    //games read or written through this instance and not yet evicted, by id
+    private final Map<Integer, Cached> games = new ConcurrentHashMap<>();
+    //the latest version of each game not yet written to the delegate
+    private final Map<Integer, Write> pending = new ConcurrentHashMap<>();
+    private final AtomicLong versions = new AtomicLong();
+    //updates, loads and flushes share the read lock, clearing takes the write lock so nothing cleared comes back
+    private final ReentrantReadWriteLock clearLock = new ReentrantReadWriteLock();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private volatile Exception lastFlushFailure;
+    private final ScheduledExecutorService flusher;
+    //set by start, before the instance is handed out
+    private Thread shutdownHook;
+    private volatile boolean closed;
+
+    private WriteBehindDataAccess(DataAccess delegate, long flushIntervalMillis, long idleMillis) {
+        if (flushIntervalMillis < 1 || idleMillis < 0) {
+            throw new IllegalArgumentException("flush interval must be at least 1 ms and idle time not negative");
+        }
+        this.delegate = delegate;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+        flusher = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "game-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static WriteBehindDataAccess start(DataAccess delegate, long flushIntervalMillis) {
+        return start(delegate, flushIntervalMillis, DEFAULT_IDLE_MILLIS);
+    }
+
+    /**
+     * Creates a write-behind cache in front of the delegate and starts its
+     * background flushes and shutdown hook. Both hold on to the instance
+     * until {@link #close()}, so every instance must be closed unless it
+     * lives as long as the process.
+     *
+     * @param delegate            where games are read from and written to
+     * @param flushIntervalMillis time between background flushes, at least 1
+     * @param idleMillis          how long a game with nothing pending stays in memory unused
+     * @return the started instance
+     */
+    public static WriteBehindDataAccess start(DataAccess delegate, long flushIntervalMillis, long idleMillis) {
+        WriteBehindDataAccess dataAccess = new WriteBehindDataAccess(delegate, flushIntervalMillis, idleMillis);
+        dataAccess.flusher.scheduleWithFixedDelay(dataAccess::scheduledFlush, flushIntervalMillis,
+                flushIntervalMillis, TimeUnit.MILLISECONDS);
+        dataAccess.shutdownHook = new Thread(dataAccess::flushOrThrow, "game-write-behind-shutdown");
+        Runtime.getRuntime().addShutdownHook(dataAccess.shutdownHook);
+        return dataAccess;
+    }
+
+    public long flushIntervalMillis() {
+        return flushIntervalMillis;
+    }
+
+    //how many games have updates not yet written to the delegate
+    public int pendingWrites() {
+        return pending.size();
+    }
+
+    //how many games are held in memory
+    public int cachedGames() {
+        return games.size();
+    }
+
+    //flushes that failed so far, each leaving its updates pending
+    public long failedFlushes() {
+        return failedFlushes.get();
+    }
+
+    //why the most recent failed flush failed, or null if none has
+    public Exception lastFlushFailure() {
+        return lastFlushFailure;
+    }
+
+    /**
+     * Writes every pending game update to the delegate in one batch and
+     * appends every queued move, then drops games that have nothing pending
+     * and have gone unused for the idle time. Updates made while the batch
+     * is written stay pending for the next flush.
+     *
+     * @throws DataAccessException naming the last game the delegate failed to write; only the
+     *                             games that failed stay pending
+     */
+    public synchronized void flush() throws DataAccessException {
+        clearLock.readLock().lock();
+        try {
+            if (!pending.isEmpty()) {
+                writePending();
+            }
+            evictIdle();
+        } finally {
+            clearLock.readLock().unlock();
+        }
+    }
+
+    private void writePending() throws DataAccessException {
+        List<Write> wholeGames = new ArrayList<>();
+        List<Write> appends = new ArrayList<>();
+        for (Write write : pending.values()) {
+            (write.wholeGame() ? wholeGames : appends).add(write);
+        }
+        DataAccessException failure = null;
+        if (!wholeGames.isEmpty()) {
+            Map<Integer, GameData> updates = new LinkedHashMap<>();
+            for (Write write : wholeGames) {
+                updates.put(write.game().gameID(), write.game());
+            }
+            try {
+                delegate.updateGames(updates);
+                for (Write written : wholeGames) {
+                    written(written, 0);
+                }
+            } catch (DataAccessException | RuntimeException e) {
+                //one game the delegate rejects must not hold back the rest, so write them one at a time
+                for (Write write : wholeGames) {
+                    try {
+                        delegate.updateGames(Map.of(write.game().gameID(), write.game()));
+                        written(write, 0);
+                    } catch (DataAccessException | RuntimeException single) {
+                        failure = failure(write, single);
+                    }
+                }
+            }
+        }
+        for (Write write : appends) {
+            try {
+                appendMoves(write);
+            } catch (DataAccessException | RuntimeException e) {
+                failure = failure(write, e);
+            }
+        }
+        if (failure != null) {
+            failedFlushes.incrementAndGet();
+            lastFlushFailure = failure;
+            throw failure;
+        }
+    }
+
+    private static DataAccessException failure(Write write, Exception cause) {
+        return new DataAccessException("Error writing game " + write.game().gameID(), cause);
+    }
+
+    //appends a game's queued moves in order; those appended before a failure are not queued again
+    private void appendMoves(Write write) throws DataAccessException {
+        int appended = 0;
+        try {
+            for (Appended move : write.moves()) {
+                delegate.appendMove(move.game().gameID(), move.game(), move.move());
+                appended++;
+            }
+        } finally {
+            written(write, appended);
+        }
+    }
+
+    //drops what of a write reached the delegate: the whole game, or its first appended moves
+    private void written(Write written, int appended) {
+        if (!written.wholeGame() && appended == 0) {
+            return;
+        }
+        pending.computeIfPresent(written.game().gameID(), (gameID, latest) -> {
+            if (written.wholeGame() || latest.wholeGame()) {
+                //a whole game queued since holds every move, written or not
+                return latest.version() == written.version() ? null : latest;
+            }
+            //moves queued since were added after the ones written
+            List<Appended> left = latest.moves().subList(appended, latest.moves().size());
+            return left.isEmpty() ? null : new Write(latest.version(), latest.game(), List.copyOf(left));
+        });
+    }
+
+    private void evictIdle() {
+        long now = System.nanoTime();
+        for (Map.Entry<Integer, Cached> entry : games.entrySet()) {
+            Cached cached = entry.getValue();
+            if (now - cached.lastUsed >= idleNanos && !pending.containsKey(entry.getKey())) {
+                //only this entry; a newer one put since is kept
+                games.remove(entry.getKey(), cached);
+            }
+        }
+    }
+
+    //the background flush must not throw, or the executor stops running it; the failure is recorded by flush
+    private void scheduledFlush() {
+        try {
+            flush();
+        } catch (DataAccessException | RuntimeException e) {
+            //kept pending, the next flush tries again
+        }
+    }
+
+    private void flushOrThrow() {
+        try {
+            flush();
+        } catch (DataAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Stops the background flushes and writes what is left; later game
+     * updates are written as they are made
+     */
+    @Override
+    public void close() {
+        closed = true;
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(flushIntervalMillis + 1_000, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            //already shutting down, the hook is running or has run
+        }
+        flushOrThrow();
+    }
+
+    /// GAMES ///
+
+    public Collection<GameData> listGames() {
+        Map<Integer, GameData> listed = new HashMap<>();
+        for (GameData game : delegate.listGames()) {
+            listed.put(game.gameID(), game);
+        }
+        //the delegate has not seen the pending updates yet
+        for (Write write : pending.values()) {
+            listed.put(write.game().gameID(), write.game());
+        }
+        return listed.values();
+    }
+
+    public int createGame(String gameName) {
+        return delegate.createGame(gameName);
+    }
+
+    public GameData getGame(int gameID) {
+        clearLock.readLock().lock();
+        try {
+            Cached cached = games.get(gameID);
+            if (cached == null) {
+                GameData loaded = delegate.getGame(gameID);
+                if (loaded == null) {
+                    return null;
+                }
+                //an update that raced with this read wins
+                Cached fresh = new Cached(loaded);
+                Cached raced = games.putIfAbsent(gameID, fresh);
+                cached = raced != null ? raced : fresh;
+            }
+            cached.lastUsed = System.nanoTime();
+            //each caller gets its own game to change, as it would reading it from the database
+            return copy(gameID, cached.game);
+        } finally {
+            clearLock.readLock().unlock();
+        }
+    }
+
+    public void updateGame(int gameID, GameData gameData) {
+        GameData copy = copy(gameID, gameData);
+        queue(gameID, queued -> new Write(versions.incrementAndGet(), copy, List.of()));
+    }
+
+    /**
+     * Queues a move for the delegate's move log. If the whole game is
+     * already queued the move is folded into it, as any other update would be
+     */
+    public void appendMove(int gameID, GameData gameData, ChessMove move) {
+        GameData copy = copy(gameID, gameData);
+        queue(gameID, queued -> {
+            long version = versions.incrementAndGet();
+            if (queued == null) {
+                return new Write(version, copy, List.of(new Appended(copy, move)));
+            }
+            if (queued.wholeGame()) {
+                return new Write(version, copy, List.of());
+            }
+            List<Appended> moves = new ArrayList<>(queued.moves());
+            moves.add(new Appended(copy, move));
+            return new Write(version, copy, List.copyOf(moves));
+        });
+    }
+
+    //replaces what is queued for a game and the copy reads are served from; both change inside compute,
+    //so racing writes keep their order and the cached copy is always the latest one queued
+    private void queue(int gameID, UnaryOperator<Write> next) {
+        clearLock.readLock().lock();
+        try {
+            pending.compute(gameID, (id, queued) -> {
+                Write write = next.apply(queued);
+                games.put(gameID, new Cached(write.game()));
+                return write;
+            });
+        } finally {
+            clearLock.readLock().unlock();
+        }
+        //checked after queueing, so an update that raced with close is written by one of the two flushes
+        if (closed) {
+            flushOrThrow();
+        }
+    }
+
+    //a copy the caller can go on changing, taken on the caller's thread while the game is its own
+    private static GameData copy(int gameID, GameData gameData) {
+        ChessGame game = gameData.game() == null ? null : GameSnapshot.decode(GameSnapshot.encode(gameData.game()));
+        return new GameData(gameID, gameData.whiteUsername(), gameData.blackUsername(), gameData.gameName(), game);
+    }
+
+    public void updateGames(Map<Integer, GameData> updates) {
+        for (Map.Entry<Integer, GameData> update : updates.entrySet()) {
+            updateGame(update.getKey(), update.getValue());
+        }
+    }
+
+    public void insertGames(List<GameData> inserted) throws DataAccessException {
+        delegate.insertGames(inserted);
+    }
+
+    public void clearGameData() throws DataAccessException {
+        clearLock.writeLock().lock();
+        try {
+            pending.clear();
+            games.clear();
+            delegate.clearGameData();
+        } finally {
+            clearLock.writeLock().unlock();
+        }
+    }
+
+    /// USERS AND AUTH ///
+
+    public UserData getUserData(String username) throws DataAccessException {
+        return delegate.getUserData(username);
+    }
+
+    public AuthData createUser(UserData userData) throws AlreadyTakenException {
+        return delegate.createUser(userData);
+    }
+
+    public AuthData createAuthData(String username) {
+        return delegate.createAuthData(username);
+    }
+
+    public boolean verifyAuthData(String authToken) {
+        return delegate.verifyAuthData(authToken);
+    }
+
+    public void removeAuthData(String authToken) {
+        delegate.removeAuthData(authToken);
+    }
+
+    public String getUsername(String authToken) {
+        return delegate.getUsername(authToken);
+    }
+
+    public void clearAuthData() throws DataAccessException {
+        delegate.clearAuthData();
+    }
+
+    public void clearUserData() throws DataAccessException {
+        delegate.clearUserData();
+    }
+}
@@ -0,0 +1,40 @@
+package server;
+
+import dataaccess.DataAccess;
+import dataaccess.MemoryDataAccess;
+import dataaccess.MySQLDataAccess;
+import service.GameImporter;
+
+import java.nio.file.Path;
+
+public class ImportMain {
+
+    private static final long REPORT_INTERVAL_NANOS = 1_000_000_000L;
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: server.ImportMain <file.pgn> [sql]");
+            System.exit(2);
+        }
+        try {
+            DataAccess dataAccess = new MemoryDataAccess();
+            if (args.length >= 2 && args[1].equals("sql")) {
+                dataAccess = new MySQLDataAccess();
+            }
+
+            var importer = new GameImporter(dataAccess, GameImporter.Settings.defaults());
+            long[] lastReport = {System.nanoTime()};
+            var progress = importer.importFile(Path.of(args[0]), p -> {
+                long now = System.nanoTime();
+                if (now - lastReport[0] >= REPORT_INTERVAL_NANOS) {
+                    lastReport[0] = now;
+                    System.out.println(p);
+                }
+            });
+            System.out.printf("Done: %s in %,d ms%n", progress, progress.elapsedNanos() / 1_000_000);
+        } catch (Exception e) {
+            System.out.printf("Unable to import games: %s%n", e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -1,8 +1,8 @@
 package server;
 
+import chess.ChessJson;
 import dataaccess.*;
 import io.javalin.*;
-import com.google.gson.Gson;
 import io.javalin.http.Context;
 import model.*;
 import service.Service;
@@ -44,10 +44,10 @@ public class Server {
 
     private void registration(Context ctx) {
         try {
-            UserData user = new Gson().fromJson(ctx.body(), UserData.class);
+            UserData user = ChessJson.gson().fromJson(ctx.body(), UserData.class);
             AuthData data = service.register(user);
             if (data != null) {
-                ctx.result(new Gson().toJson(data));
+                ctx.result(ChessJson.gson().toJson(data));
                 ctx.status(200);
             }
         } catch (BadRequestException e) {
@@ -61,10 +61,10 @@ public class Server {
 
     private void login(Context ctx) {
         try {
-            LoginRequest loginRequest = new Gson().fromJson(ctx.body(), LoginRequest.class);
+            LoginRequest loginRequest = ChessJson.gson().fromJson(ctx.body(), LoginRequest.class);
             //eats a JSON with username and password
                 AuthData data = service.login(loginRequest);
-                ctx.result(new Gson().toJson(data));
+                ctx.result(ChessJson.gson().toJson(data));
                 ctx.status(200);
         } catch (BadRequestException e) {
             handleException(ctx, e, 400);
@@ -91,7 +91,7 @@ public class Server {
         try {
             String authToken = ctx.header("authorization");
             Collection<GameData> gameList = service.listGames(authToken);
-            ctx.result("{\"games\": " + new Gson().toJson(gameList) + "}");
+            ctx.result("{\"games\": " + ChessJson.gson().toJson(gameList) + "}");
             ctx.status(200);
         } catch (DataAccessException e) {
             handleException(ctx, e, 401);
@@ -103,7 +103,7 @@ public class Server {
     private void createGame(Context ctx) {
         try {
             String authToken = ctx.header("authorization");
-            CreateGameRequest gameRequest = new Gson().fromJson(ctx.body(), CreateGameRequest.class);
+            CreateGameRequest gameRequest = ChessJson.gson().fromJson(ctx.body(), CreateGameRequest.class);
             int gameID = service.createGame(authToken, gameRequest);
             ctx.result("{\"gameID\": \"" + gameID + "\"}");
             ctx.status(200);
@@ -119,7 +119,7 @@ public class Server {
     private void joinGame(Context ctx) {
         try {
             String authToken = ctx.header("authorization");
-            JoinGameRequest joinRequest = new Gson().fromJson(ctx.body(), JoinGameRequest.class);
+            JoinGameRequest joinRequest = ChessJson.gson().fromJson(ctx.body(), JoinGameRequest.class);
             service.joinGame(authToken, joinRequest);
             ctx.status(200);
         } catch (BadRequestException e) {
@@ -4,10 +4,13 @@ import chess.*;
 import dataaccess.DataAccess;
 import dataaccess.MemoryDataAccess;
 import dataaccess.MySQLDataAccess;
+import dataaccess.WriteBehindDataAccess;
 import service.Service;
 
 public class ServerMain {
 
+    private static final long GAME_WRITE_BEHIND_MILLIS = 200;
+
     public static void main(String[] args) {
         try {
             var port = 8080;
@@ -17,7 +20,8 @@ public class ServerMain {
 
             DataAccess dataAccess = new MemoryDataAccess();
             if (args.length >= 2 && args[1].equals("sql")) {
-                dataAccess = new MySQLDataAccess();
+                //game updates reach the database within GAME_WRITE_BEHIND_MILLIS instead of on the request thread
+                dataAccess = WriteBehindDataAccess.start(new MySQLDataAccess(), GAME_WRITE_BEHIND_MILLIS);
             }
 
             var service = new Service(dataAccess);
@@ -0,0 +1,347 @@
+package service;
+
+import chess.PgnGame;
+import chess.PgnReader;
+import dataaccess.DataAccess;
+import dataaccess.DataAccessException;
+import model.GameData;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Imports a PGN archive into a DataAccess in three stages:
+ * <ol>
+ *     <li>a splitter thread reads the raw bytes and cuts them into chunks of
+ *     whole games, without parsing any moves</li>
+ *     <li>a fork-join pool parses each chunk with a {@link PgnReader},
+ *     replaying every move to validate it</li>
+ *     <li>the calling thread collects the games in archive order and writes
+ *     them with {@link DataAccess#insertGames} in batches</li>
+ * </ol>
+ * The splitter hands chunks over through a bounded queue, so it stalls when
+ * parsing or writing falls behind, and at most {@code chunksInFlight} chunks
+ * are in memory at a time, whatever the size of the archive. Games with an
+ * illegal move are counted and skipped.
+ */
+public class GameImporter {
+
+    /**
+     * @param parallelism    threads parsing chunks
+     * @param gamesPerChunk  games the splitter puts in one chunk
+     * @param batchSize      games written per insertGames call
+     * @param chunksInFlight chunks that may be split but not yet written
+     */
+    public record Settings(int parallelism, int gamesPerChunk, int batchSize, int chunksInFlight) {
+        public Settings {
+            if (parallelism < 1 || gamesPerChunk < 1 || batchSize < 1 || chunksInFlight < 1) {
+                throw new IllegalArgumentException("import settings must all be positive");
+            }
+        }
+
+        public static Settings defaults() {
+            int cores = Runtime.getRuntime().availableProcessors();
+            return new Settings(cores, 256, 1000, cores * 4);
+        }
+    }
+
+    /**
+     * A snapshot of an import's counters
+     *
+     * @param bytesRead    bytes of the archive read so far
+     * @param gamesParsed  games replayed so far, valid or not
+     * @param invalidGames games skipped for an illegal move
+     * @param gamesWritten games stored so far
+     * @param batches      insertGames calls so far
+     * @param elapsedNanos time since the import started
+     */
+    public record Progress(long bytesRead, long gamesParsed, long invalidGames, long gamesWritten, long batches,
+                           long elapsedNanos) {
+        public long gamesPerSecond() {
+            return elapsedNanos == 0 ? 0 : gamesWritten * 1_000_000_000L / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%,d games written in %,d batches (%,d parsed, %,d invalid), %,d MB read, %,d games/sec",
+                    gamesWritten, batches, gamesParsed, invalidGames, bytesRead >> 20, gamesPerSecond());
+        }
+    }
+
+    private static final int READ_BUFFER_SIZE = 1 << 20;
+
+    //put on the queue by the splitter after the last chunk
+    private static final Future<List<GameData>> END = CompletableFuture.completedFuture(List.of());
+
+    private final DataAccess dataAccess;
+    private final Settings settings;
+
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong gamesParsed = new AtomicLong();
+    private final AtomicLong invalidGames = new AtomicLong();
+    private long gamesWritten;
+    private long batches;
+    private long startNanos;
+
+    public GameImporter(DataAccess dataAccess, Settings settings) {
+        this.dataAccess = dataAccess;
+        this.settings = settings;
+    }
+
+    public Progress importFile(Path file, Consumer<Progress> listener) throws IOException, DataAccessException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return importFrom(channel, listener);
+        }
+    }
+
+    /**
+     * Imports every game in a PGN stream. One importer runs one import at a
+     * time.
+     *
+     * @param listener told the progress after every batch is written
+     * @return the final counts
+     */
+    public Progress importFrom(ReadableByteChannel channel, Consumer<Progress> listener)
+            throws IOException, DataAccessException {
+        bytesRead.set(0);
+        gamesParsed.set(0);
+        invalidGames.set(0);
+        gamesWritten = 0;
+        batches = 0;
+        startNanos = System.nanoTime();
+
+        BlockingQueue<Future<List<GameData>>> chunks = new ArrayBlockingQueue<>(settings.chunksInFlight());
+        ForkJoinPool pool = new ForkJoinPool(settings.parallelism());
+        Thread splitter = new Thread(() -> split(channel, pool, chunks), "pgn-splitter");
+        splitter.setDaemon(true);
+        splitter.start();
+        try {
+            List<GameData> batch = new ArrayList<>(settings.batchSize());
+            Future<List<GameData>> chunk;
+            while ((chunk = chunks.take()) != END) {
+                for (GameData game : join(chunk)) {
+                    batch.add(game);
+                    if (batch.size() == settings.batchSize()) {
+                        write(batch, listener);
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                write(batch, listener);
+            }
+            return progress();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("import interrupted", e);
+        } finally {
+            splitter.interrupt();
+            pool.shutdownNow();
+        }
+    }
+
+    public Progress progress() {
+        return new Progress(bytesRead.get(), gamesParsed.get(), invalidGames.get(), gamesWritten, batches,
+                System.nanoTime() - startNanos);
+    }
+
+    private void write(List<GameData> batch, Consumer<Progress> listener) throws DataAccessException {
+        dataAccess.insertGames(batch);
+        gamesWritten += batch.size();
+        batches++;
+        batch.clear();
+        if (listener != null) {
+            listener.accept(progress());
+        }
+    }
+
+    private static List<GameData> join(Future<List<GameData>> chunk) throws IOException, InterruptedException {
+        try {
+            return chunk.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw new IOException("failed to parse a chunk of games", e.getCause());
+        }
+    }
+
+    /// SPLITTING ///
+
+    //runs on the splitter thread: cuts the stream into chunks of whole games and queues a parse of each
+    private void split(ReadableByteChannel channel, ForkJoinPool pool, BlockingQueue<Future<List<GameData>>> chunks) {
+        try {
+            Splitter splitter = new Splitter(settings.gamesPerChunk());
+            ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+            int n;
+            while ((n = channel.read(buffer)) >= 0) {
+                bytesRead.addAndGet(n);
+                byte[] bytes = buffer.array();
+                int start = 0;
+                int cut;
+                while ((cut = splitter.nextCut(bytes, start, n)) >= 0) {
+                    byte[] games = splitter.take(bytes, start, cut);
+                    chunks.put(pool.submit(() -> parse(games)));
+                    start = cut;
+                }
+                splitter.keep(bytes, start, n);
+                buffer.clear();
+            }
+            byte[] rest = splitter.take(new byte[0], 0, 0);
+            if (rest.length > 0) {
+                chunks.put(pool.submit(() -> parse(rest)));
+            }
+            chunks.put(END);
+        } catch (InterruptedException e) {
+            //the writer gave up, nobody is left to read the queue
+        } catch (IOException e) {
+            fail(chunks, new UncheckedIOException(e));
+        } catch (RuntimeException e) {
+            fail(chunks, e);
+        }
+    }
+
+    //hands a splitter failure to the writer, which rethrows it when it reaches that point in the queue
+    private static void fail(BlockingQueue<Future<List<GameData>>> chunks, RuntimeException e) {
+        try {
+            chunks.put(CompletableFuture.failedFuture(e));
+        } catch (InterruptedException ignored) {
+            //the writer already gave up
+        }
+    }
+
+    //runs on the pool: replays every game of a chunk
+    private List<GameData> parse(byte[] chunk) {
+        List<GameData> output = new ArrayList<>(settings.gamesPerChunk());
+        try (PgnReader reader = new PgnReader(Channels.newChannel(new ByteArrayInputStream(chunk)))) {
+            PgnGame game;
+            while ((game = reader.next()) != null) {
+                gamesParsed.incrementAndGet();
+                if (!game.isValid()) {
+                    invalidGames.incrementAndGet();
+                    continue;
+                }
+                output.add(toGameData(game));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return output;
+    }
+
+    //players go in as usernames, which also keeps anyone from joining a finished game
+    static GameData toGameData(PgnGame game) {
+        String white = player(game.tag("White"));
+        String black = player(game.tag("Black"));
+        StringBuilder name = new StringBuilder();
+        name.append(white == null ? "?" : white).append(" vs ").append(black == null ? "?" : black);
+        String event = game.tag("Event");
+        if (event != null && !event.isEmpty() && !event.equals("?")) {
+            name.append(", ").append(event);
+        }
+        return new GameData(0, white, black, name.toString(), game.game());
+    }
+
+    private static String player(String name) {
+        return name == null || name.isEmpty() || name.equals("?") ? null : name;
+    }
+
+    /**
+     * Finds where games start in raw PGN bytes, without parsing moves: a new
+     * game starts at a line opening with a tag ('[') after a line of
+     * movetext, as long as it is not inside a {comment}. Bytes of a chunk
+     * that runs past the end of one read buffer are kept until it is cut.
+     */
+    static final class Splitter {
+
+        private final int gamesPerChunk;
+        private byte[] pending = new byte[1 << 16];
+        private int pendingLength;
+
+        private int gamesInChunk;
+        private boolean sawMovetext;
+        private boolean lineStarted;
+        private boolean tagLine;
+        private boolean inComment;
+        private boolean inLineComment;
+
+        Splitter(int gamesPerChunk) {
+            this.gamesPerChunk = gamesPerChunk;
+        }
+
+        //scans bytes[from, to) and returns the offset where the current chunk ends, or -1 if it goes on
+        int nextCut(byte[] bytes, int from, int to) {
+            for (int i = from; i < to; i++) {
+                int c = bytes[i] & 0xFF;
+                if (inComment) {
+                    inComment = c != '}';
+                    continue;
+                }
+                if (c == '\n') {
+                    lineStarted = false;
+                    inLineComment = false;
+                    continue;
+                }
+                if (inLineComment) {
+                    continue;
+                }
+                if (c > ' ' && !lineStarted) {
+                    lineStarted = true;
+                    tagLine = c == '[';
+                    if (c != '[') {
+                        sawMovetext = true;
+                    } else if (sawMovetext) {
+                        sawMovetext = false;
+                        if (++gamesInChunk == gamesPerChunk) {
+                            gamesInChunk = 0;
+                            //resume after this byte next time, it starts the next chunk
+                            lineStarted = true;
+                            return i;
+                        }
+                    }
+                }
+                //braces inside tag values are just text
+                if (!tagLine) {
+                    inComment = c == '{';
+                    inLineComment = c == ';';
+                }
+            }
+            return -1;
+        }
+
+        //the chunk made of the kept bytes plus bytes[from, to)
+        byte[] take(byte[] bytes, int from, int to) {
+            byte[] chunk = Arrays.copyOf(pending, pendingLength + to - from);
+            System.arraycopy(bytes, from, chunk, pendingLength, to - from);
+            pendingLength = 0;
+            return chunk;
+        }
+
+        //keeps bytes[from, to), the start of a chunk that goes on in the next buffer
+        void keep(byte[] bytes, int from, int to) {
+            int length = to - from;
+            if (pendingLength + length > pending.length) {
+                pending = Arrays.copyOf(pending, Math.max(pending.length * 2, pendingLength + length));
+            }
+            System.arraycopy(bytes, from, pending, pendingLength, length);
+            pendingLength += length;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package dataaccess;
+
+import org.junit.jupiter.api.*;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class ConnectionPoolUnitTests {
+
+    //a stand-in for a database connection that only tracks its own state
+    private static final class FakeConnection {
+        boolean closed;
+        boolean valid = true;
+        boolean autoCommit = true;
+        int rollbacks;
+
+        Connection connection() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> switch (method.getName()) {
+                        case "close" -> {
+                            closed = true;
+                            yield null;
+                        }
+                        case "isClosed" -> closed;
+                        case "isValid" -> valid && !closed;
+                        case "getAutoCommit" -> autoCommit;
+                        case "setAutoCommit" -> {
+                            autoCommit = (Boolean) args[0];
+                            yield null;
+                        }
+                        case "rollback" -> {
+                            rollbacks++;
+                            yield null;
+                        }
+                        case "getCatalog" -> "chess";
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+    }
+
+    private final List<FakeConnection> opened = new ArrayList<>();
+    private ConnectionPool pool;
+
+    private ConnectionPool pool(int minIdle, int maxSize, long idleTimeoutMillis, long acquireTimeoutMillis,
+                                long validateAfterMillis) {
+        pool = ConnectionPool.start(() -> {
+            FakeConnection fake = new FakeConnection();
+            synchronized (opened) {
+                opened.add(fake);
+            }
+            return fake.connection();
+        }, new ConnectionPool.Settings(minIdle, maxSize, idleTimeoutMillis, acquireTimeoutMillis,
+                validateAfterMillis, 1));
+        return pool;
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testReusesReturnedConnections() throws SQLException {
+        ConnectionPool pool = pool(0, 4, 60_000, 1_000, 60_000);
+        for (int i = 0; i < 10; i++) {
+            try (Connection connection = pool.acquire()) {
+                Assertions.assertEquals("chess", connection.getCatalog());
+            }
+        }
+        ConnectionPool.Metrics metrics = pool.metrics();
+        Assertions.assertEquals(1, opened.size());
+        Assertions.assertEquals(10, metrics.acquired());
+        Assertions.assertEquals(1, metrics.created());
+        Assertions.assertEquals(1, metrics.idle());
+        Assertions.assertEquals(0, metrics.inUse());
+        Assertions.assertFalse(opened.get(0).closed);
+    }
+
+    @Test
+    public void testClosedHandleCannotBeUsed() throws SQLException {
+        ConnectionPool pool = pool(0, 1, 60_000, 1_000, 60_000);
+        Connection connection = pool.acquire();
+        connection.close();
+        connection.close();
+        Assertions.assertTrue(connection.isClosed());
+        Assertions.assertThrows(SQLException.class, connection::getCatalog);
+        Assertions.assertEquals(1, pool.metrics().idle());
+    }
+
+    @Test
+    public void testTimesOutWhenExhausted() throws SQLException {
+        ConnectionPool pool = pool(0, 2, 60_000, 50, 60_000);
+        Connection first = pool.acquire();
+        Connection second = pool.acquire();
+        Assertions.assertThrows(SQLTimeoutException.class, pool::acquire);
+        Assertions.assertEquals(1, pool.metrics().timeouts());
+        Assertions.assertEquals(2, pool.metrics().inUse());
+        first.close();
+        second.close();
+    }
+
+    @Test
+    public void testWaiterGetsReturnedConnection() throws Exception {
+        ConnectionPool pool = pool(0, 1, 60_000, 5_000, 60_000);
+        Connection held = pool.acquire();
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicReference<Object> result = new AtomicReference<>();
+        Thread waiter = new Thread(() -> {
+            started.countDown();
+            try (Connection connection = pool.acquire()) {
+                result.set(connection.getCatalog());
+            } catch (SQLException e) {
+                result.set(e);
+            }
+        });
+        waiter.start();
+        started.await();
+        while (pool.metrics().waiting() == 0) {
+            Thread.onSpinWait();
+        }
+        held.close();
+        waiter.join(5_000);
+        Assertions.assertEquals("chess", result.get());
+        Assertions.assertEquals(1, opened.size());
+    }
+
+    @Test
+    public void testReplacesInvalidConnections() throws SQLException {
+        ConnectionPool pool = pool(0, 2, 60_000, 1_000, 0);
+        pool.acquire().close();
+        opened.get(0).valid = false;
+        try (Connection connection = pool.acquire()) {
+            Assertions.assertEquals("chess", connection.getCatalog());
+        }
+        Assertions.assertEquals(2, opened.size());
+        Assertions.assertTrue(opened.get(0).closed);
+        Assertions.assertEquals(1, pool.metrics().validationFailures());
+        Assertions.assertEquals(1, pool.metrics().open());
+    }
+
+    @Test
+    public void testRollsBackOpenTransactionOnReturn() throws SQLException {
+        ConnectionPool pool = pool(0, 1, 60_000, 1_000, 60_000);
+        try (Connection connection = pool.acquire()) {
+            connection.setAutoCommit(false);
+        }
+        Assertions.assertEquals(1, opened.get(0).rollbacks);
+        Assertions.assertTrue(opened.get(0).autoCommit);
+    }
+
+    @Test
+    public void testEvictsIdleDownToMinimum() throws Exception {
+        ConnectionPool pool = pool(1, 4, 1, 1_000, 60_000);
+        Connection a = pool.acquire();
+        Connection b = pool.acquire();
+        Connection c = pool.acquire();
+        a.close();
+        b.close();
+        c.close();
+        Thread.sleep(5);
+        pool.maintain();
+        ConnectionPool.Metrics metrics = pool.metrics();
+        Assertions.assertEquals(1, metrics.open());
+        Assertions.assertEquals(1, metrics.idle());
+        Assertions.assertEquals(opened.size() - 1, opened.stream().filter(fake -> fake.closed).count());
+    }
+
+    @Test
+    public void testKeepsMinimumOpen() throws InterruptedException {
+        ConnectionPool pool = pool(3, 4, 60_000, 1_000, 60_000);
+        pool.maintain();
+        //the pool's own first maintenance run may still be opening some of them
+        for (int i = 0; i < 100 && pool.metrics().idle() < 3; i++) {
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(3, pool.metrics().idle());
+        Assertions.assertEquals(3, pool.metrics().open());
+    }
+
+    @Test
+    public void testCloseClosesIdleAndReturned() throws SQLException {
+        ConnectionPool pool = pool(0, 2, 60_000, 1_000, 60_000);
+        Connection held = pool.acquire();
+        pool.acquire().close();
+        pool.close();
+        Assertions.assertThrows(SQLException.class, pool::acquire);
+        held.close();
+        Assertions.assertTrue(opened.stream().allMatch(fake -> fake.closed));
+        Assertions.assertEquals(0, pool.metrics().open());
+    }
+
+    @Test
+    public void testSettingsFromProperties() {
+        Properties props = new Properties();
+        props.setProperty("db.pool.maxSize", "20");
+        props.setProperty("db.pool.acquireTimeoutMillis", "250");
+        ConnectionPool.Settings settings = ConnectionPool.Settings.from(props);
+        Assertions.assertEquals(20, settings.maxSize());
+        Assertions.assertEquals(250, settings.acquireTimeoutMillis());
+        Assertions.assertEquals(ConnectionPool.Settings.defaults().minIdle(), settings.minIdle());
+        props.setProperty("db.pool.minIdle", "30");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ConnectionPool.Settings.from(props));
+    }
+}
@@ -160,6 +160,27 @@ public class DatabaseUnitTests {
         Assertions.assertEquals("JaneTest", result.blackUsername());
     }
 
+    @Test
+    public void testAppendMoveReplaysPastSnapshot() throws Exception {
+        int gameID = dataAccess.createGame("TestGame");
+        GameData gameData = dataAccess.getGame(gameID);
+        ChessGame game = gameData.game();
+        //knights out and back, long enough to pass a stored snapshot
+        String[] shuffle = {"Nf3", "Nf6", "Ng1", "Ng8"};
+        for (int ply = 0; ply < MySQLDataAccess.SNAPSHOT_EVERY_PLIES + 3; ply++) {
+            ChessMove move = game.fromSan(shuffle[ply % 4]);
+            game.makeMove(move);
+            dataAccess.appendMove(gameID, gameData, move);
+        }
+        GameData result = dataAccess.getGame(gameID);
+        Assertions.assertEquals(game.toFen(), result.game().toFen());
+        Assertions.assertEquals(game.toFen(), dataAccess.listGames().iterator().next().game().toFen());
+
+        //storing the whole game again keeps the moves it already has
+        dataAccess.updateGame(gameID, result.addWhitePlayer("JohnTest"));
+        Assertions.assertEquals(game.toFen(), dataAccess.getGame(gameID).game().toFen());
+    }
+
     @Test
     public void testClear() {
         dataAccess.createUser(testUserData);
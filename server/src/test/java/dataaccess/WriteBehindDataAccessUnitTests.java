@@ -0,0 +1,371 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import model.GameData;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class WriteBehindDataAccessUnitTests {
+
+    //records every batch and move it is asked to write, can be told to fail or to reject one game,
+    //and can hold a write until released
+    private static final class RecordingDataAccess extends MemoryDataAccess {
+        final List<Map<Integer, GameData>> batches = new ArrayList<>();
+        final List<ChessMove> appended = new ArrayList<>();
+        volatile boolean failing;
+        volatile int rejectedGame = -1;
+        volatile CountDownLatch writing;
+        volatile CountDownLatch release;
+
+        @Override
+        public void updateGames(Map<Integer, GameData> games) {
+            CountDownLatch held = release;
+            if (held != null) {
+                writing.countDown();
+                try {
+                    held.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            record(games);
+        }
+
+        private synchronized void record(Map<Integer, GameData> games) {
+            if (failing) {
+                throw new RuntimeException("database is down");
+            }
+            if (games.containsKey(rejectedGame)) {
+                throw new RuntimeException("constraint violation");
+            }
+            batches.add(Map.copyOf(games));
+            super.updateGames(games);
+        }
+
+        @Override
+        public synchronized void appendMove(int gameID, GameData gameData, ChessMove move) {
+            if (failing) {
+                throw new RuntimeException("database is down");
+            }
+            if (gameID == rejectedGame) {
+                throw new RuntimeException("constraint violation");
+            }
+            appended.add(move);
+            super.appendMove(gameID, gameData, move);
+        }
+
+        void holdWrites() {
+            writing = new CountDownLatch(1);
+            release = new CountDownLatch(1);
+        }
+
+        void releaseWrites() {
+            CountDownLatch held = release;
+            release = null;
+            held.countDown();
+        }
+
+        synchronized int batchCount() {
+            return batches.size();
+        }
+    }
+
+    private RecordingDataAccess database;
+    private WriteBehindDataAccess writeBehind;
+
+    private WriteBehindDataAccess writeBehind(long flushIntervalMillis) {
+        return writeBehind(flushIntervalMillis, WriteBehindDataAccess.DEFAULT_IDLE_MILLIS);
+    }
+
+    private WriteBehindDataAccess writeBehind(long flushIntervalMillis, long idleMillis) {
+        database = new RecordingDataAccess();
+        writeBehind = WriteBehindDataAccess.start(database, flushIntervalMillis, idleMillis);
+        return writeBehind;
+    }
+
+    private static Thread flushInBackground(WriteBehindDataAccess dataAccess) {
+        Thread thread = new Thread(() -> {
+            try {
+                dataAccess.flush();
+            } catch (DataAccessException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(ChessPosition.of(startRow, startCol), ChessPosition.of(endRow, endCol), null);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        database.failing = false;
+        if (database.release != null) {
+            database.releaseWrites();
+        }
+        writeBehind.close();
+    }
+
+    @Test
+    public void testUpdatesAreCoalescedIntoOneBatch() throws DataAccessException {
+        WriteBehindDataAccess dataAccess = writeBehind(60_000);
+        int first = dataAccess.createGame("first");
+        int second = dataAccess.createGame("second");
+        for (int i = 0; i < 10; i++) {
+            dataAccess.updateGame(first, dataAccess.getGame(first).addWhitePlayer("white" + i));
+        }
+        dataAccess.updateGame(second, dataAccess.getGame(second).addBlackPlayer("black"));
+        Assertions.assertEquals(2, dataAccess.pendingWrites());
+        Assertions.assertNull(database.getGame(first).whiteUsername());
+
+        dataAccess.flush();
+        Assertions.assertEquals(1, database.batchCount());
+        Assertions.assertEquals(2, database.batches.get(0).size());
+        Assertions.assertEquals("white9", database.getGame(first).whiteUsername());
+        Assertions.assertEquals("black", database.getGame(second).blackUsername());
+        Assertions.assertEquals(0, dataAccess.pendingWrites());
+    }
+
+    @Test
+    public void testReadsSeePendingUpdates() {
+        WriteBehindDataAccess dataAccess = writeBehind(60_000);
+        int gameID = dataAccess.createGame("game");
+        dataAccess.updateGame(gameID, dataAccess.getGame(gameID).addWhitePlayer("white"));
+        Assertions.assertEquals("white", dataAccess.getGame(gameID).whiteUsername());
+        GameData listed = dataAccess.listGames().iterator().next();
+        Assertions.assertEquals("white", listed.whiteUsername());
+        Assertions.assertEquals(1, dataAccess.listGames().size());
+    }
+
+    @Test
+    public void testFlushesWithinInterval() throws InterruptedException {
+        WriteBehindDataAccess dataAccess = writeBehind(10);
+        int gameID = dataAccess.createGame("game");
+        dataAccess.updateGame(gameID, dataAccess.getGame(gameID).addWhitePlayer("white"));
+        for (int i = 0; i < 100 && dataAccess.pendingWrites() > 0; i++) {
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(0, dataAccess.pendingWrites());
+        Assertions.assertEquals("white", database.getGame(gameID).whiteUsername());
+    }
+
+    @Test
+    public void testFailedFlushKeepsUpdates() throws DataAccessException {
+        WriteBehindDataAccess dataAccess = writeBehind(60_000);
+        int gameID = dataAccess.createGame("game");
+        dataAccess.updateGame(gameID, dataAccess.getGame(gameID).addWhitePlayer("white"));
+        database.failing = true;
+        DataAccessException failure = Assertions.assertThrows(DataAccessException.class, dataAccess::flush);
+        Assertions.assertEquals(1, dataAccess.pendingWrites());
+        Assertions.assertEquals(1, dataAccess.failedFlushes());
+        Assertions.assertSame(failure, dataAccess.lastFlushFailure());
+        Assertions.assertEquals("database is down", failure.getCause().getMessage());
+
+        database.failing = false;
+        dataAccess.flush();
+        Assertions.assertEquals(0, dataAccess.pendingWrites());
+        Assertions.assertEquals("white", database.getGame(gameID).whiteUsername());
+    }
+
+    @Test
+    public void testCloseFlushesAndLaterUpdatesWriteThrough() {
+        WriteBehindDataAccess dataAccess = writeBehind(60_000);
+        int gameID = dataAccess.createGame("game");
+        dataAccess.updateGame(gameID, dataAccess.getGame(gameID).addWhitePlayer("white"));
+        dataAccess.close();
+        Assertions.assertEquals("white", database.getGame(gameID).whiteUsername());
+
+        dataAccess.updateGame(gameID, dataAccess.getGame(gameID).addBlackPlayer("black"));
+        Assertions.assertEquals(0, dataAccess.pendingWrites());
+        Assertions.assertEquals("black", database.getGame(gameID).blackUsername());
+    }
+
+    @Test
+    public void testClearDropsPendingUpdates() throws DataAccessException {
+        WriteBehindDataAccess dataAccess = writeBehind(60_000);
+        int gameID = dataAccess.createGame("game");
+        dataAccess.updateGame(gameID, dataAccess.getGame(gameID).addWhitePlayer("white"));
+        dataAccess.clearGameData();
+        Assertions.assertEquals(0, dataAccess.pendingWrites());
+        Assertions.assertNull(dataAccess.getGame(gameID));
+        dataAccess.flush();
+        Assertions.assertEquals(0, database.batchCount());
+    }
+
+    @Test
+    public void testUpdateDuringFlushIsWrittenNextFlush() throws Exception {
+        WriteBehindDataAccess dataAccess = writeBehind(60_000);
+        int gameID = dataAccess.createGame("game");
+        GameData gameData = dataAccess.getGame(gameID);
+        String start = gameData.game().toFen();
+        dataAccess.updateGame(gameID, gameData);
+
+        database.holdWrites();
+        Thread flush = flushInBackground(dataAccess);
+        Assertions.assertTrue(database.writing.await(5, TimeUnit.SECONDS));
+        //the same game object is changed and queued again while its earlier version is being written
+        gameData.game().makeMove(move(2, 5, 4, 5));
+        dataAccess.updateGame(gameID, gameData);
+        database.releaseWrites();
+        flush.join();
+
+        Assertions.assertEquals(start, database.batches.get(0).get(gameID).game().toFen());
+        Assertions.assertEquals(1, dataAccess.pendingWrites());
+        dataAccess.flush();
+        Assertions.assertEquals(0, dataAccess.pendingWrites());
+        Assertions.assertEquals(gameData.game().toFen(), database.getGame(gameID).game().toFen());
+    }
+
+    @Test
+    public void testQueuedGameIsACopy() throws DataAccessException, InvalidMoveException {
+        WriteBehindDataAccess dataAccess = writeBehind(60_000);
+        int gameID = dataAccess.createGame("game");
+        GameData gameData = dataAccess.getGame(gameID);
+        dataAccess.updateGame(gameID, gameData);
+        gameData.game().makeMove(move(2, 5, 4, 5));
+
+        dataAccess.flush();
+        Assertions.assertEquals(new ChessGame().toFen(), database.getGame(gameID).game().toFen());
+    }
+
+    @Test
+    public void testEachReadIsACopy() throws InvalidMoveException {
+        WriteBehindDataAccess dataAccess = writeBehind(60_000);
+        int gameID = dataAccess.createGame("game");
+        GameData first = dataAccess.getGame(gameID);
+        GameData second = dataAccess.getGame(gameID);
+        Assertions.assertNotSame(first.game(), second.game());
+
+        //neither a read nor a queued update changes what the next request reads
+        first.game().makeMove(move(2, 5, 4, 5));
+        Assertions.assertEquals(new ChessGame().toFen(), dataAccess.getGame(gameID).game().toFen());
+        dataAccess.updateGame(gameID, first);
+        first.game().makeMove(move(7, 5, 5, 5));
+        Assertions.assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1",
+                dataAccess.getGame(gameID).game().toFen());
+    }
+
+    @Test
+    public void testFlushedIdleGamesAreEvicted() throws DataAccessException, InterruptedException {
+        WriteBehindDataAccess dataAccess = writeBehind(60_000, 1);
+        int gameID = dataAccess.createGame("game");
+        dataAccess.updateGame(gameID, dataAccess.getGame(gameID).addWhitePlayer("white"));
+        Thread.sleep(5);
+        Assertions.assertEquals(1, dataAccess.cachedGames());
+
+        dataAccess.flush();
+        Thread.sleep(5);
+        dataAccess.flush();
+        Assertions.assertEquals(0, dataAccess.cachedGames());
+        Assertions.assertEquals("white", dataAccess.getGame(gameID).whiteUsername());
+        Assertions.assertEquals(1, dataAccess.cachedGames());
+    }
+
+    @Test
+    public void testClearWaitsForFlushInFlight() throws Exception {
+        WriteBehindDataAccess dataAccess = writeBehind(60_000);
+        int gameID = dataAccess.createGame("game");
+        dataAccess.updateGame(gameID, dataAccess.getGame(gameID).addWhitePlayer("white"));
+
+        database.holdWrites();
+        Thread flush = flushInBackground(dataAccess);
+        Assertions.assertTrue(database.writing.await(5, TimeUnit.SECONDS));
+        Thread clear = new Thread(() -> {
+            try {
+                dataAccess.clearGameData();
+            } catch (DataAccessException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        clear.start();
+        clear.join(50);
+        Assertions.assertTrue(clear.isAlive());
+
+        database.releaseWrites();
+        flush.join();
+        clear.join();
+        Assertions.assertNull(database.getGame(gameID));
+        Assertions.assertNull(dataAccess.getGame(gameID));
+    }
+
+    @Test
+    public void testAppendedMovesReachTheDelegateLog() throws DataAccessException, InvalidMoveException {
+        WriteBehindDataAccess dataAccess = writeBehind(60_000);
+        int gameID = dataAccess.createGame("game");
+        GameData gameData = dataAccess.getGame(gameID);
+        ChessMove first = move(2, 5, 4, 5);
+        ChessMove second = move(7, 5, 5, 5);
+        gameData.game().makeMove(first);
+        dataAccess.appendMove(gameID, gameData, first);
+        gameData.game().makeMove(second);
+        dataAccess.appendMove(gameID, gameData, second);
+        Assertions.assertEquals(1, dataAccess.pendingWrites());
+
+        dataAccess.flush();
+        Assertions.assertEquals(List.of(first, second), database.appended);
+        Assertions.assertEquals(0, database.batchCount());
+        Assertions.assertEquals(0, dataAccess.pendingWrites());
+        Assertions.assertEquals(gameData.game().toFen(), database.getGame(gameID).game().toFen());
+    }
+
+    @Test
+    public void testUpdateAfterMovesWritesTheWholeGame() throws DataAccessException, InvalidMoveException {
+        WriteBehindDataAccess dataAccess = writeBehind(60_000);
+        int gameID = dataAccess.createGame("game");
+        GameData gameData = dataAccess.getGame(gameID);
+        ChessMove first = move(2, 5, 4, 5);
+        gameData.game().makeMove(first);
+        dataAccess.appendMove(gameID, gameData, first);
+        dataAccess.updateGame(gameID, gameData.addWhitePlayer("white"));
+        ChessMove second = move(7, 5, 5, 5);
+        gameData.game().makeMove(second);
+        dataAccess.appendMove(gameID, gameData.addWhitePlayer("white"), second);
+
+        dataAccess.flush();
+        Assertions.assertTrue(database.appended.isEmpty());
+        Assertions.assertEquals(1, database.batchCount());
+        Assertions.assertEquals("white", database.getGame(gameID).whiteUsername());
+        Assertions.assertEquals(gameData.game().toFen(), database.getGame(gameID).game().toFen());
+    }
+
+    @Test
+    public void testRejectedGameDoesNotHoldBackOthers() throws DataAccessException, InvalidMoveException {
+        WriteBehindDataAccess dataAccess = writeBehind(60_000);
+        int first = dataAccess.createGame("first");
+        int rejected = dataAccess.createGame("rejected");
+        int moved = dataAccess.createGame("moved");
+        dataAccess.updateGame(first, dataAccess.getGame(first).addWhitePlayer("white"));
+        dataAccess.updateGame(rejected, dataAccess.getGame(rejected).addWhitePlayer("white"));
+        GameData movedGame = dataAccess.getGame(moved);
+        movedGame.game().makeMove(move(2, 5, 4, 5));
+        dataAccess.appendMove(moved, movedGame, move(2, 5, 4, 5));
+        database.rejectedGame = rejected;
+
+        DataAccessException failure = Assertions.assertThrows(DataAccessException.class, dataAccess::flush);
+        Assertions.assertTrue(failure.getMessage().contains(String.valueOf(rejected)), failure.getMessage());
+        Assertions.assertSame(failure, dataAccess.lastFlushFailure());
+        Assertions.assertEquals(1, dataAccess.pendingWrites());
+        Assertions.assertEquals("white", database.getGame(first).whiteUsername());
+        Assertions.assertNull(database.getGame(rejected).whiteUsername());
+        Assertions.assertEquals(1, database.appended.size());
+
+        //the next flush writes only the game still pending
+        Assertions.assertThrows(DataAccessException.class, dataAccess::flush);
+        Assertions.assertEquals(1, database.appended.size());
+        Assertions.assertEquals(2, dataAccess.failedFlushes());
+        database.rejectedGame = -1;
+        dataAccess.flush();
+        Assertions.assertEquals(0, dataAccess.pendingWrites());
+        Assertions.assertEquals("white", database.getGame(rejected).whiteUsername());
+    }
+}
@@ -0,0 +1,134 @@
+package service;
+
+import chess.PgnReader;
+import dataaccess.DataAccessException;
+import dataaccess.MemoryDataAccess;
+import model.GameData;
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class GameImporterUnitTests {
+
+    private static final String OPERA = """
+            [Event "Paris Opera"]
+            [White "Duke Karl"]
+            [Black "Paul Morphy"]
+            [Result "0-1"]
+
+            1. e4 e5 2. Nf3 d6 3. d4 Bg4 {This is a weak move
+            [already].} 4. dxe5 Bxf3 5. Qxf3 dxe5 6. Bc4 Nf6 7. Qb3 Qe7 8. Nc3 c6 9. Bg5 b5
+            10. Nxb5 cxb5 11. Bxb5+ Nbd7 12. O-O-O Rd8 13. Rxd7 Rxd7 14. Rd1 Qe6
+            15. Bxd7+ Nxd7 16. Qb8+ Nxb8 17. Rd8# 0-1
+
+            """;
+
+    private static final String ILLEGAL = """
+            [Event "?"]
+            [White "Nobody"]
+            [Black "?"]
+
+            1. e4 e5 2. Ke3 *
+
+            """;
+
+    private static String numbered(int n) {
+        return "[Event \"Game " + n + "\"]\n[White \"W" + n + "\"]\n[Black \"B" + n + "\"]\n\n"
+                + "1. e4 e5 2. Nf3 ; a {brace} in a line comment\nNc6 1/2-1/2\n\n";
+    }
+
+    @Test
+    public void testImportsEveryValidGameInOrder() throws IOException, DataAccessException {
+        StringBuilder pgn = new StringBuilder(OPERA);
+        for (int i = 0; i < 20; i++) {
+            pgn.append(i == 7 ? ILLEGAL : numbered(i));
+        }
+        MemoryDataAccess dataAccess = new MemoryDataAccess();
+        List<GameImporter.Progress> updates = new ArrayList<>();
+        GameImporter importer = new GameImporter(dataAccess, new GameImporter.Settings(3, 2, 4, 2));
+
+        GameImporter.Progress progress = importer.importFrom(channel(pgn.toString()), updates::add);
+
+        Assertions.assertEquals(21, progress.gamesParsed());
+        Assertions.assertEquals(1, progress.invalidGames());
+        Assertions.assertEquals(20, progress.gamesWritten());
+        Assertions.assertEquals(5, progress.batches());
+        Assertions.assertEquals(pgn.toString().getBytes(StandardCharsets.UTF_8).length, progress.bytesRead());
+        Assertions.assertEquals(5, updates.size());
+        Assertions.assertEquals(20, dataAccess.listGames().size());
+
+        GameData opera = dataAccess.getGame(1);
+        Assertions.assertEquals("Duke Karl", opera.whiteUsername());
+        Assertions.assertEquals("Paul Morphy", opera.blackUsername());
+        Assertions.assertEquals("Duke Karl vs Paul Morphy, Paris Opera", opera.gameName());
+        Assertions.assertEquals(PgnReader.of(OPERA).next().game(), opera.game());
+        for (int id = 2; id <= 20; id++) {
+            int n = id <= 8 ? id - 2 : id - 1;
+            Assertions.assertEquals("W" + n + " vs B" + n + ", Game " + n, dataAccess.getGame(id).gameName());
+        }
+    }
+
+    @Test
+    public void testEmptyInput() throws IOException, DataAccessException {
+        MemoryDataAccess dataAccess = new MemoryDataAccess();
+        GameImporter.Progress progress = new GameImporter(dataAccess, GameImporter.Settings.defaults())
+                .importFrom(channel(""), null);
+        Assertions.assertEquals(0, progress.gamesWritten());
+        Assertions.assertEquals(0, progress.batches());
+        Assertions.assertTrue(dataAccess.listGames().isEmpty());
+    }
+
+    @Test
+    public void testUnknownPlayersAreLeftOpen() throws IOException {
+        GameData game = GameImporter.toGameData(PgnReader.of("[White \"?\"]\n\n1. d4 *").next());
+        Assertions.assertNull(game.whiteUsername());
+        Assertions.assertNull(game.blackUsername());
+        Assertions.assertEquals("? vs ?", game.gameName());
+    }
+
+    @Test
+    public void testSplitterCutsAcrossBuffers() {
+        StringBuilder pgn = new StringBuilder();
+        for (int i = 0; i < 9; i++) {
+            pgn.append(i == 4 ? OPERA : numbered(i));
+        }
+        byte[] bytes = pgn.toString().getBytes(StandardCharsets.UTF_8);
+        //feed the splitter slices of every size, cuts must land on the same game starts
+        List<String> expected = null;
+        for (int slice = 1; slice <= 64; slice *= 2) {
+            GameImporter.Splitter splitter = new GameImporter.Splitter(2);
+            List<String> chunks = new ArrayList<>();
+            for (int offset = 0; offset < bytes.length; offset += slice) {
+                int end = Math.min(offset + slice, bytes.length);
+                int start = offset;
+                int cut;
+                while ((cut = splitter.nextCut(bytes, start, end)) >= 0) {
+                    chunks.add(new String(splitter.take(bytes, start, cut), StandardCharsets.UTF_8));
+                    start = cut;
+                }
+                splitter.keep(bytes, start, end);
+            }
+            chunks.add(new String(splitter.take(new byte[0], 0, 0), StandardCharsets.UTF_8));
+
+            Assertions.assertEquals(5, chunks.size());
+            Assertions.assertEquals(pgn.toString(), String.join("", chunks));
+            for (String chunk : chunks) {
+                Assertions.assertTrue(chunk.startsWith("[Event"), chunk);
+            }
+            if (expected != null) {
+                Assertions.assertEquals(expected, chunks);
+            }
+            expected = chunks;
+        }
+    }
+
+    private static ReadableByteChannel channel(String pgn) {
+        return Channels.newChannel(new ByteArrayInputStream(pgn.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,104 @@
+package chess;
+
+/**
+ * Precomputed attack masks indexed by square. Kings, knights and pawn
+ * captures come straight from a table; sliding pieces go through the magic
+ * bitboard tables in {@link Magics}.
+ */
+final class Attacks {
+
+    static final long FILE_A = 0x0101010101010101L;
+    static final long FILE_H = FILE_A << 7;
+    static final long RANK_1 = 0xFFL;
+    static final long RANK_3 = RANK_1 << 16;
+    static final long RANK_6 = RANK_1 << 40;
+    static final long RANK_8 = RANK_1 << 56;
+
+    private static final long[] KING = new long[64];
+    private static final long[] KNIGHT = new long[64];
+    private static final long[][] PAWN = new long[2][64];
+    //squares strictly between two squares on a shared rank, file or diagonal, and the full line through them
+    private static final long[][] BETWEEN = new long[64][64];
+    private static final long[][] LINE = new long[64][64];
+
+    private static final int[][] KING_STEPS = {
+            {1, 0}, {1, 1}, {0, 1}, {-1, 1}, {-1, 0}, {-1, -1}, {0, -1}, {1, -1}
+    };
+    private static final int[][] KNIGHT_STEPS = {
+            {2, 1}, {1, 2}, {-1, 2}, {-2, 1}, {-2, -1}, {-1, -2}, {1, -2}, {2, -1}
+    };
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            KING[square] = stepMask(square, KING_STEPS);
+            KNIGHT[square] = stepMask(square, KNIGHT_STEPS);
+            PAWN[BitBoard.WHITE][square] = stepMask(square, new int[][]{{1, -1}, {1, 1}});
+            PAWN[BitBoard.BLACK][square] = stepMask(square, new int[][]{{-1, -1}, {-1, 1}});
+        }
+        for (int a = 0; a < 64; a++) {
+            for (int b = 0; b < 64; b++) {
+                long bitA = 1L << a;
+                long bitB = 1L << b;
+                if (a != b && (Magics.rookReference(a, 0) & bitB) != 0) {
+                    BETWEEN[a][b] = Magics.rookReference(a, bitB) & Magics.rookReference(b, bitA);
+                    LINE[a][b] = (Magics.rookReference(a, 0) & Magics.rookReference(b, 0)) | bitA | bitB;
+                } else if (a != b && (Magics.bishopReference(a, 0) & bitB) != 0) {
+                    BETWEEN[a][b] = Magics.bishopReference(a, bitB) & Magics.bishopReference(b, bitA);
+                    LINE[a][b] = (Magics.bishopReference(a, 0) & Magics.bishopReference(b, 0)) | bitA | bitB;
+                }
+            }
+        }
+    }
+
+    private Attacks() {
+    }
+
+    static long king(int square) {
+        return KING[square];
+    }
+
+    static long knight(int square) {
+        return KNIGHT[square];
+    }
+
+    //squares attacked by a pawn of the given color standing on square
+    static long pawn(int color, int square) {
+        return PAWN[color][square];
+    }
+
+    static long rook(int square, long occupied) {
+        return Magics.rook(square, occupied);
+    }
+
+    static long bishop(int square, long occupied) {
+        return Magics.bishop(square, occupied);
+    }
+
+    static long queen(int square, long occupied) {
+        return Magics.rook(square, occupied) | Magics.bishop(square, occupied);
+    }
+
+    static long between(int a, int b) {
+        return BETWEEN[a][b];
+    }
+
+    //every square on the line through a and b, or 0 if they do not share one
+    static long line(int a, int b) {
+        return LINE[a][b];
+    }
+
+    //builds the mask of every on-board square reachable from square by one of the given row/column steps
+    private static long stepMask(int square, int[][] steps) {
+        int row = BitBoard.row(square);
+        int col = BitBoard.column(square);
+        long mask = 0;
+        for (int[] step : steps) {
+            int newRow = row + step[0];
+            int newCol = col + step[1];
+            if (newRow >= 1 && newRow <= 8 && newCol >= 1 && newCol <= 8) {
+                mask |= 1L << BitBoard.square(newRow, newCol);
+            }
+        }
+        return mask;
+    }
+}
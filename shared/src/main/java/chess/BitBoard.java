@@ -0,0 +1,474 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * Bitboard representation of a chessboard. Every piece kind of every color is
+ * kept as a 64-bit set (bit 0 is a1, bit 63 is h8), together with an occupancy
+ * mask per color, a mask of every occupied square and a square-indexed mailbox
+ * for constant time piece lookups.
+ * <p>
+ * Piece indexes are {@code color * 6 + kind}, where kinds follow the ordinal
+ * order of {@link ChessPiece.PieceType}.
+ * <p>
+ * Moves can be applied in place with {@link #makeMove} and reverted with
+ * {@link #unmakeMove}, which keeps a packed undo record per move so callers
+ * never need to copy the board to try a move out.
+ * <p>
+ * The board also keeps the Zobrist key of its piece placement and the
+ * middlegame and endgame sums of {@link PieceSquareTables}, updated as
+ * pieces are put and removed, so neither ever has to be recomputed.
+ * <p>
+ * Castling rights and the en passant square live in a single int state word
+ * next to the pieces, so copying the board, saving it in an undo record and
+ * folding it into the position key each cost one word.
+ */
+public final class BitBoard {
+
+    public static final int WHITE = 0;
+    public static final int BLACK = 1;
+
+    public static final int KING = 0;
+    public static final int QUEEN = 1;
+    public static final int BISHOP = 2;
+    public static final int KNIGHT = 3;
+    public static final int ROOK = 4;
+    public static final int PAWN = 5;
+
+    public static final int NO_PIECE = -1;
+
+    //castling rights, as bits of castlingRights()
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+    public static final int ALL_CASTLING = 15;
+
+    //state word layout: castling rights in bits 0-3, en passant square in bits 4-9 (0 for none, as a1 never is one),
+    //and a bit telling whether the rights were ever set rather than left at zero by a board built piece by piece
+    private static final int CASTLING_MASK = 15;
+    private static final int EN_PASSANT_SHIFT = 4;
+    private static final int EN_PASSANT_MASK = 63 << EN_PASSANT_SHIFT;
+    private static final int CASTLING_KNOWN = 1 << 10;
+    private static final int STATE_MASK = (1 << 11) - 1;
+
+    //state bits that survive a move touching a square: moving or capturing on a king or rook home square drops rights
+    private static final int[] CASTLING_KEPT = new int[64];
+
+    //what besides the moved piece an undo record has to put back
+    private static final int PLAIN = 0;
+    private static final int EN_PASSANT_CAPTURE = 1;
+    private static final int CASTLE = 2;
+
+    //undo records the first makeMove makes room for; search and SAN go only a few plies deep
+    private static final int UNDO_INITIAL = 16;
+
+    static {
+        Arrays.fill(CASTLING_KEPT, -1);
+        CASTLING_KEPT[0] = ~WHITE_QUEENSIDE;
+        CASTLING_KEPT[4] = ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_KEPT[7] = ~WHITE_KINGSIDE;
+        CASTLING_KEPT[56] = ~BLACK_QUEENSIDE;
+        CASTLING_KEPT[60] = ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLING_KEPT[63] = ~BLACK_KINGSIDE;
+    }
+
+    final long[] pieces = new long[12];
+    final long[] colors = new long[2];
+    long occupied;
+    //piece index + 1 for every square, 0 when the square is empty
+    final byte[] mailbox = new byte[64];
+    //castling rights and en passant square, see the layout above
+    int state;
+
+    //Zobrist key of the piece placement; rebuilt on first use for boards made by Gson, which has no value to restore
+    private transient long key;
+    //white's middlegame and endgame evaluation sums and the material phase, rebuilt along with the key
+    private transient int mgScore;
+    private transient int egScore;
+    private transient int phase;
+
+    //undo records for moves made with makeMove, most recent last; allocated by the first makeMove
+    private transient long[] undoStack;
+    private transient int undoCount;
+
+    public BitBoard() {
+    }
+
+    public BitBoard(BitBoard other) {
+        copyFrom(other);
+    }
+
+    /// SQUARE AND PIECE INDEX HELPERS ///
+
+    //converts the 1-indexed row and column used by ChessPosition into a square index
+    public static int square(int row, int col) {
+        return ((row - 1) << 3) | (col - 1);
+    }
+
+    public static int square(ChessPosition position) {
+        return square(position.getRow(), position.getColumn());
+    }
+
+    public static int row(int square) {
+        return (square >>> 3) + 1;
+    }
+
+    public static int column(int square) {
+        return (square & 7) + 1;
+    }
+
+    public static int pieceIndex(int color, int kind) {
+        return color * 6 + kind;
+    }
+
+    public static int pieceIndex(ChessPiece piece) {
+        return pieceIndex(colorIndex(piece.getTeamColor()), piece.getPieceType().ordinal());
+    }
+
+    public static int colorOf(int piece) {
+        return piece >= 6 ? BLACK : WHITE;
+    }
+
+    public static int kindOf(int piece) {
+        return piece >= 6 ? piece - 6 : piece;
+    }
+
+    public static int colorIndex(ChessGame.TeamColor color) {
+        return color == ChessGame.TeamColor.WHITE ? WHITE : BLACK;
+    }
+
+    /// QUERIES ///
+
+    //returns the piece index on a square, or NO_PIECE if it is empty
+    public int pieceAt(int square) {
+        return mailbox[square] - 1;
+    }
+
+    public long pieces(int color, int kind) {
+        return pieces[pieceIndex(color, kind)];
+    }
+
+    public long occupancy(int color) {
+        return colors[color];
+    }
+
+    public long occupied() {
+        return occupied;
+    }
+
+    //square of a color's king, or -1 if it has none
+    public int kingSquare(int color) {
+        long king = pieces[pieceIndex(color, KING)];
+        return king == 0 ? -1 : Long.numberOfTrailingZeros(king);
+    }
+
+    //Zobrist key of the pieces on the board
+    public long key() {
+        ensureIncremental();
+        return key;
+    }
+
+    //Zobrist key of the position with a color to move, including castling rights and en passant
+    public long positionKey(int colorToMove) {
+        return positionKey(colorToMove, state & CASTLING_MASK);
+    }
+
+    //the position key as it would be with the given castling rights, which are not stored
+    public long positionKey(int colorToMove, int castlingRights) {
+        long key = key() ^ Zobrist.CASTLING[castlingRights & CASTLING_MASK];
+        int enPassant = enPassantSquare();
+        //the square only matters to the side that may capture onto it
+        if (enPassant >= 0 && row(enPassant) == (colorToMove == WHITE ? 6 : 3)) {
+            key ^= Zobrist.EN_PASSANT[enPassant & 7];
+        }
+        return colorToMove == WHITE ? key : key ^ Zobrist.SIDE;
+    }
+
+    //castling rights still held, as WHITE_KINGSIDE | WHITE_QUEENSIDE | BLACK_KINGSIDE | BLACK_QUEENSIDE bits
+    public int castlingRights() {
+        return state & CASTLING_MASK;
+    }
+
+    //false for a board built piece by piece whose rights were never set or inferred
+    public boolean castlingKnown() {
+        return (state & CASTLING_KNOWN) != 0;
+    }
+
+    //the rights if they are known, otherwise the ones inferCastlingRights would set, leaving the board as it is
+    public int settledCastlingRights() {
+        return castlingKnown() ? castlingRights() : inferredCastlingRights();
+    }
+
+    //the square a pawn that just moved two squares passed over, or -1 if no pawn can capture en passant
+    public int enPassantSquare() {
+        int square = (state & EN_PASSANT_MASK) >>> EN_PASSANT_SHIFT;
+        return square == 0 ? -1 : square;
+    }
+
+    /**
+     * Evaluates the position from the incrementally kept piece-square sums
+     *
+     * @param color the side the score is for
+     * @return centipawns, positive when color is better off
+     */
+    public int evaluate(int color) {
+        ensureIncremental();
+        return PieceSquareTables.taper(mgScore, egScore, phase, color);
+    }
+
+    //pieces of byColor that attack square, given the board's occupancy
+    public long attackersTo(int square, int byColor, long occupancy) {
+        long queens = pieces(byColor, QUEEN);
+        return (Attacks.pawn(1 - byColor, square) & pieces(byColor, PAWN))
+                | (Attacks.knight(square) & pieces(byColor, KNIGHT))
+                | (Attacks.king(square) & pieces(byColor, KING))
+                | (Attacks.bishop(square, occupancy) & (pieces(byColor, BISHOP) | queens))
+                | (Attacks.rook(square, occupancy) & (pieces(byColor, ROOK) | queens));
+    }
+
+    /**
+     * Looks outward from a square for anything of byColor that attacks it:
+     * pawn diagonals, knight jumps, the adjacent king, and rook or bishop rays
+     * ending in a matching slider
+     */
+    public boolean isSquareAttacked(int square, int byColor) {
+        if ((Attacks.knight(square) & pieces(byColor, KNIGHT)) != 0
+                || (Attacks.pawn(1 - byColor, square) & pieces(byColor, PAWN)) != 0
+                || (Attacks.king(square) & pieces(byColor, KING)) != 0) {
+            return true;
+        }
+        long queens = pieces(byColor, QUEEN);
+        return (Attacks.bishop(square, occupied) & (pieces(byColor, BISHOP) | queens)) != 0
+                || (Attacks.rook(square, occupied) & (pieces(byColor, ROOK) | queens)) != 0;
+    }
+
+    //true if color has a king and it is attacked
+    public boolean isInCheck(int color) {
+        int king = kingSquare(color);
+        return king >= 0 && isSquareAttacked(king, 1 - color);
+    }
+
+    /// MUTATORS ///
+
+    //places a piece on a square, replacing whatever was there before
+    public void put(int square, int piece) {
+        remove(square);
+        key ^= Zobrist.PIECE_SQUARE[piece][square];
+        mgScore += PieceSquareTables.MG[piece][square];
+        egScore += PieceSquareTables.EG[piece][square];
+        phase += PieceSquareTables.PHASE[kindOf(piece)];
+        long bit = 1L << square;
+        pieces[piece] |= bit;
+        colors[colorOf(piece)] |= bit;
+        occupied |= bit;
+        mailbox[square] = (byte) (piece + 1);
+    }
+
+    //removes the piece on a square, returning its index or NO_PIECE if it was already empty
+    public int remove(int square) {
+        ensureIncremental();
+        int piece = mailbox[square] - 1;
+        if (piece == NO_PIECE) {
+            return NO_PIECE;
+        }
+        key ^= Zobrist.PIECE_SQUARE[piece][square];
+        mgScore -= PieceSquareTables.MG[piece][square];
+        egScore -= PieceSquareTables.EG[piece][square];
+        phase -= PieceSquareTables.PHASE[kindOf(piece)];
+        long bit = ~(1L << square);
+        pieces[piece] &= bit;
+        colors[colorOf(piece)] &= bit;
+        occupied &= bit;
+        mailbox[square] = 0;
+        return piece;
+    }
+
+    public void setCastlingRights(int rights) {
+        state = (state & ~CASTLING_MASK) | (rights & CASTLING_MASK) | CASTLING_KNOWN;
+    }
+
+    //gives each side the rights its king and rooks still standing on their home squares allow
+    public void inferCastlingRights() {
+        setCastlingRights(inferredCastlingRights());
+    }
+
+    private int inferredCastlingRights() {
+        int rights = 0;
+        int whiteRook = pieceIndex(WHITE, ROOK);
+        int blackRook = pieceIndex(BLACK, ROOK);
+        if (pieceAt(4) == pieceIndex(WHITE, KING)) {
+            rights |= (pieceAt(7) == whiteRook ? WHITE_KINGSIDE : 0) | (pieceAt(0) == whiteRook ? WHITE_QUEENSIDE : 0);
+        }
+        if (pieceAt(60) == pieceIndex(BLACK, KING)) {
+            rights |= (pieceAt(63) == blackRook ? BLACK_KINGSIDE : 0) | (pieceAt(56) == blackRook ? BLACK_QUEENSIDE : 0);
+        }
+        return rights;
+    }
+
+    //sets the square a pawn just passed over, or -1 for none
+    public void setEnPassantSquare(int square) {
+        state = (state & ~EN_PASSANT_MASK) | (square < 0 ? 0 : square << EN_PASSANT_SHIFT);
+    }
+
+    public void clear() {
+        for (int i = 0; i < pieces.length; i++) {
+            pieces[i] = 0;
+        }
+        colors[WHITE] = 0;
+        colors[BLACK] = 0;
+        occupied = 0;
+        for (int i = 0; i < mailbox.length; i++) {
+            mailbox[i] = 0;
+        }
+        state = 0;
+        key = 0;
+        mgScore = 0;
+        egScore = 0;
+        phase = 0;
+        undoCount = 0;
+    }
+
+    //copies the position of another board; its undo history is not carried over
+    public void copyFrom(BitBoard other) {
+        System.arraycopy(other.pieces, 0, pieces, 0, pieces.length);
+        System.arraycopy(other.colors, 0, colors, 0, colors.length);
+        occupied = other.occupied;
+        System.arraycopy(other.mailbox, 0, mailbox, 0, mailbox.length);
+        state = other.state;
+        other.ensureIncremental();
+        key = other.key;
+        mgScore = other.mgScore;
+        egScore = other.egScore;
+        phase = other.phase;
+        undoCount = 0;
+    }
+
+    //a non-empty board whose key is zero was filled in without put, so rebuild what put keeps from the pieces
+    private void ensureIncremental() {
+        if (key == 0 && occupied != 0) {
+            key = Zobrist.placementKey(this);
+            mgScore = 0;
+            egScore = 0;
+            phase = 0;
+            for (int square = 0; square < 64; square++) {
+                int piece = pieceAt(square);
+                if (piece != NO_PIECE) {
+                    mgScore += PieceSquareTables.MG[piece][square];
+                    egScore += PieceSquareTables.EG[piece][square];
+                    phase += PieceSquareTables.PHASE[kindOf(piece)];
+                }
+            }
+        }
+    }
+
+    /// MAKE AND UNMAKE ///
+
+    /**
+     * Moves the piece on from to to, capturing anything standing there, and
+     * records what is needed to take the move back. A king moving two files
+     * castles, bringing its rook along, and a pawn moving diagonally onto an
+     * empty square captures en passant.
+     *
+     * @param promotion the kind a pawn promotes to, or NO_PIECE
+     */
+    public void makeMove(int from, int to, int promotion) {
+        long record = play(from, to, promotion);
+        if (undoStack == null) {
+            undoStack = new long[UNDO_INITIAL];
+        } else if (undoCount == undoStack.length) {
+            undoStack = Arrays.copyOf(undoStack, undoStack.length * 2);
+        }
+        undoStack[undoCount++] = record;
+    }
+
+    //makes a packed Move, see makeMove(from, to, promotion)
+    public void makeMove(int move) {
+        makeMove(Move.from(move), Move.to(move), Move.promotionKind(move));
+    }
+
+    //makes a move for good, keeping no undo record
+    public void applyMove(int from, int to, int promotion) {
+        play(from, to, promotion);
+    }
+
+    //reverts the most recent makeMove
+    public void unmakeMove() {
+        long record = undoStack[--undoCount];
+        int from = (int) (record & 63);
+        int to = (int) ((record >>> 6) & 63);
+        int moved = (int) ((record >>> 12) & 15) - 1;
+        int captured = (int) ((record >>> 16) & 15) - 1;
+        int special = (int) ((record >>> 20) & 3);
+        state = (int) (record >>> 22) & STATE_MASK;
+        if (moved == NO_PIECE) {
+            return;
+        }
+        remove(to);
+        put(from, moved);
+        if (special == EN_PASSANT_CAPTURE) {
+            put(enPassantVictim(from, to), captured);
+        } else if (captured != NO_PIECE) {
+            put(to, captured);
+        }
+        if (special == CASTLE) {
+            moveRook(to > from ? to - 1 : to + 1, to > from ? to + 1 : to - 2);
+        }
+    }
+
+    //number of moves that can still be taken back
+    public int undoDepth() {
+        return undoCount;
+    }
+
+    //makes a move and returns its packed undo record: from and to squares, the moved and captured piece
+    //indexes + 1, what else the move did, and the state word from before it
+    private long play(int from, int to, int promotion) {
+        int previous = state;
+        int enPassant = enPassantSquare();
+        int moved = remove(from);
+        if (moved == NO_PIECE) {
+            return record(from, to, NO_PIECE, NO_PIECE, PLAIN, previous);
+        }
+        int captured = remove(to);
+        int color = colorOf(moved);
+        int kind = kindOf(moved);
+        int special = PLAIN;
+        state = state & ~EN_PASSANT_MASK & CASTLING_KEPT[from] & CASTLING_KEPT[to];
+        if (kind == PAWN) {
+            //any other diagonal step onto an empty square takes nothing, so no unrelated pawn is lost
+            if (captured == NO_PIECE && to == enPassant && ((from ^ to) & 7) != 0) {
+                captured = remove(enPassantVictim(from, to));
+                special = EN_PASSANT_CAPTURE;
+            } else if (Math.abs(to - from) == 16) {
+                int passed = (from + to) >>> 1;
+                //only remember the square when an enemy pawn could take on it, so transpositions keep one key
+                if ((Attacks.pawn(color, passed) & pieces[pieceIndex(1 - color, PAWN)]) != 0) {
+                    state |= passed << EN_PASSANT_SHIFT;
+                }
+            }
+        } else if (kind == KING && Math.abs(to - from) == 2) {
+            moveRook(to > from ? to + 1 : to - 2, to > from ? to - 1 : to + 1);
+            special = CASTLE;
+        }
+        put(to, promotion == NO_PIECE ? moved : pieceIndex(color, promotion));
+        return record(from, to, moved, captured, special, previous);
+    }
+
+    private static long record(int from, int to, int moved, int captured, int special, int previousState) {
+        return from | (to << 6) | ((long) (moved + 1) << 12) | ((long) (captured + 1) << 16)
+                | ((long) special << 20) | ((long) previousState << 22);
+    }
+
+    //a pawn taken en passant stands on the capturing pawn's rank, in the file it was captured on
+    private static int enPassantVictim(int from, int to) {
+        return (from & ~7) | (to & 7);
+    }
+
+    private void moveRook(int from, int to) {
+        int rook = remove(from);
+        if (rook != NO_PIECE) {
+            put(to, rook);
+        }
+    }
+}
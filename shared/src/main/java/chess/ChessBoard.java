@@ -1,7 +1,6 @@
 package chess;
 
 import java.util.Arrays;
-import java.util.Objects;
 
 /**
  * A chessboard that can hold and rearrange chess pieces.
@@ -11,22 +10,20 @@ import java.util.Objects;
  */
 public class ChessBoard implements Cloneable {
 
-    ChessPiece[][] tiles;
+    BitBoard bits;
+
+    private static final ChessPiece.PieceType[] BACK_RANK = {
+            ChessPiece.PieceType.ROOK, ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.BISHOP,
+            ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.KING, ChessPiece.PieceType.BISHOP,
+            ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.ROOK
+    };
+
     public ChessBoard() {
-        tiles =  new ChessPiece[8][8];
+        bits = new BitBoard();
     }
 
     public ChessBoard(ChessBoard board) {
-        this.tiles = new ChessPiece[8][8];
-        for (int i = 0; i < 8; i++) {
-            for (int j = 0; j < 8; j++) {
-                ChessPosition position = new ChessPosition(i+1,j+1);
-                ChessPiece piece = board.getPiece(position);
-                if (piece != null) {
-                    this.tiles[i][j] = piece;
-                }
-            }
-        }
+        bits = new BitBoard(board.bits);
     }
 
     /**
@@ -36,7 +33,12 @@ public class ChessBoard implements Cloneable {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        tiles[position.getRow()-1][position.getColumn()-1] = piece;
+        int square = BitBoard.square(position);
+        if (piece == null) {
+            bits.remove(square);
+        } else {
+            bits.put(square, BitBoard.pieceIndex(piece));
+        }
     }
 
     /**
@@ -48,7 +50,11 @@ public class ChessBoard implements Cloneable {
      */
 
     public ChessPiece getPiece(ChessPosition position) {
-        return tiles[position.getRow()-1][position.getColumn()-1];
+        int piece = bits.pieceAt(BitBoard.square(position));
+        if (piece == BitBoard.NO_PIECE) {
+            return null;
+        }
+        return ChessPiece.ofIndex(piece);
     }
 
     /**
@@ -56,64 +62,68 @@ public class ChessBoard implements Cloneable {
      * (How the game of chess normally starts)
      */
     public void resetBoard() {
-        //empty board
-        for (int i = 0; i < 8; i++) {
-            for (int j = 0; j < 8; j++) {
-                tiles[i][j] = null;
-            }
-        }
+        bits.clear();
         //Note to self : White side is a1, black side is 8h
-        //BLACK
-        //black pawns
-        for (int i = 0; i < 8; i++) {
-            tiles[6][i] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
+        for (int col = 1; col <= 8; col++) {
+            int kind = BACK_RANK[col - 1].ordinal();
+            bits.put(BitBoard.square(1, col), BitBoard.pieceIndex(BitBoard.WHITE, kind));
+            bits.put(BitBoard.square(2, col), BitBoard.pieceIndex(BitBoard.WHITE, BitBoard.PAWN));
+            bits.put(BitBoard.square(7, col), BitBoard.pieceIndex(BitBoard.BLACK, BitBoard.PAWN));
+            bits.put(BitBoard.square(8, col), BitBoard.pieceIndex(BitBoard.BLACK, kind));
         }
-        //black backline
-        tiles[7][0] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
-        tiles[7][1] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
-        tiles[7][2] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
-        tiles[7][3] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN);
-        tiles[7][4] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
-        tiles[7][5] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
-        tiles[7][6] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
-        tiles[7][7] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
-        //white pawns
-        for (int i = 0; i < 8; i++) {
-            tiles[1][i] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
-        }
-        //white backline
-        tiles[0][0] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
-        tiles[0][1] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
-        tiles[0][2] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
-        tiles[0][3] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN);
-        tiles[0][4] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
-        tiles[0][5] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
-        tiles[0][6] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
-        tiles[0][7] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
+        bits.setCastlingRights(BitBoard.ALL_CASTLING);
     }
 
-    //Using a ChessMove, moves the piece from the start position to the end position.
+    //Using a ChessMove, moves the piece from the start position to the end position, bringing the rook along
+    //when a king castles and taking the passed pawn on an en passant capture.
     public void movePiece(ChessMove move) {
-        ChessPiece piece = getPiece(move.getStartPosition());
-        if (piece == null) {
-            return;
-        }
-        if (move.getPromotionPiece() == null) {
-            addPiece(move.getEndPosition(), piece);
-        }
-        else if (move.getPromotionPiece() == ChessPiece.PieceType.QUEEN) {
-            addPiece(move.getEndPosition(), new ChessPiece(piece.getTeamColor(), ChessPiece.PieceType.QUEEN));
-        }
-        else if (move.getPromotionPiece() == ChessPiece.PieceType.KNIGHT) {
-            addPiece(move.getEndPosition(), new ChessPiece(piece.getTeamColor(), ChessPiece.PieceType.KNIGHT));
-        }
-        else if (move.getPromotionPiece() == ChessPiece.PieceType.ROOK) {
-            addPiece(move.getEndPosition(), new ChessPiece(piece.getTeamColor(), ChessPiece.PieceType.ROOK));
-        }
-        else if (move.getPromotionPiece() == ChessPiece.PieceType.BISHOP) {
-            addPiece(move.getEndPosition(), new ChessPiece(piece.getTeamColor(), ChessPiece.PieceType.BISHOP));
+        ChessPiece.PieceType promotion = move.getPromotionPiece();
+        bits.applyMove(BitBoard.square(move.getStartPosition()), BitBoard.square(move.getEndPosition()),
+                promotion == null ? BitBoard.NO_PIECE : promotion.ordinal());
+    }
+
+    /**
+     * Makes a move in place, remembering how to take it back with unmakeMove.
+     * Unlike movePiece, every call must be paired with an unmakeMove.
+     *
+     * @param move the move to make
+     * @throws IllegalArgumentException if the move promotes to a king or pawn
+     */
+    public void makeMove(ChessMove move) {
+        int packed = Move.of(bits, move);
+        if (packed == Move.NONE) {
+            throw new IllegalArgumentException("Cannot promote to " + move.getPromotionPiece());
         }
-        addPiece(move.getStartPosition(), null);
+        bits.makeMove(packed);
+    }
+
+    /**
+     * Takes back the most recent move made with makeMove
+     */
+    public void unmakeMove() {
+        bits.unmakeMove();
+    }
+
+    /**
+     * Evaluates the board with tapered piece-square tables. The score is kept
+     * up to date as pieces move, so this is cheap enough to call at every
+     * leaf of a search.
+     *
+     * @param teamColor the team the score is for
+     * @return centipawns, positive when teamColor is better off
+     */
+    public int evaluate(ChessGame.TeamColor teamColor) {
+        return bits.evaluate(BitBoard.colorIndex(teamColor));
+    }
+
+    /**
+     * Gets the bitboards behind this board, for code such as the engine that
+     * works on packed moves. Changes to it are changes to this board.
+     *
+     * @return this board's bitboards
+     */
+    public BitBoard getBitBoard() {
+        return bits;
     }
 
     @Override
@@ -122,24 +132,26 @@ public class ChessBoard implements Cloneable {
             return false;
         }
         ChessBoard that = (ChessBoard) o;
-        return Objects.deepEquals(tiles, that.tiles);
+        //boards compare by their pieces alone; castling rights and en passant are part of the game's position key
+        return bits.key() == that.bits.key() && Arrays.equals(bits.pieces, that.bits.pieces);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(tiles);
+        return Long.hashCode(bits.key());
     }
 
     @Override
     public String toString() {
         StringBuilder output = new StringBuilder();
-        for (int i = 7; i >= 0; i--) {
-            for (int j = 0; j < 8; j++) {
-                if (tiles[i][j] == null) { //there might be a way to do this in ChessPiece.java
+        for (int row = 8; row >= 1; row--) {
+            for (int col = 1; col <= 8; col++) {
+                int piece = bits.pieceAt(BitBoard.square(row, col));
+                if (piece == BitBoard.NO_PIECE) {
                     output.append("| |");
                 }
                 else {
-                    output.append(String.format("|%s|",tiles[i][j]));
+                    output.append('|').append(ChessPiece.ofIndex(piece)).append('|');
                 }
             }
             output.append("\n");
@@ -150,14 +162,7 @@ public class ChessBoard implements Cloneable {
     @Override
     protected Object clone() throws CloneNotSupportedException {
         ChessBoard clonedBoard = (ChessBoard) super.clone();
-        for (int i = 0; i < 8; i++) {
-            for (int j = 0; j < 8; j++) {
-                if (tiles[i][j] == null) {
-
-                }
-                clonedBoard.tiles[i][j] = (ChessPiece) tiles[i][j].clone();
-            }
-        }
+        clonedBoard.bits = new BitBoard(bits);
         return clonedBoard;
     }
 }
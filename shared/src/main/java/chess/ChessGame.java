@@ -1,5 +1,6 @@
 package chess;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Objects;
@@ -11,8 +12,20 @@ import java.util.Objects;
  * signature of the existing methods.
  */
 public class ChessGame {
+    //system property sizing the shared position cache at startup; 0 turns it off
+    public static final String POSITION_CACHE_ENTRIES = "chess.positionCache.entries";
+
+    //legal moves of every position any game has seen recently, shared across games and threads; null when off
+    private static volatile PositionCache cache = newPositionCache(
+            Integer.getInteger(POSITION_CACHE_ENTRIES, PositionCache.DEFAULT_ENTRIES));
+    //scratch buffer for move generation, one per thread so lookups neither allocate nor race on a shared game
+    private static final ThreadLocal<MoveList> SCRATCH = ThreadLocal.withInitial(MoveList::new);
+
     boolean isWhiteTurn;
     ChessBoard board;
+    //moves since the last capture or pawn move, counted in plies, and the number of the move being played
+    int halfmoveClock;
+    int fullmoveNumber = 1;
 
     public ChessGame() {
         isWhiteTurn = true;
@@ -72,7 +85,7 @@ public class ChessGame {
         Collection<ChessMove> output = new HashSet<>();
         for (int i = 1; i < 9; i++) {
             for (int j = 1; j < 9; j++) {
-                ChessPosition position = new ChessPosition(i,j);
+                ChessPosition position = ChessPosition.of(i,j);
                 ChessPiece piece = board.getPiece(position);
                 if (piece != null && piece.getTeamColor() == color) {
                     Collection<ChessMove> pieceMoves = piece.pieceMoves(board, position);
@@ -83,34 +96,24 @@ public class ChessGame {
         return output;
     }
 
-    //returns the position of a team color's King piece
+    //returns the position of a team color's King piece, or null if it has none
     public ChessPosition getKingPositionByColor(ChessBoard board, TeamColor color) {
-        ChessPosition kingPosition = null;
-        for (int i = 1; i < 9; i++) {
-            for (int j = 1; j < 9; j++) {
-                ChessPosition position = new ChessPosition(i,j);
-                ChessPiece piece = board.getPiece(position);
-                //Note -- Could Probably Improve Readability of this if statement
-                if (piece != null &&
-                    piece.getPieceType() == ChessPiece.PieceType.KING &&
-                    piece.getTeamColor() == color) {
-                    kingPosition = position;
-                }
-            }
+        int kingSquare = board.bits.kingSquare(BitBoard.colorIndex(color));
+        if (kingSquare < 0) {
+            return null;
         }
-        return kingPosition;
+        return ChessPosition.ofSquare(kingSquare);
     }
 
     public Collection<ChessMove> safeMoves(ChessBoard board, Collection<ChessMove> moves, TeamColor color) {
         Collection<ChessMove> safeMoves = new HashSet<>();
         //iterate through every move
         for (ChessMove move : moves) {
-            ChessBoard clonedBoard = new ChessBoard(board);
-            clonedBoard.movePiece(move);
-            if (!isInCheckHelper(color, clonedBoard)) {
+            board.makeMove(move);
+            if (!isInCheckHelper(color, board)) {
                 safeMoves.add(move);
             }
-
+            board.unmakeMove();
         }
         return safeMoves;
     }
@@ -127,12 +130,89 @@ public class ChessGame {
      * startPosition
      */
     public Collection<ChessMove> validMoves(ChessPosition startPosition) {
-        if (board.getPiece(startPosition) == null) {
+        ChessPiece piece = board.getPiece(startPosition);
+        if (piece == null) {
             return null;
         }
-        Collection<ChessMove> allMoves = board.getPiece(startPosition).pieceMoves(board, startPosition);
-        TeamColor pieceColor = board.getPiece(startPosition).getTeamColor();
-        return safeMoves(board, allMoves, pieceColor);
+        MoveList moves = SCRATCH.get();
+        generateCached(BitBoard.colorIndex(piece.getTeamColor()), moves);
+        return toChessMoves(moves, 1L << BitBoard.square(startPosition));
+    }
+
+    /**
+     * Gets every valid move for a team. Checking and pinned pieces are found
+     * once for the whole position, so only legal moves are ever generated
+     *
+     * @param teamColor the team to get valid moves for
+     * @return Set of valid moves for every piece of the team
+     */
+    public Collection<ChessMove> legalMoves(TeamColor teamColor) {
+        MoveList moves = SCRATCH.get();
+        generateCached(BitBoard.colorIndex(teamColor), moves);
+        return toChessMoves(moves, -1L);
+    }
+
+    /**
+     * Fills moves with every legal move of a color, taking them from
+     * the shared position cache when the position has been seen before
+     *
+     * @return PositionCache status bits for the position
+     */
+    private int generateCached(int color, MoveList moves) {
+        settleCastlingRights();
+        PositionCache shared = cache;
+        if (shared == null) {
+            moves.clear();
+            MoveGenerator.generateLegal(board.bits, color, -1L, moves);
+            return board.bits.isInCheck(color) ? PositionCache.IN_CHECK : 0;
+        }
+        long key = board.bits.positionKey(color);
+        int status = shared.probe(key, moves);
+        if (status == PositionCache.MISS) {
+            MoveGenerator.generateLegal(board.bits, color, -1L, moves);
+            status = board.bits.isInCheck(color) ? PositionCache.IN_CHECK : 0;
+            shared.store(key, moves, status);
+        }
+        return status;
+    }
+
+    //converts the moves starting on fromMask
+    private static Collection<ChessMove> toChessMoves(MoveList moves, long fromMask) {
+        Collection<ChessMove> output = new ArrayList<>();
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if ((fromMask & (1L << Move.from(move))) != 0) {
+                output.add(Move.toChessMove(move));
+            }
+        }
+        return output;
+    }
+
+    /**
+     * Gets the cache of legal moves shared by every game, for monitoring its
+     * hit rate
+     *
+     * @return the shared position cache, or null if caching is off
+     */
+    public static PositionCache positionCache() {
+        return cache;
+    }
+
+    /**
+     * Replaces the cache of legal moves shared by every game with an empty
+     * one. It starts at the size the {@value #POSITION_CACHE_ENTRIES} system
+     * property gives, or {@link PositionCache#DEFAULT_ENTRIES}. Games already
+     * generating moves finish with the cache they started with.
+     *
+     * @param entries how many positions the new cache can hold, or 0 to stop caching
+     * @throws IllegalArgumentException if entries is negative or 1
+     */
+    public static void resizePositionCache(int entries) {
+        cache = newPositionCache(entries);
+    }
+
+    private static PositionCache newPositionCache(int entries) {
+        return entries == 0 ? null : new PositionCache(entries);
     }
 
     /**
@@ -150,25 +230,64 @@ public class ChessGame {
         if ( piece.getTeamColor() != getTeamTurn()) {
             throw new InvalidMoveException();
         }
-        Collection<ChessMove> validMoves = validMoves(startPosition);
-        if (validMoves.contains(move)) {
-            board.movePiece(move);
-        } else {
+        MoveList moves = SCRATCH.get();
+        generateCached(BitBoard.colorIndex(piece.getTeamColor()), moves);
+        int packed = moves.find(Move.of(board.bits, move));
+        if (packed == Move.NONE) {
+            throw new InvalidMoveException();
+        }
+        playMove(packed);
+    }
+
+    /**
+     * Writes a legal move of the team to move in Standard Algebraic Notation,
+     * e.g. Nf3, exd5, O-O or e8=Q#
+     *
+     * @throws InvalidMoveException if the move is not legal here
+     */
+    public String toSan(ChessMove move) throws InvalidMoveException {
+        int us = isWhiteTurn ? BitBoard.WHITE : BitBoard.BLACK;
+        MoveList moves = SCRATCH.get();
+        generateCached(us, moves);
+        int packed = moves.find(Move.of(board.bits, move));
+        if (packed == Move.NONE) {
             throw new InvalidMoveException();
         }
-        changeTeamTurn();
+        return San.encode(board.bits, us, packed, moves);
+    }
+
+    /**
+     * Reads a move of the team to move in Standard Algebraic Notation
+     *
+     * @throws InvalidMoveException if the text names no legal move, or more than one
+     */
+    public ChessMove fromSan(CharSequence san) throws InvalidMoveException {
+        settleCastlingRights();
+        int move = San.decode(board.bits, isWhiteTurn ? BitBoard.WHITE : BitBoard.BLACK, san, SCRATCH.get());
+        if (move == Move.NONE) {
+            throw new InvalidMoveException("no single legal move matches " + san);
+        }
+        return Move.toChessMove(move);
+    }
+
+    //plays a packed move already known to be legal, advancing the clocks and the turn
+    void playMove(int move) {
+        boolean pawn = BitBoard.kindOf(board.bits.pieceAt(Move.from(move))) == BitBoard.PAWN;
+        board.bits.applyMove(Move.from(move), Move.to(move), Move.promotionKind(move));
+        if (pawn || Move.isCapture(move)) {
+            halfmoveClock = 0;
+        } else {
+            halfmoveClock++;
+        }
+        if (!isWhiteTurn) {
+            fullmoveNumber++;
+        }
+        isWhiteTurn = !isWhiteTurn;
     }
 
     //Helper function to determine if a team is in check, can be used with other boards
     public boolean isInCheckHelper(TeamColor teamColor, ChessBoard board) {
-        ChessPosition kingPosition = getKingPositionByColor(board, teamColor);
-        Collection<ChessMove> moves = allMovesByColor(board, oppositeTeam(teamColor));
-        for (ChessMove move : moves) {
-            if (move.getEndPosition().equals(kingPosition)) {
-                return true;
-            }
-        }
-        return false;
+        return board.bits.isInCheck(BitBoard.colorIndex(teamColor));
     }
 
     /**
@@ -188,9 +307,9 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor teamColor) {
-        Collection<ChessMove> moves = allMovesByColor(board, teamColor);
-        moves = safeMoves(board, moves, teamColor);
-        return (isInCheck(teamColor) && isUnableToMove(moves));
+        MoveList moves = SCRATCH.get();
+        int status = generateCached(BitBoard.colorIndex(teamColor), moves);
+        return (status & PositionCache.IN_CHECK) != 0 && moves.isEmpty();
     }
 
     /**
@@ -201,18 +320,28 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
-        Collection<ChessMove> moves = allMovesByColor(board, teamColor);
-        moves = safeMoves(board, moves, teamColor);
-        return (!isInCheck(teamColor) && isUnableToMove(moves));
+        MoveList moves = SCRATCH.get();
+        int status = generateCached(BitBoard.colorIndex(teamColor), moves);
+        return (status & PositionCache.IN_CHECK) == 0 && moves.isEmpty();
     }
 
     /**
-     * Sets this game's chessboard with a given board
+     * Sets this game's chessboard with a given board. A board built piece by
+     * piece has no castling history, so each side keeps the rights its king
+     * and rooks on their home squares allow.
      *
      * @param board the new board to use
      */
     public void setBoard(ChessBoard board) {
         this.board = board;
+        settleCastlingRights();
+    }
+
+    //boards built with addPiece, or read from JSON saved before rights were kept, get their rights from the pieces
+    private void settleCastlingRights() {
+        if (board != null && !board.bits.castlingKnown()) {
+            board.bits.inferCastlingRights();
+        }
     }
 
     /**
@@ -224,18 +353,92 @@ public class ChessGame {
         return board;
     }
 
+    /**
+     * Gets a 64-bit Zobrist key for the current position: piece placement,
+     * side to move, castling rights and en passant square. It is kept up to
+     * date as moves are made, so it is cheap enough to use as a map key for
+     * caching or repetition detection.
+     *
+     * @return the position's key
+     */
+    public long positionKey() {
+        //read only, since equals and hashCode go through here
+        BitBoard bits = board.bits;
+        return bits.positionKey(isWhiteTurn ? BitBoard.WHITE : BitBoard.BLACK, bits.settledCastlingRights());
+    }
+
+    /**
+     * Builds a game from a position in Forsyth-Edwards Notation
+     *
+     * @param fen e.g. {@code rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1}
+     * @return a new game in that position
+     * @throws IllegalArgumentException if fen is not a valid position
+     */
+    public static ChessGame fromFen(String fen) {
+        ChessGame game = new ChessGame();
+        game.loadFen(fen);
+        return game;
+    }
+
+    /**
+     * Replaces this game's position with one in Forsyth-Edwards Notation,
+     * writing the pieces straight into the current board. Nothing is
+     * allocated, so bulk tools can stream positions through one game. If fen
+     * is invalid the board is left partly filled.
+     *
+     * @param fen the position to load
+     * @throws IllegalArgumentException if fen is not a valid position
+     */
+    public void loadFen(CharSequence fen) {
+        Fen.read(fen, this);
+    }
+
+    /**
+     * Writes the current position in Forsyth-Edwards Notation
+     *
+     * @return the position, side to move, castling rights, en passant square and clocks
+     */
+    public String toFen() {
+        return Fen.write(this, new StringBuilder(90)).toString();
+    }
+
+    //plies since the last capture or pawn move, for the fifty-move rule
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    //the number of the move being played, starting at 1 and going up after black moves
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    //plies played, counted from move 1 with white to move, so it goes up by one with every move
+    public int getPly() {
+        return 2 * (fullmoveNumber - 1) + (isWhiteTurn ? 0 : 1);
+    }
+
+    /**
+     * Evaluates the current position for the team whose turn it is
+     *
+     * @return centipawns, positive when the team to move is better off
+     */
+    public int evaluate() {
+        return board.evaluate(getTeamTurn());
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) {
             return false;
         }
         ChessGame chessGame = (ChessGame) o;
-        return isWhiteTurn == chessGame.isWhiteTurn && Objects.equals(board, chessGame.board);
+        return isWhiteTurn == chessGame.isWhiteTurn && Objects.equals(board, chessGame.board)
+                && positionKey() == chessGame.positionKey();
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(isWhiteTurn, board);
+        return Long.hashCode(positionKey());
     }
 
     @Override
@@ -0,0 +1,215 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Compact JSON for the chess types, shared by the HTTP and database code.
+ * Instead of Gson's reflective field dump of the bitboards, a game is
+ * written as one FEN string, a board as its FEN placement and castling
+ * rights, and a move as a UCI string:
+ * <pre>
+ * "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1"
+ * "e2e4"
+ * </pre>
+ * Each value is a single JSON string, read and written with the FEN and UCI
+ * codecs. Reading still accepts the older reflective objects, so games
+ * stored before this format keep loading, including boards from before the
+ * bitboards that list their pieces in a "tiles" array.
+ * <p>
+ * Gson instances are thread safe and expensive to build, so use
+ * {@link #gson()} rather than {@code new Gson()}.
+ */
+public final class ChessJson {
+
+    private static final TypeAdapterFactory FACTORY = new TypeAdapterFactory() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+            Class<? super T> raw = type.getRawType();
+            if (raw == ChessGame.class) {
+                return (TypeAdapter<T>) new GameAdapter(gson.getDelegateAdapter(this, TypeToken.get(ChessGame.class)));
+            }
+            if (raw == ChessBoard.class) {
+                return (TypeAdapter<T>) new BoardAdapter(gson.getDelegateAdapter(this, TypeToken.get(ChessBoard.class)));
+            }
+            if (raw == ChessMove.class) {
+                return (TypeAdapter<T>) new MoveAdapter(gson.getDelegateAdapter(this, TypeToken.get(ChessMove.class)));
+            }
+            return null;
+        }
+    };
+
+    private static final Gson GSON = register(new GsonBuilder()).create();
+
+    private ChessJson() {
+    }
+
+    //the shared instance with the chess adapters registered
+    public static Gson gson() {
+        return GSON;
+    }
+
+    //adds the chess adapters to a builder, for code that needs its own Gson settings
+    public static GsonBuilder register(GsonBuilder builder) {
+        return builder.registerTypeAdapterFactory(FACTORY);
+    }
+
+    /// ADAPTERS ///
+
+    private static final class GameAdapter extends TypeAdapter<ChessGame> {
+
+        private final TypeAdapter<ChessGame> legacy;
+
+        GameAdapter(TypeAdapter<ChessGame> legacy) {
+            this.legacy = legacy;
+        }
+
+        @Override
+        public void write(JsonWriter out, ChessGame game) throws IOException {
+            if (game == null) {
+                out.nullValue();
+                return;
+            }
+            out.value(game.toFen());
+        }
+
+        @Override
+        public ChessGame read(JsonReader in) throws IOException {
+            JsonToken token = in.peek();
+            if (token == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            if (token == JsonToken.BEGIN_OBJECT) {
+                return legacy.read(in);
+            }
+            ChessGame game = new ChessGame();
+            try {
+                game.loadFen(in.nextString());
+            } catch (IllegalArgumentException e) {
+                throw new JsonParseException(e.getMessage(), e);
+            }
+            return game;
+        }
+    }
+
+    private static final class BoardAdapter extends TypeAdapter<ChessBoard> {
+
+        private final TypeAdapter<ChessBoard> legacy;
+
+        BoardAdapter(TypeAdapter<ChessBoard> legacy) {
+            this.legacy = legacy;
+        }
+
+        @Override
+        public void write(JsonWriter out, ChessBoard board) throws IOException {
+            if (board == null) {
+                out.nullValue();
+                return;
+            }
+            out.value(Fen.writeBoard(board.bits, new StringBuilder(80)).toString());
+        }
+
+        @Override
+        public ChessBoard read(JsonReader in) throws IOException {
+            JsonToken token = in.peek();
+            if (token == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            if (token == JsonToken.BEGIN_OBJECT) {
+                return readLegacy(in);
+            }
+            ChessBoard board = new ChessBoard();
+            try {
+                Fen.readBoard(in.nextString(), board.bits);
+            } catch (IllegalArgumentException e) {
+                throw new JsonParseException(e.getMessage(), e);
+            }
+            return board;
+        }
+
+        //boards stored before the bitboards were an 8x8 "tiles" array of pieces, indexed [row - 1][column - 1]
+        private ChessBoard readLegacy(JsonReader in) {
+            JsonObject object = JsonParser.parseReader(in).getAsJsonObject();
+            JsonElement tiles = object.get("tiles");
+            if (tiles == null) {
+                return legacy.fromJsonTree(object);
+            }
+            ChessBoard board = new ChessBoard();
+            try {
+                JsonArray rows = tiles.getAsJsonArray();
+                if (rows.size() != 8) {
+                    throw new JsonParseException("Board tiles need 8 rows, not " + rows.size());
+                }
+                for (int row = 0; row < 8; row++) {
+                    JsonArray columns = rows.get(row).getAsJsonArray();
+                    if (columns.size() != 8) {
+                        throw new JsonParseException("Board tiles need 8 columns, not " + columns.size());
+                    }
+                    for (int col = 0; col < 8; col++) {
+                        JsonElement tile = columns.get(col);
+                        if (!tile.isJsonNull()) {
+                            JsonObject piece = tile.getAsJsonObject();
+                            board.addPiece(ChessPosition.of(row + 1, col + 1), ChessPiece.of(
+                                    ChessGame.TeamColor.valueOf(piece.get("color").getAsString()),
+                                    ChessPiece.PieceType.valueOf(piece.get("type").getAsString())));
+                        }
+                    }
+                }
+            } catch (IllegalStateException | IllegalArgumentException | NullPointerException e) {
+                throw new JsonParseException("Invalid board tiles: " + e.getMessage(), e);
+            }
+            return board;
+        }
+    }
+
+    private static final class MoveAdapter extends TypeAdapter<ChessMove> {
+
+        private final TypeAdapter<ChessMove> legacy;
+
+        MoveAdapter(TypeAdapter<ChessMove> legacy) {
+            this.legacy = legacy;
+        }
+
+        @Override
+        public void write(JsonWriter out, ChessMove move) throws IOException {
+            if (move == null) {
+                out.nullValue();
+                return;
+            }
+            out.value(Uci.encode(move));
+        }
+
+        @Override
+        public ChessMove read(JsonReader in) throws IOException {
+            JsonToken token = in.peek();
+            if (token == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            if (token == JsonToken.BEGIN_OBJECT) {
+                return legacy.read(in);
+            }
+            try {
+                return Uci.parse(in.nextString());
+            } catch (IllegalArgumentException e) {
+                throw new JsonParseException(e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -59,11 +59,28 @@ public class ChessMove {
 
     @Override
     public int hashCode() {
-        return Objects.hash(start, end, promotion);
+        int result = 31 * Objects.hashCode(start) + Objects.hashCode(end);
+        return 31 * result + (promotion == null ? 0 : promotion.ordinal() + 1);
+    }
+
+    /**
+     * @return the move in UCI notation, e.g. e2e4 or e7e8q
+     */
+    public String toUci() {
+        return Uci.encode(this);
+    }
+
+    /**
+     * Reads a move in UCI notation, without checking it against any board
+     *
+     * @throws IllegalArgumentException if the text is not a well formed UCI move
+     */
+    public static ChessMove fromUci(String uci) {
+        return Uci.parse(uci);
     }
 
     @Override
     public String toString() {
-        return String.format("(%s to %s)",start,end);
+        return "(" + start + " to " + end + ")";
     }
 }
@@ -1,9 +1,7 @@
 package chess;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Objects;
 
 /**
  * Represents a single chess piece
@@ -13,17 +11,43 @@ import java.util.Objects;
  */
 public class ChessPiece implements Cloneable {
 
-    ChessGame.TeamColor color;
-    ChessPiece.PieceType type;
+    //one shared, immutable instance per color and type, indexed by BitBoard piece index
+    private static final ChessPiece[] INSTANCES = new ChessPiece[12];
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+                ChessPiece piece = new ChessPiece(color, type);
+                INSTANCES[BitBoard.pieceIndex(piece)] = piece;
+            }
+        }
+    }
+
+    final ChessGame.TeamColor color;
+    final ChessPiece.PieceType type;
+    //cached hash code, filled in on first use since Gson skips constructors
+    private transient int hash;
 
     public ChessPiece(ChessGame.TeamColor pieceColor, ChessPiece.PieceType pieceType) {
         color = pieceColor;
         type = pieceType;
+        hash = computeHash(pieceColor, pieceType);
     }
 
     public ChessPiece(ChessPiece piece) {
-        color = piece.getTeamColor();
-        type = piece.getPieceType();
+        this(piece.getTeamColor(), piece.getPieceType());
+    }
+
+    /**
+     * Returns the shared instance for a color and type; pieces are immutable,
+     * so it can be used anywhere a new ChessPiece would be
+     */
+    public static ChessPiece of(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return INSTANCES[BitBoard.pieceIndex(BitBoard.colorIndex(color), type.ordinal())];
+    }
+
+    //shared instance for a BitBoard piece index
+    public static ChessPiece ofIndex(int pieceIndex) {
+        return INSTANCES[pieceIndex];
     }
 
     /**
@@ -52,332 +76,90 @@ public class ChessPiece implements Cloneable {
         return type;
     }
 
-    /// HELPER FUNCTIONS ///
-
-    // returns true if a position is on the chess board
-    private boolean validPosition (ChessPosition position) {
-        if (position.getRow() < 1 | position.getRow() > 8) {
-            return false;
-        }
-        if (position.getColumn() < 1 | position.getColumn() > 8) {
-            return false;
-        }
-        return true;
-    }
-
-    // returns true if a position has a piece on it
-    private boolean containsPiece(ChessBoard board, ChessPosition position) {
-        return (board.getPiece(position) != null);
-    }
-
-    // returns true if the piece on the position is the opposite color as this piece
-    private boolean isEnemy(ChessBoard board, ChessPosition position) {
-        ChessGame.TeamColor otherType = board.getPiece(position).getTeamColor();
-        if (color == ChessGame.TeamColor.WHITE && otherType == ChessGame.TeamColor.BLACK) {
-            return true;
-        }
-        if (color == ChessGame.TeamColor.BLACK && otherType == ChessGame.TeamColor.WHITE) {
-            return true;
-        }
-        return false;
-    }
-
-    // returns true if the position is open for regular movement (empty or enemy piece)
-    private boolean validMovePosition(ChessBoard board, ChessPosition position) {
-        if (!validPosition(position)) {
-            return false;
-        }
-        if (!containsPiece(board, position)) {
-            return true;
-        }
-        if (isEnemy(board,position)) {
-            return true;
-        }
-        return false;
-    }
-
-    /// RECURSIVE MOVE FUNCTIONS FOR ROOKS, BISHOPS, and QUEENS
-    ///
-
-    //recursive function that moves North until it cannot
-    private void recMoveNorth(ChessBoard board,
-                              ChessPosition start,
-                              ChessPosition position,
-                              Collection<ChessMove> output) {
-        ChessPosition newPosition = position.getNorthPosition();
-        if (recMoveHelper(board, start, newPosition, output)) {
-            recMoveNorth(board, start, newPosition, output);
-        }
-    }
-
-    //recursive function that moves NorthWest until it cannot
-    private void recMoveNorthWest(ChessBoard board,
-                                  ChessPosition start,
-                                  ChessPosition position,
-                                  Collection<ChessMove> output) {
-        ChessPosition newPosition = position.getNorthWestPosition();
-        if (recMoveHelper(board, start, newPosition, output)) {
-            recMoveNorthWest(board, start, newPosition, output);
-        }
-    }
-
-    //recursive function that moves West until it cannot
-    private void recMoveWest(ChessBoard board,
-                             ChessPosition start,
-                             ChessPosition position,
-                             Collection<ChessMove> output) {
-        ChessPosition newPosition = position.getWestPosition();
-        if (recMoveHelper(board, start, newPosition, output)) {
-            recMoveWest(board, start, newPosition, output);
-        }
-    }
-
-    //recursive function that moves Southwest until it cannot
-    private void recMoveSouthWest(ChessBoard board,
-                                  ChessPosition start,
-                                  ChessPosition position,
-                                  Collection<ChessMove> output) {
-        ChessPosition newPosition = position.getSouthWestPosition();
-        if (recMoveHelper(board, start, newPosition, output)) {
-            recMoveSouthWest(board, start, newPosition, output);
-        }
-    }
-
-    //recursive function that moves South until it cannot
-    private void recMoveSouth(ChessBoard board,
-                              ChessPosition start,
-                              ChessPosition position,
-                              Collection<ChessMove> output) {
-        ChessPosition newPosition = position.getSouthPosition();
-        if (recMoveHelper(board, start, newPosition, output)) {
-            recMoveSouth(board, start, newPosition, output);
-        }
-    }
-
-    //recursive function that moves Southeast until it cannot
-    private void recMoveSouthEast(ChessBoard board,
-                                  ChessPosition start,
-                                  ChessPosition position,
-                                  Collection<ChessMove> output) {
-        ChessPosition newPosition = position.getSouthEastPosition();
-        if (recMoveHelper(board, start, newPosition, output)) {
-            recMoveSouthEast(board, start, newPosition, output);
-        }
-    }
-
-    //recursive function that moves East until it cannot
-    private void recMoveEast(ChessBoard board,
-                             ChessPosition start,
-                             ChessPosition position,
-                             Collection<ChessMove> output) {
-        ChessPosition newPosition = position.getEastPosition();
-        if (recMoveHelper(board, start, newPosition, output)) {
-            recMoveEast(board, start, newPosition, output);
-        }
-    }
-
-    //recursive function that moves Northeast until it cannot
-    private void recMoveNorthEast(ChessBoard board,
-                                  ChessPosition start,
-                                  ChessPosition position,
-                                  Collection<ChessMove> output) {
-        ChessPosition newPosition = position.getNorthEastPosition();
-        if (recMoveHelper(board, start, newPosition, output)) {
-            recMoveNorthEast(board, start, newPosition, output);
-        }
-    }
+    /// METHODS THAT RETURN THE COLLECTION OF MOVES, CALLED BASED ON PIECE TYPE
 
-    //recursive helper function that returns true if move can continue
-    private boolean recMoveHelper(ChessBoard board,
-                                  ChessPosition start,
-                                  ChessPosition newPosition,
-                                  Collection<ChessMove> output) {
-        //new position is out of bounds
-        if (!validPosition(newPosition)) {
-            return false;
-        }
-        //north position is ally
-        if (containsPiece(board, newPosition) && !isEnemy(board, newPosition)) {
-            return false;
+    // adds a move from myPosition to every square in targets
+    private void addMoves(ChessPosition myPosition, long targets, Collection<ChessMove> output) {
+        while (targets != 0) {
+            int square = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            output.add(new ChessMove(myPosition, ChessPosition.ofSquare(square), null));
         }
-        //north position is enemy
-        if (containsPiece(board, newPosition) && isEnemy(board, newPosition)) {
-            output.add(new ChessMove(start, newPosition, null));
-            return false;
-        }
-        output.add(new ChessMove(start, newPosition, null));
-        return true;
     }
 
-    /// METHODS THAT RETURN THE COLLECTION OF MOVES, CALLED BASED ON PIECE TYPE
-
     // returns a collection of every possible move of a King Piece on a position
     private Collection<ChessMove> getKingMove(ChessBoard board, ChessPosition myPosition) {
-        Collection<ChessMove> output = new HashSet<>();
-        if (validMovePosition(board, myPosition.getNorthPosition())) {
-            output.add(new ChessMove(myPosition, myPosition.getNorthPosition(), null));
-        }
-        if (validMovePosition(board, myPosition.getNorthWestPosition())) {
-            output.add(new ChessMove(myPosition, myPosition.getNorthWestPosition(), null));
-        }
-        if (validMovePosition(board, myPosition.getWestPosition())) {
-            output.add(new ChessMove(myPosition, myPosition.getWestPosition(), null));
-        }
-        if (validMovePosition(board, myPosition.getSouthWestPosition())) {
-            output.add(new ChessMove(myPosition, myPosition.getSouthWestPosition(), null));
-        }
-        if (validMovePosition(board, myPosition.getSouthPosition())) {
-            output.add(new ChessMove(myPosition, myPosition.getSouthPosition(), null));
-        }
-        if (validMovePosition(board, myPosition.getSouthEastPosition())) {
-            output.add(new ChessMove(myPosition, myPosition.getSouthEastPosition(), null));
-        }
-        if (validMovePosition(board, myPosition.getEastPosition())) {
-            output.add(new ChessMove(myPosition, myPosition.getEastPosition(), null));
-        }
-        if (validMovePosition(board, myPosition.getNorthEastPosition())) {
-            output.add(new ChessMove(myPosition, myPosition.getNorthEastPosition(), null));
-        }
+        long own = board.bits.occupancy(BitBoard.colorIndex(color));
+        long targets = Attacks.king(BitBoard.square(myPosition)) & ~own;
+        Collection<ChessMove> output = new ArrayList<>(Long.bitCount(targets));
+        addMoves(myPosition, targets, output);
         return output;
     }
 
     // returns a collection of every possible move of a Knight Piece on a position
     private Collection<ChessMove> getKnightMove(ChessBoard board, ChessPosition myPosition) {
-        Collection<ChessMove> output = new HashSet<>();
-        if (validMovePosition(board, myPosition.getUpUpRightPosition())) {
-            output.add(new ChessMove(myPosition, myPosition.getUpUpRightPosition(), null));
-        }
-        if (validMovePosition(board, myPosition.getUpRightRightPosition())) {
-            output.add(new ChessMove(myPosition, myPosition.getUpRightRightPosition(), null));
-        }
-        if (validMovePosition(board, myPosition.getDownRightRightPosition())) {
-            output.add(new ChessMove(myPosition, myPosition.getDownRightRightPosition(), null));
-        }
-        if (validMovePosition(board, myPosition.getDownDownRightPosition())) {
-            output.add(new ChessMove(myPosition, myPosition.getDownDownRightPosition(), null));
-        }
-        if (validMovePosition(board, myPosition.getDownDownLeftPosition())) {
-            output.add(new ChessMove(myPosition, myPosition.getDownDownLeftPosition(), null));
-        }
-        if (validMovePosition(board, myPosition.getDownLeftLeftPosition())) {
-            output.add(new ChessMove(myPosition, myPosition.getDownLeftLeftPosition(), null));
-        }
-        if (validMovePosition(board, myPosition.getUpLeftLeftPosition())) {
-            output.add(new ChessMove(myPosition, myPosition.getUpLeftLeftPosition(), null));
-        }
-        if (validMovePosition(board, myPosition.getUpUpLeftPosition())) {
-            output.add(new ChessMove(myPosition, myPosition.getUpUpLeftPosition(), null));
-        }
+        long own = board.bits.occupancy(BitBoard.colorIndex(color));
+        long targets = Attacks.knight(BitBoard.square(myPosition)) & ~own;
+        Collection<ChessMove> output = new ArrayList<>(Long.bitCount(targets));
+        addMoves(myPosition, targets, output);
         return output;
     }
 
     // returns a collection of every possible move of a Rook Piece on a position
     private Collection<ChessMove> getRookMove(ChessBoard board, ChessPosition myPosition) {
-        Collection<ChessMove> output = new HashSet<>();
-        recMoveNorth(board, myPosition, myPosition, output);
-        recMoveEast(board, myPosition, myPosition, output);
-        recMoveSouth(board, myPosition, myPosition, output);
-        recMoveWest(board, myPosition, myPosition, output);
-        return output;
+        long targets = Attacks.rook(BitBoard.square(myPosition), board.bits.occupied());
+        return getSlidingMove(board, myPosition, targets);
     }
 
     // returns a collection of every possible move of a Bishop Piece on a position
     private Collection<ChessMove> getBishopMove(ChessBoard board, ChessPosition myPosition) {
-        Collection<ChessMove> output = new HashSet<>();
-        recMoveNorthWest(board, myPosition, myPosition, output);
-        recMoveNorthEast(board, myPosition, myPosition, output);
-        recMoveSouthEast(board, myPosition, myPosition, output);
-        recMoveSouthWest(board, myPosition, myPosition, output);
-        return output;
+        long targets = Attacks.bishop(BitBoard.square(myPosition), board.bits.occupied());
+        return getSlidingMove(board, myPosition, targets);
     }
 
     // returns a collection of every possible move of a Queen Piece on a position
     private Collection<ChessMove> getQueenMove(ChessBoard board, ChessPosition myPosition) {
-        Collection<ChessMove> output = new HashSet<>();
-        recMoveNorth(board, myPosition, myPosition, output);
-        recMoveEast(board, myPosition, myPosition, output);
-        recMoveSouth(board, myPosition, myPosition, output);
-        recMoveWest(board, myPosition, myPosition, output);
-        recMoveNorthWest(board, myPosition, myPosition, output);
-        recMoveNorthEast(board, myPosition, myPosition, output);
-        recMoveSouthEast(board, myPosition, myPosition, output);
-        recMoveSouthWest(board, myPosition, myPosition, output);
-        return output;
+        long targets = Attacks.queen(BitBoard.square(myPosition), board.bits.occupied());
+        return getSlidingMove(board, myPosition, targets);
     }
 
-    // returns a collection of every possible move of a White Pawn Piece on a position
-    private Collection<ChessMove> getPawnMoveWhite(ChessBoard board, ChessPosition myPosition) {
-        Collection<ChessMove> output = new HashSet<>();
-        ChessPosition north = myPosition.getNorthPosition();
-        ChessPosition northeast = myPosition.getNorthEastPosition();
-        ChessPosition northwest = myPosition.getNorthWestPosition();
-        //double move
-        if (myPosition.getRow() == 2) {
-            ChessPosition doubleNorth = myPosition.getDoubleNorthPosition();
-            if (!containsPiece(board, doubleNorth) && !containsPiece(board, north)) {
-                output.add(new ChessMove(myPosition, doubleNorth, null));
-            }
-        }
-        //regular move
-
-        if (!containsPiece(board, north)) {
-            if (myPosition.getRow() == 7) {
-                addPromotionMoves(myPosition, north, output);
-            }
-            else {output.add(new ChessMove(myPosition, north, null));}
-        }
-        //regular attack
-        addPawnAttacks(board, myPosition, northeast, output);
-        addPawnAttacks(board, myPosition, northwest, output);
+    // turns a slider's attack set into moves, dropping squares held by its own team
+    private Collection<ChessMove> getSlidingMove(ChessBoard board, ChessPosition myPosition, long attacks) {
+        long targets = attacks & ~board.bits.occupancy(BitBoard.colorIndex(color));
+        Collection<ChessMove> output = new ArrayList<>(Long.bitCount(targets));
+        addMoves(myPosition, targets, output);
         return output;
     }
 
-    // returns a collection of every possible move of a Black Pawn Piece on a position
-    private Collection<ChessMove> getPawnMoveBlack(ChessBoard board, ChessPosition myPosition) {
-        Collection<ChessMove> output = new HashSet<>();
-        ChessPosition south = myPosition.getSouthPosition();
-        ChessPosition southeast = myPosition.getSouthEastPosition();
-        ChessPosition southwest = myPosition.getSouthWestPosition();
-        //double move
-        if (myPosition.getRow() == 7) {
-            ChessPosition doubleSouth = myPosition.getDoubleSouthPosition();
-            if (!containsPiece(board, doubleSouth) && !containsPiece(board, south)) {
-                output.add(new ChessMove(myPosition, doubleSouth, null));
-            }
-        }
-        //regular move
-        if (!containsPiece(board, south)) {
-            if (myPosition.getRow() == 2) {
-                addPromotionMoves(myPosition, south, output);
-            }
-            else {output.add(new ChessMove(myPosition, south, null));}
+    // returns a collection of every possible move of a Pawn Piece on a position
+    private Collection<ChessMove> getPawnMove(ChessBoard board, ChessPosition myPosition) {
+        BitBoard bits = board.bits;
+        int side = BitBoard.colorIndex(color);
+        int square = BitBoard.square(myPosition);
+        long empty = ~bits.occupied();
+        long from = 1L << square;
+        long pushes;
+        //single push, then a double push from the starting row if the first step was open
+        if (side == BitBoard.WHITE) {
+            long single = (from << 8) & empty;
+            pushes = single | ((single & Attacks.RANK_3) << 8) & empty;
+        } else {
+            long single = (from >>> 8) & empty;
+            pushes = single | ((single & Attacks.RANK_6) >>> 8) & empty;
+        }
+        long attacks = Attacks.pawn(side, square) & bits.occupancy(1 - side);
+        long targets = pushes | attacks;
+        Collection<ChessMove> output = new ArrayList<>(4 * Long.bitCount(targets));
+        long promotions = targets & (Attacks.RANK_1 | Attacks.RANK_8);
+        addMoves(myPosition, targets & ~promotions, output);
+        while (promotions != 0) {
+            int end = Long.numberOfTrailingZeros(promotions);
+            promotions &= promotions - 1;
+            addPromotionMoves(myPosition, ChessPosition.ofSquare(end), output);
         }
-        //regular attack
-        addPawnAttacks(board, myPosition, southeast, output);
-        addPawnAttacks(board, myPosition, southwest, output);
         return output;
     }
 
-    private void addPawnAttacks(ChessBoard board,
-                                ChessPosition myPosition,
-                                ChessPosition newPosition,
-                                Collection<ChessMove> output) {
-        if (validPosition(newPosition) && containsPiece(board,newPosition) && isEnemy(board, newPosition)) {
-            if (isPromotionRow(myPosition, board.getPiece(myPosition).getTeamColor())) {
-                addPromotionMoves(myPosition, newPosition, output);
-            } else {
-                output.add(new ChessMove(myPosition, newPosition, null));
-            }
-        }
-    }
-
-    private boolean isPromotionRow(ChessPosition myPosition, ChessGame.TeamColor color) {
-        if (color == ChessGame.TeamColor.BLACK) {
-            return (myPosition.getRow() == 2);
-        }
-        return (myPosition.getRow() == 7);
-    }
-
     private void addPromotionMoves(ChessPosition start, ChessPosition end, Collection<ChessMove> output) {
         output.add(new ChessMove(start, end, PieceType.ROOK));
         output.add(new ChessMove(start, end, PieceType.BISHOP));
@@ -417,12 +199,7 @@ public class ChessPiece implements Cloneable {
         }
         //pawn moves
         if (type == PieceType.PAWN) {
-            if (color == ChessGame.TeamColor.WHITE) {
-                return getPawnMoveWhite(board, myPosition);
-            }
-            if (color == ChessGame.TeamColor.BLACK) {
-                return getPawnMoveBlack(board, myPosition);
-            }
+            return getPawnMove(board, myPosition);
         }
         return null;
     }
@@ -438,7 +215,17 @@ public class ChessPiece implements Cloneable {
 
     @Override
     public int hashCode() {
-        return Objects.hash(color, type);
+        int h = hash;
+        if (h == 0) {
+            h = computeHash(color, type);
+            hash = h;
+        }
+        return h;
+    }
+
+    //built from ordinals rather than the enums' identity hash codes, so it is the same on every run
+    private static int computeHash(ChessGame.TeamColor color, PieceType type) {
+        return 31 * (31 + (color == null ? 0 : color.ordinal() + 1)) + (type == null ? 0 : type.ordinal() + 1);
     }
 
     @Override
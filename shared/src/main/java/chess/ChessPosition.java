@@ -1,7 +1,5 @@
 package chess;
 
-import java.util.Objects;
-
 /**
  * Represents a single square position on a chess board
  * <p>
@@ -10,12 +8,53 @@ import java.util.Objects;
  */
 public class ChessPosition {
 
+    //canonical instances for rows and columns -1 through 10, which covers the
+    //board plus every square a king, knight or pawn step can land on off it
+    private static final int MIN = -1;
+    private static final int SPAN = 12;
+    private static final ChessPosition[] CACHE = new ChessPosition[SPAN * SPAN];
+    private static final ChessPosition[] SQUARES = new ChessPosition[64];
+    //file letter of each column, indexed from 1
+    private static final char[] FILE_LETTERS = {' ', 'a', 'b', 'c', 'd', 'e', 'f', 'g', 'h'};
+
+    static {
+        for (int row = MIN; row < MIN + SPAN; row++) {
+            for (int col = MIN; col < MIN + SPAN; col++) {
+                CACHE[(row - MIN) * SPAN + (col - MIN)] = new ChessPosition(row, col);
+            }
+        }
+        for (int square = 0; square < 64; square++) {
+            SQUARES[square] = of(BitBoard.row(square), BitBoard.column(square));
+        }
+    }
+
     private final int row;
     private final int col;
+    //cached hash code, filled in on first use since Gson skips constructors
+    private transient int hash;
 
     public ChessPosition(int row, int col) {
         this.row = row;
         this.col = col;
+        this.hash = computeHash(row, col);
+    }
+
+    /**
+     * Returns the shared instance for a position, only allocating for
+     * coordinates far outside the board
+     */
+    public static ChessPosition of(int row, int col) {
+        int r = row - MIN;
+        int c = col - MIN;
+        if (r < 0 || r >= SPAN || c < 0 || c >= SPAN) {
+            return new ChessPosition(row, col);
+        }
+        return CACHE[r * SPAN + c];
+    }
+
+    //shared instance for a BitBoard square index
+    public static ChessPosition ofSquare(int square) {
+        return SQUARES[square];
     }
 
     /**
@@ -35,62 +74,62 @@ public class ChessPosition {
     }
 
     public ChessPosition getNorthPosition() {
-        return new ChessPosition(row+1,col);
+        return of(row+1,col);
     }
     public ChessPosition getNorthEastPosition() {
-        return new ChessPosition(row+1,col+1);
+        return of(row+1,col+1);
     }
     public ChessPosition getEastPosition() {
-        return new ChessPosition(row,col+1);
+        return of(row,col+1);
     }
     public ChessPosition getSouthEastPosition() {
-        return new ChessPosition(row-1,col+1);
+        return of(row-1,col+1);
     }
     public ChessPosition getSouthPosition() {
-        return new ChessPosition(row-1,col);
+        return of(row-1,col);
     }
     public ChessPosition getSouthWestPosition() {
-        return new ChessPosition(row-1,col-1);
+        return of(row-1,col-1);
     }
     public ChessPosition getWestPosition() {
-        return new ChessPosition(row,col-1);
+        return of(row,col-1);
     }
     public ChessPosition getNorthWestPosition() {
-        return new ChessPosition(row+1,col-1);
+        return of(row+1,col-1);
     }
 
     //knight moves
     public ChessPosition getUpUpRightPosition() {
-        return new ChessPosition(row+2, col+1);
+        return of(row+2, col+1);
     }
     public ChessPosition getUpRightRightPosition() {
-        return new ChessPosition(row+1, col+2);
+        return of(row+1, col+2);
     }
     public ChessPosition getDownRightRightPosition() {
-        return new ChessPosition(row-1, col+2);
+        return of(row-1, col+2);
     }
     public ChessPosition getDownDownRightPosition() {
-        return new ChessPosition(row-2, col+1);
+        return of(row-2, col+1);
     }
     public ChessPosition getDownDownLeftPosition() {
-        return new ChessPosition(row-2, col-1);
+        return of(row-2, col-1);
     }
     public ChessPosition getDownLeftLeftPosition() {
-        return new ChessPosition(row-1, col-2);
+        return of(row-1, col-2);
     }
     public ChessPosition getUpLeftLeftPosition() {
-        return new ChessPosition(row+1, col-2);
+        return of(row+1, col-2);
     }
     public ChessPosition getUpUpLeftPosition() {
-        return new ChessPosition(row+2, col-1);
+        return of(row+2, col-1);
     }
 
     public ChessPosition getDoubleNorthPosition() {
-        return new ChessPosition(row+2, col);
+        return of(row+2, col);
     }
 
     public ChessPosition getDoubleSouthPosition() {
-        return new ChessPosition(row-2, col);
+        return of(row-2, col);
     }
 
 
@@ -106,22 +145,23 @@ public class ChessPosition {
 
     @Override
     public int hashCode() {
-        return Objects.hash(row, col);
+        int h = hash;
+        if (h == 0) {
+            h = computeHash(row, col);
+            hash = h;
+        }
+        return h;
+    }
+
+    //same value Objects.hash(row, col) gives, without the varargs array
+    private static int computeHash(int row, int col) {
+        return 31 * (31 + row) + col;
     }
 
     @Override
     public String toString() {
         //invalid coords will be represented by spaces
-        char colChar = ' ';
-        if (col == 1) {colChar = 'a';}
-        else if (col == 2) {colChar = 'b';}
-        else if (col == 3) {colChar = 'c';}
-        else if (col == 4) {colChar = 'd';}
-        else if (col == 5) {colChar = 'e';}
-        else if (col == 6) {colChar = 'f';}
-        else if (col == 7) {colChar = 'g';}
-        else if (col == 8) {colChar = 'h';}
-
-        return String.format("{%d,%c}", row, colChar);
+        char colChar = col >= 1 && col <= 8 ? FILE_LETTERS[col] : ' ';
+        return "{" + row + "," + colChar + "}";
     }
 }
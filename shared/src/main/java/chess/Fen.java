@@ -0,0 +1,290 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * Reads and writes positions in Forsyth-Edwards Notation: piece placement,
+ * side to move, castling rights, en passant square and the two move clocks,
+ * e.g. {@code rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1}.
+ * <p>
+ * Reading is a single pass over the characters that puts pieces straight
+ * onto the game's bitboards, so loading a position into an existing game
+ * allocates nothing. The castling, en passant and clock fields may be left
+ * off, as EPD lines do; without a castling field each side gets the rights
+ * its king and rooks on their home squares allow. An en passant square is
+ * only kept when a pawn can actually capture on it, the same rule moves
+ * follow, so writing a position back gives "-" for a square no pawn can
+ * reach.
+ */
+final class Fen {
+
+    static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    //BitBoard piece index by FEN letter, NO_PIECE for anything else
+    private static final int[] PIECE_BY_CHAR = new int[128];
+    //and the letter by piece index
+    private static final char[] CHAR_BY_PIECE = {'K', 'Q', 'B', 'N', 'R', 'P', 'k', 'q', 'b', 'n', 'r', 'p'};
+
+    static {
+        Arrays.fill(PIECE_BY_CHAR, BitBoard.NO_PIECE);
+        for (int piece = 0; piece < CHAR_BY_PIECE.length; piece++) {
+            PIECE_BY_CHAR[CHAR_BY_PIECE[piece]] = piece;
+        }
+    }
+
+    private Fen() {
+    }
+
+    /// READING ///
+
+    /**
+     * Replaces the position of a game with one written in FEN, reusing the
+     * game's board
+     *
+     * @throws IllegalArgumentException if the text is not a valid FEN position
+     */
+    static void read(CharSequence fen, ChessGame game) {
+        BitBoard bits = game.board.bits;
+        bits.clear();
+        int length = fen.length();
+        int i = readPlacement(fen, skipSpaces(fen, 0), bits);
+
+        i = skipSpaces(fen, i);
+        boolean whiteToMove = true;
+        if (i < length) {
+            char side = fen.charAt(i++);
+            if (side != 'w' && side != 'b') {
+                throw error(fen, i - 1, "side to move must be 'w' or 'b'");
+            }
+            whiteToMove = side == 'w';
+        }
+
+        i = skipSpaces(fen, i);
+        if (i < length) {
+            i = readCastling(fen, i, bits);
+        } else {
+            //no castling field: the rights the pieces allow, as setBoard gives a board built piece by piece
+            bits.inferCastlingRights();
+        }
+
+        i = skipSpaces(fen, i);
+        if (i < length && fen.charAt(i) == '-') {
+            i++;
+        } else if (i < length) {
+            if (i + 1 >= length) {
+                throw error(fen, i, "en passant square is cut off");
+            }
+            char file = fen.charAt(i);
+            char rank = fen.charAt(i + 1);
+            if (file < 'a' || file > 'h' || (rank != (whiteToMove ? '6' : '3'))) {
+                throw error(fen, i, "invalid en passant square");
+            }
+            int square = BitBoard.square(rank - '0', file - 'a' + 1);
+            int us = whiteToMove ? BitBoard.WHITE : BitBoard.BLACK;
+            //same rule as a double push: only keep the square if one of our pawns can take on it
+            if ((Attacks.pawn(1 - us, square) & bits.pieces(us, BitBoard.PAWN)) != 0) {
+                bits.setEnPassantSquare(square);
+            }
+            i += 2;
+        }
+
+        i = skipSpaces(fen, i);
+        int halfmoveClock = 0;
+        if (i < length) {
+            int start = i;
+            for (; i < length && fen.charAt(i) != ' '; i++) {
+                halfmoveClock = digit(fen, i, halfmoveClock);
+            }
+            if (i == start) {
+                throw error(fen, i, "missing halfmove clock");
+            }
+        }
+        i = skipSpaces(fen, i);
+        int fullmoveNumber = 1;
+        if (i < length) {
+            fullmoveNumber = 0;
+            for (; i < length && fen.charAt(i) != ' '; i++) {
+                fullmoveNumber = digit(fen, i, fullmoveNumber);
+            }
+            fullmoveNumber = Math.max(fullmoveNumber, 1);
+        }
+        if (skipSpaces(fen, i) != length) {
+            throw error(fen, i, "unexpected text after the move number");
+        }
+
+        game.isWhiteTurn = whiteToMove;
+        game.halfmoveClock = halfmoveClock;
+        game.fullmoveNumber = fullmoveNumber;
+    }
+
+    /**
+     * Replaces the pieces of a board with a FEN placement, optionally followed
+     * by castling rights, as {@link ChessJson} writes boards. Without a
+     * castling field each side gets the rights its king and rooks on their
+     * home squares allow, as in a full FEN, though they are only worked out
+     * from the pieces once something needs them.
+     *
+     * @throws IllegalArgumentException if the text is not a valid placement
+     */
+    static void readBoard(CharSequence fen, BitBoard bits) {
+        bits.clear();
+        int i = readPlacement(fen, skipSpaces(fen, 0), bits);
+        i = skipSpaces(fen, i);
+        if (i < fen.length()) {
+            i = skipSpaces(fen, readCastling(fen, i, bits));
+        }
+        if (i != fen.length()) {
+            throw error(fen, i, "unexpected text after the castling rights");
+        }
+    }
+
+    //puts the pieces of the placement field starting at i onto bits; returns the index after it
+    private static int readPlacement(CharSequence fen, int i, BitBoard bits) {
+        int length = fen.length();
+        int row = 7;
+        int col = 0;
+        for (; i < length && fen.charAt(i) != ' '; i++) {
+            char c = fen.charAt(i);
+            if (c == '/') {
+                if (col != 8 || row == 0) {
+                    throw error(fen, i, "rank does not have 8 squares");
+                }
+                row--;
+                col = 0;
+            } else if (c >= '1' && c <= '8') {
+                col += c - '0';
+                if (col > 8) {
+                    throw error(fen, i, "rank has more than 8 squares");
+                }
+            } else {
+                int piece = c < 128 ? PIECE_BY_CHAR[c] : BitBoard.NO_PIECE;
+                if (piece == BitBoard.NO_PIECE) {
+                    throw error(fen, i, "unknown piece '" + c + "'");
+                }
+                if (col == 8) {
+                    throw error(fen, i, "rank has more than 8 squares");
+                }
+                bits.put(row * 8 + col, piece);
+                col++;
+            }
+        }
+        if (row != 0 || col != 8) {
+            throw error(fen, i, "placement does not cover 8 ranks of 8 squares");
+        }
+        return i;
+    }
+
+    //reads the castling field starting at i; returns the index after it
+    private static int readCastling(CharSequence fen, int i, BitBoard bits) {
+        int length = fen.length();
+        int rights = 0;
+        if (i < length && fen.charAt(i) == '-') {
+            i++;
+        } else {
+            for (; i < length && fen.charAt(i) != ' '; i++) {
+                rights |= switch (fen.charAt(i)) {
+                    case 'K' -> BitBoard.WHITE_KINGSIDE;
+                    case 'Q' -> BitBoard.WHITE_QUEENSIDE;
+                    case 'k' -> BitBoard.BLACK_KINGSIDE;
+                    case 'q' -> BitBoard.BLACK_QUEENSIDE;
+                    default -> throw error(fen, i, "unknown castling right '" + fen.charAt(i) + "'");
+                };
+            }
+        }
+        bits.setCastlingRights(rights);
+        return i;
+    }
+
+    private static int skipSpaces(CharSequence fen, int i) {
+        while (i < fen.length() && fen.charAt(i) == ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private static int digit(CharSequence fen, int i, int value) {
+        char c = fen.charAt(i);
+        if (c < '0' || c > '9' || value > 100_000) {
+            throw error(fen, i, "invalid move clock");
+        }
+        return value * 10 + (c - '0');
+    }
+
+    private static IllegalArgumentException error(CharSequence fen, int index, String problem) {
+        return new IllegalArgumentException("Invalid FEN at column " + (index + 1) + ", " + problem + ": " + fen);
+    }
+
+    /// WRITING ///
+
+    //appends a game's position in FEN
+    static StringBuilder write(ChessGame game, StringBuilder output) {
+        BitBoard bits = game.board.bits;
+        writePlacement(bits, output);
+        output.append(game.isWhiteTurn ? " w " : " b ");
+        writeCastling(bits.settledCastlingRights(), output);
+
+        output.append(' ');
+        int enPassant = bits.enPassantSquare();
+        if (enPassant < 0) {
+            output.append('-');
+        } else {
+            output.append((char) ('a' + (enPassant & 7))).append((char) ('1' + (enPassant >>> 3)));
+        }
+        return output.append(' ').append(game.halfmoveClock).append(' ').append(game.fullmoveNumber);
+    }
+
+    //appends a board's placement and, if they are known, its castling rights: the form readBoard takes
+    static StringBuilder writeBoard(BitBoard bits, StringBuilder output) {
+        writePlacement(bits, output);
+        if (!bits.castlingKnown()) {
+            return output;
+        }
+        output.append(' ');
+        return writeCastling(bits.castlingRights(), output);
+    }
+
+    private static StringBuilder writePlacement(BitBoard bits, StringBuilder output) {
+        for (int row = 7; row >= 0; row--) {
+            int empty = 0;
+            for (int col = 0; col < 8; col++) {
+                int piece = bits.pieceAt(row * 8 + col);
+                if (piece == BitBoard.NO_PIECE) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    output.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                output.append(CHAR_BY_PIECE[piece]);
+            }
+            if (empty > 0) {
+                output.append((char) ('0' + empty));
+            }
+            if (row > 0) {
+                output.append('/');
+            }
+        }
+        return output;
+    }
+
+    private static StringBuilder writeCastling(int rights, StringBuilder output) {
+        if (rights == 0) {
+            output.append('-');
+        } else {
+            if ((rights & BitBoard.WHITE_KINGSIDE) != 0) {
+                output.append('K');
+            }
+            if ((rights & BitBoard.WHITE_QUEENSIDE) != 0) {
+                output.append('Q');
+            }
+            if ((rights & BitBoard.BLACK_KINGSIDE) != 0) {
+                output.append('k');
+            }
+            if ((rights & BitBoard.BLACK_QUEENSIDE) != 0) {
+                output.append('q');
+            }
+        }
+        return output;
+    }
+}
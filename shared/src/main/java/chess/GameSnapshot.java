@@ -0,0 +1,144 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * A versioned binary form of a game, for storage and transfer where JSON is
+ * too bulky. Version 1 takes 37 bytes while both move clocks are under 128:
+ * <pre>
+ * byte 0       version
+ * bytes 1-32   the 64 squares a1..h8, a nibble each, low nibble first:
+ *              0 for empty, otherwise the BitBoard piece index + 1
+ * byte 33      bit 0 black to move, bit 1 castling rights known,
+ *              bits 2-5 the castling rights
+ * byte 34      en passant square, 0 for none
+ * then         halfmove clock and fullmove number as unsigned varints
+ * </pre>
+ * Decoding writes straight onto an existing game's bitboards, so a reused
+ * game can be loaded without allocating.
+ */
+public final class GameSnapshot {
+
+    public static final int VERSION = 1;
+    //the most bytes a snapshot can take, with both clocks at their largest
+    public static final int MAX_SIZE = 35 + 5 + 5;
+
+    private static final int BLACK_TO_MOVE = 1;
+    private static final int CASTLING_KNOWN = 2;
+    private static final int CASTLING_SHIFT = 2;
+
+    private GameSnapshot() {
+    }
+
+    public static byte[] encode(ChessGame game) {
+        byte[] output = new byte[MAX_SIZE];
+        return Arrays.copyOf(output, encode(game, output, 0));
+    }
+
+    /**
+     * Writes a game into output starting at offset, which needs room for
+     * MAX_SIZE bytes
+     *
+     * @return the offset after the snapshot
+     */
+    public static int encode(ChessGame game, byte[] output, int offset) {
+        BitBoard bits = game.board.bits;
+        output[offset++] = VERSION;
+        for (int square = 0; square < 64; square += 2) {
+            output[offset++] = (byte) ((bits.pieceAt(square) + 1) | ((bits.pieceAt(square + 1) + 1) << 4));
+        }
+        int flags = game.isWhiteTurn ? 0 : BLACK_TO_MOVE;
+        if (bits.castlingKnown()) {
+            flags |= CASTLING_KNOWN | (bits.castlingRights() << CASTLING_SHIFT);
+        }
+        output[offset++] = (byte) flags;
+        output[offset++] = (byte) Math.max(bits.enPassantSquare(), 0);
+        offset = writeVarint(game.halfmoveClock, output, offset);
+        return writeVarint(game.fullmoveNumber, output, offset);
+    }
+
+    public static ChessGame decode(byte[] input) {
+        ChessGame game = new ChessGame();
+        decode(input, 0, input.length, game);
+        return game;
+    }
+
+    /**
+     * Replaces the position of a game with a snapshot read from
+     * input[offset, offset + length), reusing the game's board
+     *
+     * @return the offset after the snapshot
+     * @throws IllegalArgumentException if the bytes are not a snapshot this version can read
+     */
+    public static int decode(byte[] input, int offset, int length, ChessGame game) {
+        int end = offset + length;
+        if (length < 37) {
+            throw new IllegalArgumentException("Snapshot is cut off at " + length + " bytes");
+        }
+        if (input[offset] != VERSION) {
+            throw new IllegalArgumentException("Unknown snapshot version " + input[offset]);
+        }
+        offset++;
+        BitBoard bits = game.board.bits;
+        bits.clear();
+        for (int square = 0; square < 64; square += 2) {
+            int pair = input[offset++] & 0xFF;
+            put(bits, square, pair & 15);
+            put(bits, square + 1, pair >>> 4);
+        }
+        int flags = input[offset++] & 0xFF;
+        if ((flags & CASTLING_KNOWN) != 0) {
+            bits.setCastlingRights(flags >>> CASTLING_SHIFT);
+        }
+        int enPassant = input[offset++] & 0xFF;
+        if (enPassant >= 64) {
+            throw new IllegalArgumentException("Invalid en passant square " + enPassant);
+        }
+        bits.setEnPassantSquare(enPassant == 0 ? -1 : enPassant);
+
+        long clocks = readVarint(input, offset, end);
+        offset = (int) (clocks >>> 32);
+        int halfmoveClock = (int) clocks;
+        clocks = readVarint(input, offset, end);
+        game.isWhiteTurn = (flags & BLACK_TO_MOVE) == 0;
+        game.halfmoveClock = halfmoveClock;
+        game.fullmoveNumber = (int) clocks;
+        return (int) (clocks >>> 32);
+    }
+
+    private static void put(BitBoard bits, int square, int nibble) {
+        if (nibble > 12) {
+            throw new IllegalArgumentException("Invalid piece " + nibble + " on square " + square);
+        }
+        if (nibble != 0) {
+            bits.put(square, nibble - 1);
+        }
+    }
+
+    /// VARINTS ///
+
+    private static int writeVarint(int value, byte[] output, int offset) {
+        while ((value & ~0x7F) != 0) {
+            output[offset++] = (byte) (value | 0x80);
+            value >>>= 7;
+        }
+        output[offset++] = (byte) value;
+        return offset;
+    }
+
+    //reads a varint at offset; returns the offset after it in the high half and the value in the low half
+    private static long readVarint(byte[] input, int offset, int end) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            if (offset >= end) {
+                throw new IllegalArgumentException("Snapshot is cut off in a move clock");
+            }
+            int b = input[offset++];
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return ((long) offset << 32) | (value & 0xFFFFFFFFL);
+            }
+        }
+        throw new IllegalArgumentException("Move clock is too long");
+    }
+}
@@ -0,0 +1,132 @@
+package chess;
+
+/**
+ * Moves packed into the low 16 bits of an int: the start square in bits
+ * 0-5, the end square in bits 6-11 and four flag bits on top. Move
+ * generation and search work on these; a {@link ChessMove} is only built
+ * when a move leaves the public API.
+ * <p>
+ * Flags follow the usual layout: bit 2 marks a capture, bit 3 a promotion,
+ * and the low two bits pick the promotion piece or the special move.
+ */
+public final class Move {
+
+    public static final int NONE = 0;
+
+    public static final int QUIET = 0;
+    public static final int DOUBLE_PAWN_PUSH = 1;
+    public static final int KING_CASTLE = 2;
+    public static final int QUEEN_CASTLE = 3;
+    public static final int CAPTURE = 4;
+    public static final int EN_PASSANT = 5;
+    public static final int PROMOTION = 8;
+    public static final int PROMOTION_CAPTURE = 12;
+
+    //BitBoard piece kinds chosen by the low two flag bits of a promotion
+    private static final int[] PROMOTION_KINDS = {BitBoard.KNIGHT, BitBoard.BISHOP, BitBoard.ROOK, BitBoard.QUEEN};
+    //and the reverse, indexed by BitBoard piece kind
+    private static final int[] PROMOTION_CODES = {-1, 3, 1, 0, 2, -1};
+
+    private static final ChessPiece.PieceType[] PIECE_TYPES = ChessPiece.PieceType.values();
+
+    private Move() {
+    }
+
+    public static int encode(int from, int to, int flags) {
+        return from | (to << 6) | (flags << 12);
+    }
+
+    //a promotion to a BitBoard piece kind, optionally capturing
+    public static int promotion(int from, int to, int kind, boolean capture) {
+        int flags = (capture ? PROMOTION_CAPTURE : PROMOTION) | PROMOTION_CODES[kind];
+        return encode(from, to, flags);
+    }
+
+    //queens, rooks, bishops and knights; the others have no promotion code
+    private static boolean canPromoteTo(int kind) {
+        return kind >= 0 && kind < PROMOTION_CODES.length && PROMOTION_CODES[kind] >= 0;
+    }
+
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    public static int flags(int move) {
+        return (move >>> 12) & 15;
+    }
+
+    public static boolean isCapture(int move) {
+        return (flags(move) & CAPTURE) != 0;
+    }
+
+    public static boolean isPromotion(int move) {
+        return (flags(move) & PROMOTION) != 0;
+    }
+
+    //the BitBoard kind a pawn promotes to, or BitBoard.NO_PIECE
+    public static int promotionKind(int move) {
+        return isPromotion(move) ? PROMOTION_KINDS[flags(move) & 3] : BitBoard.NO_PIECE;
+    }
+
+    //true if both moves go between the same squares with the same promotion, whatever their other flags
+    public static boolean sameAction(int a, int b) {
+        return (a & 0xFFF) == (b & 0xFFF) && promotionKind(a) == promotionKind(b);
+    }
+
+    /**
+     * Encodes a ChessMove against the board it is played on, which supplies
+     * the capture, castling, en passant and double push flags
+     *
+     * @return the packed move, or NONE for a promotion to a king or pawn, which no move list holds
+     */
+    public static int of(BitBoard bits, ChessMove move) {
+        int from = BitBoard.square(move.getStartPosition());
+        int to = BitBoard.square(move.getEndPosition());
+        boolean capture = bits.pieceAt(to) != BitBoard.NO_PIECE;
+        if (move.getPromotionPiece() != null) {
+            int kind = move.getPromotionPiece().ordinal();
+            return canPromoteTo(kind) ? promotion(from, to, kind, capture) : NONE;
+        }
+        int moved = bits.pieceAt(from);
+        int kind = moved == BitBoard.NO_PIECE ? BitBoard.NO_PIECE : BitBoard.kindOf(moved);
+        if (kind == BitBoard.KING && Math.abs(to - from) == 2) {
+            return encode(from, to, to > from ? KING_CASTLE : QUEEN_CASTLE);
+        }
+        if (kind == BitBoard.PAWN) {
+            if (!capture && ((from ^ to) & 7) != 0) {
+                return encode(from, to, EN_PASSANT);
+            }
+            if (Math.abs(to - from) == 16) {
+                return encode(from, to, DOUBLE_PAWN_PUSH);
+            }
+        }
+        return encode(from, to, capture ? CAPTURE : QUIET);
+    }
+
+    /**
+     * Encodes only the squares and promotion of a ChessMove, for storing a
+     * move without its board. The flags are left quiet apart from the
+     * promotion, so look the result up with {@link MoveList#find} or
+     * {@link #sameAction} before playing it. Like the board version, a
+     * promotion to a king or pawn gives NONE.
+     */
+    public static int of(ChessMove move) {
+        int from = BitBoard.square(move.getStartPosition());
+        int to = BitBoard.square(move.getEndPosition());
+        if (move.getPromotionPiece() != null) {
+            int kind = move.getPromotionPiece().ordinal();
+            return canPromoteTo(kind) ? promotion(from, to, kind, false) : NONE;
+        }
+        return encode(from, to, QUIET);
+    }
+
+    public static ChessMove toChessMove(int move) {
+        int kind = promotionKind(move);
+        return new ChessMove(ChessPosition.ofSquare(from(move)), ChessPosition.ofSquare(to(move)),
+                kind == BitBoard.NO_PIECE ? null : PIECE_TYPES[kind]);
+    }
+}
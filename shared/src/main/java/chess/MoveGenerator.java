@@ -0,0 +1,208 @@
+package chess;
+
+/**
+ * Generates only legal moves. Checking pieces and pinned pieces are worked
+ * out once per position; after that every piece's targets are masked down to
+ * the squares that resolve a check and, for pinned pieces, to the line they
+ * are pinned along, so no candidate move has to be tried on the board.
+ * Moves are written as packed {@link Move}s into a caller-owned
+ * {@link MoveList}, so generating a position's moves allocates nothing.
+ * <p>
+ * Castling and en passant are the exceptions to the masks: castling checks
+ * the squares the king crosses, and an en passant capture, which takes two
+ * pieces off one rank at once, is tested against the king directly.
+ */
+public final class MoveGenerator {
+
+    private static final long PROMOTION_RANKS = Attacks.RANK_1 | Attacks.RANK_8;
+
+    private static final int[] PROMOTIONS = {BitBoard.QUEEN, BitBoard.ROOK, BitBoard.BISHOP, BitBoard.KNIGHT};
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Adds every legal move of a color's pieces standing on fromMask to output
+     *
+     * @param fromMask squares to generate moves for, -1L for every piece
+     */
+    public static void generateLegal(BitBoard bits, int us, long fromMask, MoveList output) {
+        int them = 1 - us;
+        long occupied = bits.occupied();
+        long own = bits.occupancy(us);
+        long enemy = bits.occupancy(them);
+        int king = bits.kingSquare(us);
+
+        long checkMask = -1L;
+        long pinned = 0;
+        if (king >= 0) {
+            long checkers = bits.attackersTo(king, them, occupied);
+            if ((fromMask & (1L << king)) != 0) {
+                addKingMoves(bits, king, them, own, occupied, output);
+            }
+            //with two pieces giving check only the king can move
+            if (Long.bitCount(checkers) > 1) {
+                return;
+            }
+            if (checkers != 0) {
+                checkMask = checkers | Attacks.between(king, Long.numberOfTrailingZeros(checkers));
+            } else if ((fromMask & (1L << king)) != 0) {
+                addCastles(bits, king, us, them, occupied, output);
+            }
+            pinned = pinnedPieces(bits, king, us, them, own);
+        }
+
+        long pieces = own & fromMask;
+        if (king >= 0) {
+            pieces &= ~(1L << king);
+        }
+        while (pieces != 0) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            int kind = BitBoard.kindOf(bits.pieceAt(from));
+            long allowed = checkMask;
+            if ((pinned & (1L << from)) != 0) {
+                allowed &= Attacks.line(king, from);
+            }
+            if (kind == BitBoard.PAWN) {
+                addPawnMoves(from, us, occupied, enemy, allowed, output);
+            } else {
+                long targets = pieceAttacks(kind, from, occupied) & ~own & allowed;
+                addMoves(from, targets & enemy, Move.CAPTURE, output);
+                addMoves(from, targets & ~enemy, Move.QUIET, output);
+            }
+        }
+
+        int enPassant = bits.enPassantSquare();
+        if (enPassant >= 0 && BitBoard.row(enPassant) == (us == BitBoard.WHITE ? 6 : 3)) {
+            addEnPassant(bits, king, us, them, enPassant, fromMask, output);
+        }
+    }
+
+    //our pieces standing alone between our king and an enemy slider aimed at it
+    private static long pinnedPieces(BitBoard bits, int king, int us, int them, long own) {
+        long enemy = bits.occupancy(them);
+        long queens = bits.pieces(them, BitBoard.QUEEN);
+        //look through our own pieces for enemy sliders on the king's lines
+        long snipers = (Attacks.rook(king, enemy) & (bits.pieces(them, BitBoard.ROOK) | queens))
+                | (Attacks.bishop(king, enemy) & (bits.pieces(them, BitBoard.BISHOP) | queens));
+        long pinned = 0;
+        while (snipers != 0) {
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+            long blockers = Attacks.between(king, sniper) & bits.occupied();
+            if (Long.bitCount(blockers) == 1 && (blockers & own) != 0) {
+                pinned |= blockers;
+            }
+        }
+        return pinned;
+    }
+
+    private static void addKingMoves(BitBoard bits, int king, int them, long own, long occupied,
+                                     MoveList output) {
+        long targets = Attacks.king(king) & ~own;
+        //the king must not hide behind itself from a slider, so take it off the board for the test
+        long withoutKing = occupied & ~(1L << king);
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            if (bits.attackersTo(to, them, withoutKing) == 0) {
+                output.add(Move.encode(king, to, (bits.occupancy(them) & (1L << to)) != 0 ? Move.CAPTURE : Move.QUIET));
+            }
+        }
+    }
+
+    //castles for a king that is not in check, with an empty path to its rook and no attacked square to cross
+    private static void addCastles(BitBoard bits, int king, int us, int them, long occupied, MoveList output) {
+        int home = us == BitBoard.WHITE ? 4 : 60;
+        int rights = (bits.castlingRights() >>> (us * 2)) & 3;
+        if (king != home || rights == 0) {
+            return;
+        }
+        int rook = BitBoard.pieceIndex(us, BitBoard.ROOK);
+        if ((rights & 1) != 0 && bits.pieceAt(home + 3) == rook && (Attacks.between(home, home + 3) & occupied) == 0
+                && !bits.isSquareAttacked(home + 1, them) && !bits.isSquareAttacked(home + 2, them)) {
+            output.add(Move.encode(home, home + 2, Move.KING_CASTLE));
+        }
+        if ((rights & 2) != 0 && bits.pieceAt(home - 4) == rook && (Attacks.between(home, home - 4) & occupied) == 0
+                && !bits.isSquareAttacked(home - 1, them) && !bits.isSquareAttacked(home - 2, them)) {
+            output.add(Move.encode(home, home - 2, Move.QUEEN_CASTLE));
+        }
+    }
+
+    /**
+     * Adds en passant captures onto target. Both pawns leave the same rank,
+     * which can uncover a slider no pin mask knows about, so each capture is
+     * played out on the occupancy and the king tested
+     */
+    private static void addEnPassant(BitBoard bits, int king, int us, int them, int target, long fromMask,
+                                     MoveList output) {
+        int victim = target ^ 8;
+        if (bits.pieceAt(victim) != BitBoard.pieceIndex(them, BitBoard.PAWN)) {
+            return;
+        }
+        long capturers = Attacks.pawn(them, target) & bits.pieces(us, BitBoard.PAWN) & fromMask;
+        while (capturers != 0) {
+            int from = Long.numberOfTrailingZeros(capturers);
+            capturers &= capturers - 1;
+            long after = (bits.occupied() ^ (1L << from) ^ (1L << victim)) | (1L << target);
+            if (king < 0 || (bits.attackersTo(king, them, after) & ~(1L << victim)) == 0) {
+                output.add(Move.encode(from, target, Move.EN_PASSANT));
+            }
+        }
+    }
+
+    private static void addPawnMoves(int from, int us, long occupied, long enemy, long allowed,
+                                     MoveList output) {
+        long bit = 1L << from;
+        long empty = ~occupied;
+        long single;
+        long doubles;
+        if (us == BitBoard.WHITE) {
+            single = (bit << 8) & empty;
+            doubles = ((single & Attacks.RANK_3) << 8) & empty;
+        } else {
+            single = (bit >>> 8) & empty;
+            doubles = ((single & Attacks.RANK_6) >>> 8) & empty;
+        }
+        long captures = Attacks.pawn(us, from) & enemy & allowed;
+        single &= allowed;
+        doubles &= allowed;
+        if (((single | captures) & PROMOTION_RANKS) != 0) {
+            addPromotions(from, single, false, output);
+            addPromotions(from, captures, true, output);
+            return;
+        }
+        addMoves(from, single, Move.QUIET, output);
+        addMoves(from, doubles, Move.DOUBLE_PAWN_PUSH, output);
+        addMoves(from, captures, Move.CAPTURE, output);
+    }
+
+    private static void addPromotions(int from, long targets, boolean capture, MoveList output) {
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            for (int kind : PROMOTIONS) {
+                output.add(Move.promotion(from, to, kind, capture));
+            }
+        }
+    }
+
+    private static long pieceAttacks(int kind, int from, long occupied) {
+        return switch (kind) {
+            case BitBoard.KNIGHT -> Attacks.knight(from);
+            case BitBoard.BISHOP -> Attacks.bishop(from, occupied);
+            case BitBoard.ROOK -> Attacks.rook(from, occupied);
+            case BitBoard.QUEEN -> Attacks.queen(from, occupied);
+            default -> Attacks.king(from);
+        };
+    }
+
+    private static void addMoves(int from, long targets, int flags, MoveList output) {
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            output.add(Move.encode(from, to, flags));
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * A reusable buffer of packed {@link Move}s. Generators append to it, so one
+ * list per ply can be cleared and refilled without allocating.
+ */
+public final class MoveList {
+
+    //no legal chess position has more than 218 moves, but boards built with addPiece can, so the list grows past it
+    public static final int CAPACITY = 256;
+
+    private int[] moves = new int[CAPACITY];
+    private int size;
+
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, moves.length * 2);
+        }
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    //first move going between the same squares with the same promotion as move, or Move.NONE
+    public int find(int move) {
+        for (int i = 0; i < size; i++) {
+            if (Move.sameAction(moves[i], move)) {
+                return moves[i];
+            }
+        }
+        return Move.NONE;
+    }
+}
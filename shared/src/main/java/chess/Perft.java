@@ -0,0 +1,187 @@
+package chess;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth ("perft").
+ * Known counts for standard positions make this both a regression check for
+ * move generation and a throughput benchmark.
+ * <p>
+ * Positions are read from EPD lines such as
+ * {@code <fen> ;D1 20 ;D2 400}. Run from the command line with
+ * {@code chess.Perft [maxDepth] [epdFile]} to print node counts and
+ * nodes/sec for every position, or {@code chess.Perft divide <depth> <fen>}
+ * to print the count below each root move.
+ */
+public final class Perft {
+
+    public static final String DEFAULT_SUITE = "perft.epd";
+
+    /**
+     * A position from a perft suite and its known node counts
+     *
+     * @param expected expected[d - 1] is the node count at depth d
+     */
+    public record Entry(String fen, long[] expected) {
+        public int maxDepth() {
+            return expected.length;
+        }
+    }
+
+    private Perft() {
+    }
+
+    /**
+     * Counts the positions reachable in exactly depth moves from the current
+     * position of a game, with the team whose turn it is moving first
+     */
+    public static long perft(ChessGame game, int depth) {
+        BitBoard bits = new BitBoard(game.getBoard().bits);
+        return perft(bits, BitBoard.colorIndex(game.getTeamTurn()), depth, newPlies(depth), 0);
+    }
+
+    /**
+     * Splits a perft count by root move, which is how a wrong count is
+     * narrowed down to the move generating it
+     */
+    public static Map<ChessMove, Long> divide(ChessGame game, int depth) {
+        BitBoard bits = new BitBoard(game.getBoard().bits);
+        int color = BitBoard.colorIndex(game.getTeamTurn());
+        MoveList[] plies = newPlies(depth);
+        MoveList moves = plies[0];
+        MoveGenerator.generateLegal(bits, color, -1L, moves);
+        Map<ChessMove, Long> output = new LinkedHashMap<>();
+        for (int i = 0; i < moves.size(); i++) {
+            bits.makeMove(moves.get(i));
+            output.put(Move.toChessMove(moves.get(i)), depth <= 1 ? 1 : perft(bits, 1 - color, depth - 1, plies, 1));
+            bits.unmakeMove();
+        }
+        return output;
+    }
+
+    //walks the tree with one preallocated move list per ply, so counting allocates nothing
+    private static long perft(BitBoard bits, int color, int depth, MoveList[] plies, int ply) {
+        if (depth == 0) {
+            return 1;
+        }
+        MoveList moves = plies[ply];
+        moves.clear();
+        MoveGenerator.generateLegal(bits, color, -1L, moves);
+        //every legal move at the last ply is a leaf, so there is no need to make it
+        if (depth == 1) {
+            return moves.size();
+        }
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            bits.makeMove(moves.get(i));
+            nodes += perft(bits, 1 - color, depth - 1, plies, ply + 1);
+            bits.unmakeMove();
+        }
+        return nodes;
+    }
+
+    private static MoveList[] newPlies(int depth) {
+        MoveList[] plies = new MoveList[Math.max(depth, 1)];
+        for (int i = 0; i < plies.length; i++) {
+            plies[i] = new MoveList();
+        }
+        return plies;
+    }
+
+    /// SUITE LOADING ///
+
+    //loads a suite bundled on the classpath
+    public static List<Entry> loadSuite(String resource) throws IOException {
+        try (InputStream stream = Perft.class.getClassLoader().getResourceAsStream(resource)) {
+            if (stream == null) {
+                throw new IOException("Unable to load " + resource);
+            }
+            return readSuite(new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8)));
+        }
+    }
+
+    public static List<Entry> loadSuite(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            return readSuite(reader);
+        }
+    }
+
+    private static List<Entry> readSuite(BufferedReader reader) throws IOException {
+        List<Entry> suite = new ArrayList<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split(";");
+            long[] expected = new long[fields.length - 1];
+            for (int i = 1; i < fields.length; i++) {
+                String[] depthAndCount = fields[i].trim().split("\\s+");
+                expected[Integer.parseInt(depthAndCount[0].substring(1)) - 1] = Long.parseLong(depthAndCount[1]);
+            }
+            suite.add(new Entry(fields[0].trim(), expected));
+        }
+        return suite;
+    }
+
+    /// COMMAND LINE ///
+
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 3 && args[0].equals("divide")) {
+            runDivide(Integer.parseInt(args[1]), String.join(" ", List.of(args).subList(2, args.length)));
+            return;
+        }
+        int maxDepth = args.length >= 1 ? Integer.parseInt(args[0]) : 5;
+        List<Entry> suite = args.length >= 2 ? loadSuite(Path.of(args[1])) : loadSuite(DEFAULT_SUITE);
+        long totalNodes = 0;
+        long totalNanos = 0;
+        int failures = 0;
+        for (Entry entry : suite) {
+            System.out.println(entry.fen());
+            ChessGame game = ChessGame.fromFen(entry.fen());
+            for (int depth = 1; depth <= Math.min(maxDepth, entry.maxDepth()); depth++) {
+                long start = System.nanoTime();
+                long nodes = perft(game, depth);
+                long nanos = System.nanoTime() - start;
+                totalNodes += nodes;
+                totalNanos += nanos;
+                boolean matches = nodes == entry.expected()[depth - 1];
+                if (!matches) {
+                    failures++;
+                }
+                System.out.printf("  depth %d: %,d nodes in %,d ms (%,d nodes/sec)%s%n", depth, nodes,
+                        nanos / 1_000_000, nodesPerSecond(nodes, nanos),
+                        matches ? "" : " MISMATCH, expected " + entry.expected()[depth - 1]);
+            }
+        }
+        System.out.printf("Total: %,d nodes in %,d ms (%,d nodes/sec), %d mismatches%n", totalNodes,
+                totalNanos / 1_000_000, nodesPerSecond(totalNodes, totalNanos), failures);
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void runDivide(int depth, String fen) {
+        long total = 0;
+        for (Map.Entry<ChessMove, Long> entry : divide(ChessGame.fromFen(fen), depth).entrySet()) {
+            System.out.printf("%s: %d%n", entry.getKey(), entry.getValue());
+            total += entry.getValue();
+        }
+        System.out.printf("Total: %d%n", total);
+    }
+
+    private static long nodesPerSecond(long nodes, long nanos) {
+        return nanos == 0 ? 0 : nodes * 1_000_000_000L / nanos;
+    }
+}
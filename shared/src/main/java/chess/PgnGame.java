@@ -0,0 +1,36 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One game read by {@link PgnReader}: its tag pairs, the moves as packed
+ * {@link Move}s, the result and the game in its final position.
+ *
+ * @param tags   tag pairs in the order they were written, e.g. White, Black, Event
+ * @param moves  every move that was played, as packed moves
+ * @param result "1-0", "0-1", "1/2-1/2" or "*"
+ * @param game   the position after the last move
+ * @param error  why the movetext stopped making sense, or null if every move was legal;
+ *               moves and game then stop before the bad move
+ */
+public record PgnGame(Map<String, String> tags, int[] moves, String result, ChessGame game, String error) {
+
+    //a tag value, or null if the game has no such tag
+    public String tag(String name) {
+        return tags.get(name);
+    }
+
+    public boolean isValid() {
+        return error == null;
+    }
+
+    public List<ChessMove> chessMoves() {
+        List<ChessMove> output = new ArrayList<>(moves.length);
+        for (int move : moves) {
+            output.add(Move.toChessMove(move));
+        }
+        return output;
+    }
+}
@@ -0,0 +1,342 @@
+package chess;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads games one at a time from a stream of Portable Game Notation, so an
+ * archive of any size can be imported with only one game in memory.
+ * <p>
+ * Bytes are pulled from a channel through a fixed buffer and tokenized in a
+ * single pass. Every SAN move is resolved against the legal moves of the
+ * position and played straight onto the game's bitboards; comments,
+ * variations, NAGs and move numbers are skipped. A {@code FEN} tag sets the
+ * starting position. A game with a move that is not legal is still returned,
+ * cut off before that move and carrying the reason, and reading goes on with
+ * the next game.
+ * <p>
+ * Run from the command line with {@code chess.PgnReader <file.pgn>} to read a
+ * whole file and print games/sec.
+ */
+public final class PgnReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final byte[] bytes = buffer.array();
+    private int position;
+    private int limit;
+    private boolean endOfInput;
+    //a byte read one too far, or -1
+    private int pushedBack = -1;
+    //the last byte read, and whether it started a line, since a '%' escape only counts there
+    private int previous = '\n';
+    private boolean lineStart = true;
+
+    //reused for every token and tag value
+    private final StringBuilder token = new StringBuilder(32);
+    private byte[] text = new byte[256];
+    private final MoveList scratch = new MoveList();
+    private int[] moves = new int[256];
+
+    private long games;
+    private long bytesRead;
+
+    public PgnReader(ReadableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    public static PgnReader open(Path file) throws IOException {
+        return new PgnReader(FileChannel.open(file, StandardOpenOption.READ));
+    }
+
+    public static PgnReader of(String pgn) {
+        return new PgnReader(Channels.newChannel(new ByteArrayInputStream(pgn.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    //games returned so far
+    public long games() {
+        return games;
+    }
+
+    public long bytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * Reads the next game
+     *
+     * @return the game, or null at the end of the input
+     */
+    public PgnGame next() throws IOException {
+        Map<String, String> tags = new LinkedHashMap<>();
+        ChessGame game = new ChessGame();
+        int moveCount = 0;
+        String error = null;
+        boolean started = false;
+        boolean inMoves = false;
+
+        int c;
+        while ((c = read()) >= 0) {
+            if (c <= ' ') {
+                continue;
+            }
+            switch (c) {
+                case '[' -> {
+                    //a tag after movetext without a result starts the next game
+                    if (inMoves) {
+                        pushedBack = c;
+                        return finish(tags, moveCount, "*", game, error);
+                    }
+                    error = readTag(tags, game, error);
+                    started = true;
+                }
+                case '{' -> skipComment();
+                case ';' -> skipLine();
+                case '(' -> skipVariation();
+                case ')' -> {
+                }
+                case '%' -> {
+                    if (lineStart) {
+                        skipLine();
+                    }
+                }
+                default -> {
+                    readToken(c);
+                    started = true;
+                    inMoves = true;
+                    String result = result(token);
+                    if (result != null) {
+                        return finish(tags, moveCount, result, game, error);
+                    }
+                    if (error != null || c == '$') {
+                        continue;
+                    }
+                    //move numbers such as "12." or "12..." may be glued to the move after them; digits with no
+                    //dots after them belong to the move itself, as in 0-0
+                    int digits = 0;
+                    while (digits < token.length() && Character.isDigit(token.charAt(digits))) {
+                        digits++;
+                    }
+                    int start = digits;
+                    while (start < token.length() && token.charAt(start) == '.') {
+                        start++;
+                    }
+                    if (start == digits && digits < token.length()) {
+                        start = 0;
+                    }
+                    if (start == token.length()) {
+                        continue;
+                    }
+                    int us = game.isWhiteTurn ? BitBoard.WHITE : BitBoard.BLACK;
+                    int move = San.decode(game.board.bits, us, token, start, token.length(), scratch);
+                    if (move == Move.NONE) {
+                        error = "illegal or ambiguous move " + token.substring(start) + " at ply " + (moveCount + 1);
+                        continue;
+                    }
+                    game.playMove(move);
+                    if (moveCount == moves.length) {
+                        moves = Arrays.copyOf(moves, moves.length * 2);
+                    }
+                    moves[moveCount++] = move;
+                }
+            }
+        }
+        return started ? finish(tags, moveCount, "*", game, error) : null;
+    }
+
+    private PgnGame finish(Map<String, String> tags, int moveCount, String result, ChessGame game, String error) {
+        games++;
+        return new PgnGame(tags, Arrays.copyOf(moves, moveCount), result, game, error);
+    }
+
+    private static String result(CharSequence token) {
+        return switch (token.length()) {
+            case 1 -> token.charAt(0) == '*' ? "*" : null;
+            case 3 -> matches(token, "1-0") ? "1-0" : matches(token, "0-1") ? "0-1" : null;
+            case 7 -> matches(token, "1/2-1/2") ? "1/2-1/2" : null;
+            default -> null;
+        };
+    }
+
+    private static boolean matches(CharSequence token, String expected) {
+        for (int i = 0; i < expected.length(); i++) {
+            if (token.charAt(i) != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /// TOKENS ///
+
+    //reads a movetext token starting with first into token
+    private void readToken(int first) throws IOException {
+        token.setLength(0);
+        token.append((char) first);
+        int c;
+        while ((c = read()) > ' ' && c != '{' && c != '(' && c != ')' && c != ';' && c != '[') {
+            token.append((char) c);
+        }
+        if (c > ' ') {
+            pushedBack = c;
+        }
+    }
+
+    //reads a tag pair after its '[', applying a FEN tag to the game; returns the game's error so far
+    private String readTag(Map<String, String> tags, ChessGame game, String error) throws IOException {
+        int c = skipSpaces();
+        token.setLength(0);
+        while (c > ' ' && c != '"' && c != ']') {
+            token.append((char) c);
+            c = read();
+        }
+        String name = token.toString();
+        while (c >= 0 && c != '"' && c != ']') {
+            c = read();
+        }
+        int length = 0;
+        if (c == '"') {
+            while ((c = read()) >= 0 && c != '"') {
+                if (c == '\\') {
+                    c = read();
+                }
+                if (length == text.length) {
+                    text = Arrays.copyOf(text, length * 2);
+                }
+                text[length++] = (byte) c;
+            }
+            while (c >= 0 && c != ']') {
+                c = read();
+            }
+        }
+        String value = new String(text, 0, length, StandardCharsets.UTF_8);
+        tags.put(name, value);
+        if (name.equals("FEN") && error == null) {
+            try {
+                game.loadFen(value);
+            } catch (IllegalArgumentException e) {
+                return e.getMessage();
+            }
+        }
+        return error;
+    }
+
+    private int skipSpaces() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c >= 0 && c <= ' ');
+        return c;
+    }
+
+    private void skipComment() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c >= 0 && c != '}');
+    }
+
+    private void skipLine() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c >= 0 && c != '\n');
+    }
+
+    //skips a variation after its '(', including any nested variations and comments
+    private void skipVariation() throws IOException {
+        int depth = 1;
+        int c;
+        while (depth > 0 && (c = read()) >= 0) {
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == '{') {
+                skipComment();
+            } else if (c == ';') {
+                skipLine();
+            }
+        }
+    }
+
+    /// INPUT ///
+
+    //next byte, or -1 at the end of the input
+    private int read() throws IOException {
+        int c = pushedBack;
+        if (c >= 0) {
+            pushedBack = -1;
+            return c;
+        }
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        c = bytes[position++] & 0xFF;
+        lineStart = previous == '\n';
+        previous = c;
+        return c;
+    }
+
+    private boolean fill() throws IOException {
+        if (endOfInput) {
+            return false;
+        }
+        buffer.clear();
+        int n;
+        do {
+            n = channel.read(buffer);
+        } while (n == 0);
+        if (n < 0) {
+            endOfInput = true;
+            return false;
+        }
+        position = 0;
+        limit = n;
+        bytesRead += n;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /// COMMAND LINE ///
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: chess.PgnReader <file.pgn>");
+            System.exit(2);
+        }
+        long start = System.nanoTime();
+        long moveCount = 0;
+        long invalid = 0;
+        try (PgnReader reader = open(Path.of(args[0]))) {
+            PgnGame game;
+            while ((game = reader.next()) != null) {
+                moveCount += game.moves().length;
+                if (!game.isValid()) {
+                    invalid++;
+                }
+            }
+            long nanos = Math.max(System.nanoTime() - start, 1);
+            System.out.printf("%,d games (%,d invalid), %,d moves, %,d MB in %,d ms: %,d games/sec%n",
+                    reader.games(), invalid, moveCount, reader.bytesRead() >> 20, nanos / 1_000_000,
+                    reader.games() * 1_000_000_000L / nanos);
+        }
+    }
+}
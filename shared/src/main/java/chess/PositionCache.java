@@ -0,0 +1,212 @@
+package chess;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, lock-free cache of legal move lists keyed by Zobrist position
+ * key, shared by every game so the same position is only generated once.
+ * <p>
+ * Entries live in one preallocated {@code long[]}. Every entry starts with
+ * a check word hashing the key together with all of the entry's other
+ * words, so a reader that races a writer sees a mismatching check word and
+ * treats the entry as a miss instead of returning a torn move list. Entries are
+ * grouped into two-slot buckets: a store reuses the slot already holding
+ * its key, then an empty slot, then whichever slot was written in the
+ * oldest generation.
+ * <p>
+ * A slot holds at most {@link #MAX_MOVES} moves. Positions with more are
+ * rare in play, so they are not stored and are generated on every probe;
+ * {@link #skipped()} counts the stores turned away, next to the hit and
+ * miss counters, so a workload where the cutoff matters shows up there.
+ */
+public final class PositionCache {
+
+    public static final int DEFAULT_ENTRIES = 1 << 14;
+
+    //returned by probe when the position is not cached
+    public static final int MISS = -1;
+    //status bit returned by probe when the side to move is in check
+    public static final int IN_CHECK = 1;
+
+    //positions with more legal moves than this are not cached, and counted by skipped()
+    public static final int MAX_MOVES = 64;
+
+    private static final int MOVES_PER_WORD = 4;
+    private static final int DATA_WORDS = MAX_MOVES / MOVES_PER_WORD;
+    //check word, meta word, then the packed moves
+    private static final int SLOT_WORDS = 2 + DATA_WORDS;
+    private static final int WAYS = 2;
+
+    //meta word layout: move count, status bits, generation the entry was written in
+    private static final int STATUS_SHIFT = 8;
+    private static final int GENERATION_SHIFT = 16;
+    private static final long USED = 1L << 63;
+
+    private static final long MIX = 0x9E3779B97F4A7C15L;
+
+    private final long[] table;
+    private final int bucketMask;
+    private final AtomicLong stores = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+
+    /**
+     * @param entries how many positions the cache can hold, rounded up to a power of two
+     */
+    public PositionCache(int entries) {
+        if (entries < WAYS) {
+            throw new IllegalArgumentException("cache needs room for at least " + WAYS + " entries");
+        }
+        int buckets = Integer.highestOneBit(entries - 1) * 2 / WAYS;
+        bucketMask = buckets - 1;
+        table = new long[buckets * WAYS * SLOT_WORDS];
+    }
+
+    /**
+     * Copies the cached legal moves of a position into output
+     *
+     * @return the position's status bits, or MISS if it is not cached
+     */
+    public int probe(long key, MoveList output) {
+        int bucket = bucketOffset(key);
+        for (int way = 0; way < WAYS; way++) {
+            int slot = bucket + way * SLOT_WORDS;
+            long meta = table[slot + 1];
+            if (meta == 0) {
+                continue;
+            }
+            int count = (int) (meta & 0xFF);
+            long check = mix(key, meta);
+            output.clear();
+            for (int word = 0; word < DATA_WORDS; word++) {
+                long data = table[slot + 2 + word];
+                check = mix(check, data);
+                for (int i = 0; i < MOVES_PER_WORD && output.size() < count; i++) {
+                    output.add((int) ((data >>> (i * 16)) & 0xFFFF));
+                }
+            }
+            if (check == table[slot]) {
+                hits.increment();
+                return (int) ((meta >>> STATUS_SHIFT) & 0xFF);
+            }
+        }
+        output.clear();
+        misses.increment();
+        return MISS;
+    }
+
+    /**
+     * Caches the legal moves of a position; positions with more than
+     * MAX_MOVES moves are skipped and counted
+     *
+     * @param status status bits to hand back from probe, such as IN_CHECK
+     */
+    public void store(long key, MoveList moves, int status) {
+        int count = moves.size();
+        if (count > MAX_MOVES) {
+            skipped.increment();
+            return;
+        }
+        long generation = (stores.getAndIncrement() / (bucketMask + 1)) & 0xFFFF;
+        long meta = USED | (generation << GENERATION_SHIFT) | ((long) status << STATUS_SHIFT) | count;
+        int slot = victim(bucketOffset(key), key, generation);
+        long check = mix(key, meta);
+        int next = 0;
+        for (int word = 0; word < DATA_WORDS; word++) {
+            long data = 0;
+            for (int i = 0; i < MOVES_PER_WORD && next < count; i++) {
+                data |= (long) (moves.get(next++) & 0xFFFF) << (i * 16);
+            }
+            table[slot + 2 + word] = data;
+            check = mix(check, data);
+        }
+        table[slot + 1] = meta;
+        table[slot] = check;
+    }
+
+    //picks the slot of a bucket to overwrite: the same position, an empty slot, then the oldest entry
+    private int victim(int bucket, long key, long generation) {
+        int oldest = bucket;
+        long oldestAge = -1;
+        for (int way = 0; way < WAYS; way++) {
+            int slot = bucket + way * SLOT_WORDS;
+            long meta = table[slot + 1];
+            if (meta == 0 || holds(slot, key)) {
+                return slot;
+            }
+            long age = (generation - ((meta >>> GENERATION_SHIFT) & 0xFFFF)) & 0xFFFF;
+            if (age > oldestAge) {
+                oldest = slot;
+                oldestAge = age;
+            }
+        }
+        return oldest;
+    }
+
+    private boolean holds(int slot, long key) {
+        long check = key;
+        for (int word = 1; word < SLOT_WORDS; word++) {
+            check = mix(check, table[slot + word]);
+        }
+        return check == table[slot];
+    }
+
+    //folds a word into the check; a plain XOR would let words swapped between two entries cancel out
+    private static long mix(long check, long word) {
+        long h = (check ^ word) * MIX;
+        return h ^ (h >>> 29);
+    }
+
+    private int bucketOffset(long key) {
+        //the low bits pick the bucket; the check word covers the whole key
+        return (int) (key & bucketMask) * WAYS * SLOT_WORDS;
+    }
+
+    /// MONITORING ///
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long stores() {
+        return stores.get();
+    }
+
+    //stores turned away for having more than MAX_MOVES moves; each such position also misses on every probe
+    public long skipped() {
+        return skipped.sum();
+    }
+
+    public double hitRate() {
+        long hits = hits();
+        long total = hits + misses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    //number of positions the cache can hold
+    public int capacity() {
+        return (bucketMask + 1) * WAYS;
+    }
+
+    //empties the cache and resets its counters; not safe to call while other threads use it
+    public void clear() {
+        Arrays.fill(table, 0);
+        stores.set(0);
+        hits.reset();
+        misses.reset();
+        skipped.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PositionCache{capacity=%d, hits=%d, misses=%d, stores=%d, skipped=%d, hitRate=%.3f}",
+                capacity(), hits(), misses(), stores(), skipped(), hitRate());
+    }
+}
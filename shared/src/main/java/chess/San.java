@@ -0,0 +1,229 @@
+package chess;
+
+/**
+ * Standard Algebraic Notation, the move format of PGN: {@code e4},
+ * {@code Nbd7}, {@code exd5}, {@code e8=Q+}, {@code O-O-O}. A SAN move only
+ * names the piece kind and the target square, plus just enough of the start
+ * square to tell candidates apart, so it is resolved against the legal moves
+ * of the position it is played in, and written by looking at the other
+ * legal moves that reach the same square.
+ */
+public final class San {
+
+    //uppercase letter of each BitBoard piece kind
+    private static final char[] KIND_LETTERS = {'K', 'Q', 'B', 'N', 'R', 'P'};
+
+    private San() {
+    }
+
+    /**
+     * Appends the SAN of a legal move: the piece letter, as much of the start
+     * square as the other legal moves to the same square make necessary, the
+     * target, any promotion and a {@code +} or {@code #} suffix.
+     *
+     * @param bits    the position the move is played in, which is left as it was
+     * @param us      the color to move
+     * @param move    a legal packed move
+     * @param scratch a move list this call may overwrite
+     */
+    public static StringBuilder encode(BitBoard bits, int us, int move, MoveList scratch, StringBuilder output) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int flags = Move.flags(move);
+        if (flags == Move.KING_CASTLE) {
+            output.append("O-O");
+        } else if (flags == Move.QUEEN_CASTLE) {
+            output.append("O-O-O");
+        } else {
+            int kind = BitBoard.kindOf(bits.pieceAt(from));
+            if (kind == BitBoard.PAWN) {
+                if (Move.isCapture(move)) {
+                    output.append((char) ('a' + (from & 7)));
+                }
+            } else {
+                output.append(KIND_LETTERS[kind]);
+                disambiguate(bits, us, kind, from, to, scratch, output);
+            }
+            if (Move.isCapture(move)) {
+                output.append('x');
+            }
+            output.append(Uci.SQUARE_NAMES[to]);
+            int promotion = Move.promotionKind(move);
+            if (promotion != BitBoard.NO_PIECE) {
+                output.append('=').append(KIND_LETTERS[promotion]);
+            }
+        }
+        return appendCheck(bits, us, move, scratch, output);
+    }
+
+    public static String encode(BitBoard bits, int us, int move, MoveList scratch) {
+        return encode(bits, us, move, scratch, new StringBuilder(8)).toString();
+    }
+
+    //adds the start file, rank or both when another piece of the same kind can also reach the target
+    private static void disambiguate(BitBoard bits, int us, int kind, int from, int to, MoveList scratch,
+                                     StringBuilder output) {
+        long others = bits.pieces(us, kind) & ~(1L << from);
+        if (others == 0) {
+            return;
+        }
+        scratch.clear();
+        MoveGenerator.generateLegal(bits, us, others, scratch);
+        boolean ambiguous = false;
+        boolean sameFile = false;
+        boolean sameRank = false;
+        for (int i = 0; i < scratch.size(); i++) {
+            int other = Move.from(scratch.get(i));
+            if (Move.to(scratch.get(i)) == to) {
+                ambiguous = true;
+                sameFile |= (other & 7) == (from & 7);
+                sameRank |= (other >>> 3) == (from >>> 3);
+            }
+        }
+        if (!ambiguous) {
+            return;
+        }
+        if (!sameFile) {
+            output.append((char) ('a' + (from & 7)));
+        } else if (!sameRank) {
+            output.append((char) ('1' + (from >>> 3)));
+        } else {
+            output.append(Uci.SQUARE_NAMES[from]);
+        }
+    }
+
+    //plays the move to see whether it gives check or mate, then takes it back
+    private static StringBuilder appendCheck(BitBoard bits, int us, int move, MoveList scratch, StringBuilder output) {
+        int them = 1 - us;
+        bits.makeMove(move);
+        if (bits.isInCheck(them)) {
+            scratch.clear();
+            MoveGenerator.generateLegal(bits, them, -1L, scratch);
+            output.append(scratch.isEmpty() ? '#' : '+');
+        }
+        bits.unmakeMove();
+        return output;
+    }
+
+    /**
+     * Finds the legal move a SAN move stands for. Check marks and annotations
+     * such as {@code +}, {@code #}, {@code !?} are ignored.
+     *
+     * @param bits    the position the move is played in
+     * @param us      the color to move
+     * @param text    holds the move in text[start, end)
+     * @param scratch a move list this call may overwrite
+     * @return the packed move, or Move.NONE if the text names no legal move or more than one
+     */
+    public static int decode(BitBoard bits, int us, CharSequence text, int start, int end, MoveList scratch) {
+        while (end > start && isSuffix(text.charAt(end - 1))) {
+            end--;
+        }
+        if (end - start < 2) {
+            return Move.NONE;
+        }
+        scratch.clear();
+        char first = text.charAt(start);
+        if (first == 'O' || first == '0') {
+            return decodeCastle(bits, us, text, start, end, scratch);
+        }
+
+        int kind = pieceKind(first);
+        if (kind == BitBoard.NO_PIECE) {
+            kind = BitBoard.PAWN;
+        } else {
+            start++;
+        }
+        int promotion = BitBoard.NO_PIECE;
+        int promotionKind = pieceKind(text.charAt(end - 1));
+        if (kind == BitBoard.PAWN && promotionKind != BitBoard.NO_PIECE) {
+            promotion = promotionKind;
+            end--;
+            if (end > start && text.charAt(end - 1) == '=') {
+                end--;
+            }
+        }
+        if (end - start < 2) {
+            return Move.NONE;
+        }
+        int to = square(text.charAt(end - 2), text.charAt(end - 1));
+        if (to < 0) {
+            return Move.NONE;
+        }
+        //whatever sits between the piece letter and the target is a start file and/or rank, and maybe an 'x'
+        int fromFile = -1;
+        int fromRank = -1;
+        for (int i = start; i < end - 2; i++) {
+            char c = text.charAt(i);
+            if (c >= 'a' && c <= 'h') {
+                fromFile = c - 'a';
+            } else if (c >= '1' && c <= '8') {
+                fromRank = c - '1';
+            } else if (c != 'x' && c != ':' && c != '-') {
+                return Move.NONE;
+            }
+        }
+
+        MoveGenerator.generateLegal(bits, us, bits.pieces(us, kind), scratch);
+        int found = Move.NONE;
+        for (int i = 0; i < scratch.size(); i++) {
+            int move = scratch.get(i);
+            int from = Move.from(move);
+            if (Move.to(move) == to && Move.promotionKind(move) == promotion
+                    && (fromFile < 0 || (from & 7) == fromFile) && (fromRank < 0 || (from >>> 3) == fromRank)) {
+                if (found != Move.NONE) {
+                    return Move.NONE;
+                }
+                found = move;
+            }
+        }
+        return found;
+    }
+
+    public static int decode(BitBoard bits, int us, CharSequence text, MoveList scratch) {
+        return decode(bits, us, text, 0, text.length(), scratch);
+    }
+
+    //O-O or O-O-O, also written with zeros
+    private static int decodeCastle(BitBoard bits, int us, CharSequence text, int start, int end, MoveList scratch) {
+        int flags;
+        if (end - start == 3) {
+            flags = Move.KING_CASTLE;
+        } else if (end - start == 5) {
+            flags = Move.QUEEN_CASTLE;
+        } else {
+            return Move.NONE;
+        }
+        MoveGenerator.generateLegal(bits, us, bits.pieces(us, BitBoard.KING), scratch);
+        for (int i = 0; i < scratch.size(); i++) {
+            if (Move.flags(scratch.get(i)) == flags) {
+                return scratch.get(i);
+            }
+        }
+        return Move.NONE;
+    }
+
+    private static boolean isSuffix(char c) {
+        return c == '+' || c == '#' || c == '!' || c == '?';
+    }
+
+    //BitBoard kind for a SAN piece letter, or NO_PIECE
+    private static int pieceKind(char c) {
+        return switch (c) {
+            case 'K' -> BitBoard.KING;
+            case 'Q' -> BitBoard.QUEEN;
+            case 'R' -> BitBoard.ROOK;
+            case 'B' -> BitBoard.BISHOP;
+            case 'N' -> BitBoard.KNIGHT;
+            default -> BitBoard.NO_PIECE;
+        };
+    }
+
+    //BitBoard square for a file letter and rank digit, or -1
+    static int square(char file, char rank) {
+        if (file < 'a' || file > 'h' || rank < '1' || rank > '8') {
+            return -1;
+        }
+        return (rank - '1') * 8 + (file - 'a');
+    }
+}
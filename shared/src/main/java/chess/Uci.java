@@ -0,0 +1,123 @@
+package chess;
+
+/**
+ * Universal Chess Interface move notation, the plain form used on the wire:
+ * the start and end squares plus a promotion letter, as in {@code e2e4},
+ * {@code e7e8q} or {@code e1g1} for castling. Square names come from
+ * precomputed tables, so encoding a move only appends characters.
+ */
+public final class Uci {
+
+    //name of every BitBoard square, "a1" through "h8"
+    static final String[] SQUARE_NAMES = new String[64];
+    //lowercase letter of each BitBoard piece kind, as written after a promotion
+    static final char[] KIND_LETTERS = {'k', 'q', 'b', 'n', 'r', 'p'};
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            SQUARE_NAMES[square] = new String(new char[]{(char) ('a' + (square & 7)), (char) ('1' + (square >>> 3))});
+        }
+    }
+
+    private static final ChessPiece.PieceType[] PIECE_TYPES = ChessPiece.PieceType.values();
+
+    private Uci() {
+    }
+
+    public static String squareName(int square) {
+        return SQUARE_NAMES[square];
+    }
+
+    /**
+     * Appends a packed move, or the null move {@code 0000} for Move.NONE
+     */
+    public static StringBuilder encode(int move, StringBuilder output) {
+        if (move == Move.NONE) {
+            return output.append("0000");
+        }
+        output.append(SQUARE_NAMES[Move.from(move)]).append(SQUARE_NAMES[Move.to(move)]);
+        int promotion = Move.promotionKind(move);
+        if (promotion != BitBoard.NO_PIECE) {
+            output.append(KIND_LETTERS[promotion]);
+        }
+        return output;
+    }
+
+    public static String encode(int move) {
+        return encode(move, new StringBuilder(5)).toString();
+    }
+
+    public static String encode(ChessMove move) {
+        StringBuilder output = new StringBuilder(5);
+        output.append(SQUARE_NAMES[BitBoard.square(move.getStartPosition())])
+                .append(SQUARE_NAMES[BitBoard.square(move.getEndPosition())]);
+        if (move.getPromotionPiece() != null) {
+            output.append(KIND_LETTERS[move.getPromotionPiece().ordinal()]);
+        }
+        return output.toString();
+    }
+
+    /**
+     * Finds the legal move a UCI move stands for, which supplies the flags
+     * the text leaves out
+     *
+     * @param bits    the position the move is played in
+     * @param us      the color to move
+     * @param text    holds the move in text[start, end)
+     * @param scratch a move list this call may overwrite
+     * @return the packed move, or Move.NONE if the text is malformed or names no legal move
+     */
+    public static int decode(BitBoard bits, int us, CharSequence text, int start, int end, MoveList scratch) {
+        int length = end - start;
+        if (length != 4 && length != 5) {
+            return Move.NONE;
+        }
+        int from = San.square(text.charAt(start), text.charAt(start + 1));
+        int to = San.square(text.charAt(start + 2), text.charAt(start + 3));
+        int promotion = length == 5 ? promotionKind(text.charAt(start + 4)) : BitBoard.NO_PIECE;
+        if (from < 0 || to < 0 || (length == 5 && promotion == BitBoard.NO_PIECE)) {
+            return Move.NONE;
+        }
+        scratch.clear();
+        MoveGenerator.generateLegal(bits, us, 1L << from, scratch);
+        for (int i = 0; i < scratch.size(); i++) {
+            int move = scratch.get(i);
+            if (Move.to(move) == to && Move.promotionKind(move) == promotion) {
+                return move;
+            }
+        }
+        return Move.NONE;
+    }
+
+    public static int decode(BitBoard bits, int us, CharSequence text, MoveList scratch) {
+        return decode(bits, us, text, 0, text.length(), scratch);
+    }
+
+    /**
+     * Reads a UCI move without a position to check it against
+     *
+     * @throws IllegalArgumentException if the text is not a well formed UCI move
+     */
+    public static ChessMove parse(CharSequence text) {
+        int length = text.length();
+        int from = length >= 4 ? San.square(text.charAt(0), text.charAt(1)) : -1;
+        int to = length >= 4 ? San.square(text.charAt(2), text.charAt(3)) : -1;
+        int promotion = length == 5 ? promotionKind(text.charAt(4)) : BitBoard.NO_PIECE;
+        if (from < 0 || to < 0 || length > 5 || (length == 5 && promotion == BitBoard.NO_PIECE)) {
+            throw new IllegalArgumentException("Invalid UCI move: " + text);
+        }
+        return new ChessMove(ChessPosition.ofSquare(from), ChessPosition.ofSquare(to),
+                promotion == BitBoard.NO_PIECE ? null : PIECE_TYPES[promotion]);
+    }
+
+    //BitBoard kind a pawn can promote to for a lowercase letter, or NO_PIECE
+    private static int promotionKind(char c) {
+        return switch (c) {
+            case 'q' -> BitBoard.QUEEN;
+            case 'r' -> BitBoard.ROOK;
+            case 'b' -> BitBoard.BISHOP;
+            case 'n' -> BitBoard.KNIGHT;
+            default -> BitBoard.NO_PIECE;
+        };
+    }
+}
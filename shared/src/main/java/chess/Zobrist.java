@@ -0,0 +1,57 @@
+package chess;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random 64-bit keys for Zobrist hashing. A position's key is the XOR of the
+ * key of every piece on its square, plus the side to move, castling rights
+ * and en passant file, so a move only has to XOR in what it changes.
+ * <p>
+ * Keys come from a fixed seed, so a position hashes the same on every run
+ * and keys can be stored.
+ */
+final class Zobrist {
+
+    private static final long SEED = 0x5EED_C0DE_2024L;
+
+    //indexed by BitBoard piece index, then square
+    static final long[][] PIECE_SQUARE = new long[12][64];
+    //XORed in when black is to move
+    static final long SIDE;
+    //one key per combination of the four castling rights
+    static final long[] CASTLING = new long[16];
+    //indexed by the file (0-7) a pawn may be captured en passant on
+    static final long[] EN_PASSANT = new long[8];
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (long[] squares : PIECE_SQUARE) {
+            for (int square = 0; square < squares.length; square++) {
+                squares[square] = random.nextLong();
+            }
+        }
+        SIDE = random.nextLong();
+        //no rights hash to zero, so boards without castling state keep their placement key
+        for (int i = 1; i < CASTLING.length; i++) {
+            CASTLING[i] = random.nextLong();
+        }
+        for (int file = 0; file < EN_PASSANT.length; file++) {
+            EN_PASSANT[file] = random.nextLong();
+        }
+    }
+
+    private Zobrist() {
+    }
+
+    //builds the placement key of a board from scratch
+    static long placementKey(BitBoard bits) {
+        long key = 0;
+        for (int square = 0; square < 64; square++) {
+            int piece = bits.pieceAt(square);
+            if (piece != BitBoard.NO_PIECE) {
+                key ^= PIECE_SQUARE[piece][square];
+            }
+        }
+        return key;
+    }
+}
@@ -0,0 +1,123 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Searches one position on several threads at once ("lazy SMP"). Every
+ * worker runs its own iterative deepening search of the whole tree, and they
+ * cooperate only through a shared lock-free transposition table: whatever one
+ * worker learns about a position saves the others from searching it. Helper
+ * workers start at staggered depths and order quiet moves differently so they
+ * spread out over the tree instead of repeating the main worker's search.
+ * <p>
+ * The calling thread runs the main worker; helpers run on a pool owned by
+ * this object, so close it when done. Only one search may run at a time.
+ */
+public final class ParallelSearch implements AutoCloseable {
+
+    private final TranspositionTable table;
+    private final Search[] workers;
+    private final ExecutorService helpers;
+
+    //one worker per available processor
+    public ParallelSearch() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public ParallelSearch(int threads) {
+        this(threads, new TranspositionTable(TranspositionTable.DEFAULT_ENTRIES));
+    }
+
+    public ParallelSearch(int threads, TranspositionTable table) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("a search needs at least one thread");
+        }
+        this.table = table;
+        workers = new Search[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Search(table);
+        }
+        helpers = threads == 1 ? null : Executors.newFixedThreadPool(threads - 1, runnable -> {
+            Thread thread = new Thread(runnable, "search-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int threads() {
+        return workers.length;
+    }
+
+    public TranspositionTable table() {
+        return table;
+    }
+
+    /**
+     * Finds the best move for the side to move in a game, leaving the game
+     * untouched
+     *
+     * @return the best move, or null if the side to move has no legal move
+     */
+    public ChessMove bestMove(ChessGame game, Search.Limits limits) {
+        return search(game, limits).move();
+    }
+
+    /**
+     * Searches with every worker until the main worker finishes, then stops
+     * the helpers. The result is from whichever worker finished the deepest
+     * iteration, and counts the nodes of all of them.
+     */
+    public Search.Result search(ChessGame game, Search.Limits limits) {
+        table.newSearch();
+        //workers copy the board concurrently, so give them a private snapshot nobody else can change
+        ChessGame root = new ChessGame();
+        root.setBoard(new ChessBoard(game.getBoard()));
+        root.setTeamTurn(game.getTeamTurn());
+        Search.Control control = new Search.Control(limits.nodes());
+        List<Future<Search.Result>> running = new ArrayList<>(workers.length - 1);
+        for (int i = 1; i < workers.length; i++) {
+            Search worker = workers[i];
+            int id = i;
+            running.add(helpers.submit(() -> worker.run(root, limits, control, id)));
+        }
+
+        Search.Result best = workers[0].run(root, limits, control, 0);
+        control.stop.set(true);
+        long nodes = best.nodes();
+        for (Future<Search.Result> future : running) {
+            Search.Result result = join(future);
+            nodes += result.nodes();
+            if (result.depth() > best.depth() && result.move() != null) {
+                best = result;
+            }
+        }
+        return new Search.Result(best.move(), best.score(), best.depth(), nodes);
+    }
+
+    private static Search.Result join(Future<Search.Result> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for search helpers", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("search helper failed", e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        if (helpers != null) {
+            helpers.shutdownNow();
+        }
+    }
+}
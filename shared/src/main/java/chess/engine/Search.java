@@ -0,0 +1,423 @@
+package chess.engine;
+
+import chess.BitBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Move;
+import chess.MoveGenerator;
+import chess.MoveList;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Finds a good move for the side to move with a negamax alpha-beta search.
+ * Depths are searched one after another (iterative deepening) until the
+ * depth, node or time limit runs out, and the best move of the deepest
+ * finished depth is returned. Captures are searched past the horizon
+ * (quiescence search) so the last move of a line is never a blunder the
+ * search cannot see.
+ * <p>
+ * Moves are tried in order of the transposition table's best move, captures
+ * by most valuable victim and least valuable attacker (MVV-LVA), killer
+ * moves that caused a cutoff at the same ply, then quiet moves by history
+ * score. A Search reuses its buffers between calls and is not thread safe;
+ * use one per thread.
+ */
+public final class Search {
+
+    public static final int MAX_PLY = 64;
+
+    public static final int INFINITY = 32_000;
+    //scores above MATE - MAX_PLY are mates, shorter mates scoring higher
+    public static final int MATE = 31_000;
+
+    //how often, in nodes, the clock is read
+    private static final int CHECK_INTERVAL = 1024;
+
+    private static final int TT_MOVE_SCORE = 1 << 30;
+    private static final int CAPTURE_SCORE = 1 << 28;
+    private static final int KILLER_SCORE = 1 << 26;
+    private static final int HISTORY_LIMIT = KILLER_SCORE - 1;
+    //capture ordering rank by BitBoard piece kind, pawns lowest
+    private static final int[] RANK = {6, 5, 3, 2, 4, 1};
+
+    /**
+     * When to stop searching; zero means no limit of that kind
+     *
+     * @param depth  deepest iteration to search
+     * @param nodes  nodes to search before stopping
+     * @param millis time to search before stopping
+     */
+    public record Limits(int depth, long nodes, long millis) {
+
+        public static Limits depth(int depth) {
+            return new Limits(depth, 0, 0);
+        }
+
+        public static Limits nodes(long nodes) {
+            return new Limits(0, nodes, 0);
+        }
+
+        public static Limits millis(long millis) {
+            return new Limits(0, 0, millis);
+        }
+    }
+
+    /**
+     * What a search found
+     *
+     * @param move  the best move, or null if the side to move has none
+     * @param score centipawns for the side to move
+     * @param depth deepest iteration that finished
+     */
+    public record Result(ChessMove move, int score, int depth, long nodes) {
+    }
+
+    //stop flag and node count shared by the workers of a parallel search
+    static final class Control {
+        final AtomicBoolean stop = new AtomicBoolean();
+        final AtomicLong nodes = new AtomicLong();
+        final long nodeLimit;
+
+        Control(long nodeLimit) {
+            this.nodeLimit = nodeLimit > 0 ? nodeLimit : Long.MAX_VALUE;
+        }
+    }
+
+    private final TranspositionTable table;
+    private final MoveList[] moves = new MoveList[MAX_PLY];
+    private final int[][] orderScores = new int[MAX_PLY][MoveList.CAPACITY];
+    private final int[][] killers = new int[MAX_PLY][2];
+    //indexed by color, then from * 64 + to
+    private final int[][] history = new int[2][64 * 64];
+
+    private BitBoard bits;
+    private long nodes;
+    private long nodeLimit;
+    private long deadline;
+    private boolean stopped;
+    private int rootBest;
+    private Control control;
+    //nonzero for parallel search helpers, which shuffle quiet moves to explore different trees
+    private int jitter;
+
+    public Search() {
+        this(new TranspositionTable(TranspositionTable.DEFAULT_ENTRIES));
+    }
+
+    public Search(TranspositionTable table) {
+        this.table = table;
+        for (int i = 0; i < MAX_PLY; i++) {
+            moves[i] = new MoveList();
+        }
+    }
+
+    /**
+     * Finds the best move for the side to move in a game, leaving the game
+     * untouched
+     *
+     * @return the best move, or null if the side to move has no legal move
+     */
+    public ChessMove bestMove(ChessGame game, Limits limits) {
+        return search(game, limits).move();
+    }
+
+    public Result search(ChessGame game, Limits limits) {
+        table.newSearch();
+        return run(game, limits, null, 0);
+    }
+
+    /**
+     * Runs one worker of a search. Worker 0 is the main line; helpers with
+     * odd ids start a depth ahead and every helper orders quiet moves a
+     * little differently, so together they fill the shared table with
+     * results the main worker would otherwise have to compute itself.
+     *
+     * @param control shared stop flag and node budget, or null when searching alone
+     */
+    Result run(ChessGame game, Limits limits, Control control, int worker) {
+        bits = new BitBoard(game.getBoard().getBitBoard());
+        int us = BitBoard.colorIndex(game.getTeamTurn());
+        this.control = control;
+        jitter = worker == 0 ? 0 : worker * 0x9E3779B9;
+        nodes = 0;
+        nodeLimit = control == null && limits.nodes() > 0 ? limits.nodes() : Long.MAX_VALUE;
+        deadline = limits.millis() > 0 ? System.nanoTime() + limits.millis() * 1_000_000 : Long.MAX_VALUE;
+        stopped = false;
+        int maxDepth = limits.depth() > 0 ? Math.min(limits.depth(), MAX_PLY - 1) : MAX_PLY - 1;
+        prepare();
+
+        MoveList rootMoves = moves[0];
+        rootMoves.clear();
+        MoveGenerator.generateLegal(bits, us, -1L, rootMoves);
+        if (rootMoves.isEmpty()) {
+            return new Result(null, bits.isInCheck(us) ? -MATE : 0, 0, 0);
+        }
+
+        int bestMove = rootMoves.get(0);
+        int bestScore = 0;
+        int finishedDepth = 0;
+        for (int depth = 1 + (worker & 1); depth <= maxDepth; depth++) {
+            int score = negamax(depth, 0, -INFINITY, INFINITY, us);
+            if (stopped) {
+                break;
+            }
+            bestMove = rootBest;
+            bestScore = score;
+            finishedDepth = depth;
+            //a forced mate will not get any better by looking deeper
+            if (Math.abs(score) >= MATE - MAX_PLY) {
+                break;
+            }
+        }
+        return new Result(Move.toChessMove(bestMove), bestScore, finishedDepth, nodes);
+    }
+
+    //resets the per-search move ordering state
+    private void prepare() {
+        for (int[] pair : killers) {
+            pair[0] = Move.NONE;
+            pair[1] = Move.NONE;
+        }
+        for (int[] scores : history) {
+            for (int i = 0; i < scores.length; i++) {
+                scores[i] >>= 2;
+            }
+        }
+    }
+
+    /// SEARCH ///
+
+    private int negamax(int depth, int ply, int alpha, int beta, int us) {
+        boolean inCheck = bits.isInCheck(us);
+        //look one ply further when in check, so checks near the horizon are answered
+        if (inCheck) {
+            depth++;
+        }
+        if (depth <= 0) {
+            return quiescence(ply, alpha, beta, us);
+        }
+        if (countNode() || ply >= MAX_PLY - 1) {
+            return bits.evaluate(us);
+        }
+
+        long key = bits.positionKey(us);
+        long entry = table.probe(key);
+        int ttMove = Move.NONE;
+        if (entry != 0) {
+            ttMove = TranspositionTable.move(entry);
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && score >= beta)
+                        || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        MoveList list = moves[ply];
+        list.clear();
+        MoveGenerator.generateLegal(bits, us, -1L, list);
+        if (list.isEmpty()) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        scoreMoves(list, ply, us, ttMove);
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = Move.NONE;
+        for (int i = 0; i < list.size(); i++) {
+            int move = pickNext(list, ply, i);
+            bits.makeMove(move);
+            int score = -negamax(depth - 1, ply + 1, -beta, -alpha, 1 - us);
+            bits.unmakeMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestMove = move;
+                if (ply == 0) {
+                    rootBest = move;
+                }
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+            if (alpha >= beta) {
+                if (!Move.isCapture(move) && !Move.isPromotion(move)) {
+                    rememberCutoff(move, ply, us, depth);
+                }
+                break;
+            }
+        }
+
+        int bound = best >= beta ? TranspositionTable.LOWER
+                : best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        table.store(key, bestMove, toTable(best, ply), depth, bound);
+        return best;
+    }
+
+    //searches captures and promotions until the position is quiet; in check every move is searched
+    private int quiescence(int ply, int alpha, int beta, int us) {
+        if (countNode() || ply >= MAX_PLY - 1) {
+            return bits.evaluate(us);
+        }
+        boolean inCheck = bits.isInCheck(us);
+        MoveList list = moves[ply];
+        list.clear();
+        MoveGenerator.generateLegal(bits, us, -1L, list);
+        if (list.isEmpty()) {
+            return inCheck ? -MATE + ply : 0;
+        }
+
+        int best = -INFINITY;
+        if (!inCheck) {
+            //standing pat: the side to move can usually do at least as well as the static score
+            best = bits.evaluate(us);
+            if (best >= beta) {
+                return best;
+            }
+            alpha = Math.max(alpha, best);
+        }
+        scoreMoves(list, ply, us, Move.NONE);
+        for (int i = 0; i < list.size(); i++) {
+            int move = pickNext(list, ply, i);
+            if (!inCheck && !Move.isCapture(move) && !Move.isPromotion(move)) {
+                //moves are ordered captures first, so the rest are quiet too
+                break;
+            }
+            bits.makeMove(move);
+            int score = -quiescence(ply + 1, -beta, -alpha, 1 - us);
+            bits.unmakeMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+            if (alpha >= beta) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    //counts a node and returns true once a limit has been reached
+    private boolean countNode() {
+        nodes++;
+        if (nodes >= nodeLimit) {
+            stopped = true;
+        } else if ((nodes & (CHECK_INTERVAL - 1)) == 0) {
+            if (System.nanoTime() >= deadline) {
+                stopped = true;
+            } else if (control != null && (control.stop.get()
+                    || control.nodes.addAndGet(CHECK_INTERVAL) >= control.nodeLimit)) {
+                stopped = true;
+            }
+        }
+        return stopped;
+    }
+
+    //mate scores are stored relative to the position rather than the root
+    private static int toTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score + ply;
+        }
+        if (score <= -MATE + MAX_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score - ply;
+        }
+        if (score <= -MATE + MAX_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    /// MOVE ORDERING ///
+
+    private void scoreMoves(MoveList list, int ply, int us, int ttMove) {
+        int[] scores = orderScores[ply];
+        if (scores.length < list.size()) {
+            //a board built piece by piece can have more moves than any real position
+            scores = Arrays.copyOf(scores, list.size());
+            orderScores[ply] = scores;
+        }
+        int[] killer = killers[ply];
+        int[] historyScores = history[us];
+        for (int i = 0; i < list.size(); i++) {
+            int move = list.get(i);
+            int score;
+            if (ttMove != Move.NONE && Move.sameAction(move, ttMove)) {
+                score = TT_MOVE_SCORE;
+            } else if (Move.isCapture(move) || Move.isPromotion(move)) {
+                score = CAPTURE_SCORE;
+                if (Move.isCapture(move)) {
+                    //an en passant capture lands on an empty square
+                    int victim = Move.flags(move) == Move.EN_PASSANT ? BitBoard.PAWN
+                            : BitBoard.kindOf(bits.pieceAt(Move.to(move)));
+                    int attacker = BitBoard.kindOf(bits.pieceAt(Move.from(move)));
+                    score += RANK[victim] * 8 - RANK[attacker];
+                }
+                if (Move.isPromotion(move)) {
+                    score += RANK[Move.promotionKind(move)] * 8;
+                }
+            } else if (move == killer[0]) {
+                score = KILLER_SCORE + 1;
+            } else if (move == killer[1]) {
+                score = KILLER_SCORE;
+            } else {
+                score = historyScores[move & 0xFFF];
+                if (jitter != 0) {
+                    score = Math.min(score + ((move * jitter) >>> 28), HISTORY_LIMIT);
+                }
+            }
+            scores[i] = score;
+        }
+    }
+
+    //moves the best scored of the remaining moves to index and returns it
+    private int pickNext(MoveList list, int ply, int index) {
+        int[] scores = orderScores[ply];
+        int best = index;
+        for (int i = index + 1; i < list.size(); i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        int move = list.get(best);
+        if (best != index) {
+            list.set(best, list.get(index));
+            list.set(index, move);
+            int score = scores[best];
+            scores[best] = scores[index];
+            scores[index] = score;
+        }
+        return move;
+    }
+
+    //a quiet move that refuted the position is likely to refute its siblings too
+    private void rememberCutoff(int move, int ply, int us, int depth) {
+        int[] killer = killers[ply];
+        if (killer[0] != move) {
+            killer[1] = killer[0];
+            killer[0] = move;
+        }
+        int[] historyScores = history[us];
+        int index = move & 0xFFF;
+        historyScores[index] = Math.min(historyScores[index] + depth * depth, HISTORY_LIMIT);
+    }
+}
@@ -0,0 +1,112 @@
+package chess.engine;
+
+import java.util.Arrays;
+
+/**
+ * Remembers the result of searching a position: the best move found, its
+ * score, how deep it was searched and whether the score is exact or only a
+ * bound. Entries are two longs, the key XORed with the data and the data
+ * itself, so an entry torn by two threads writing at once fails the key
+ * check on the next probe instead of handing back another position's data.
+ * That lets every search thread share one table without locks.
+ */
+public final class TranspositionTable {
+
+    public static final int DEFAULT_ENTRIES = 1 << 20;
+
+    public static final int EXACT = 0;
+    //the score is at least this much, the search failed high
+    public static final int LOWER = 1;
+    //the score is at most this much, no move raised alpha
+    public static final int UPPER = 2;
+
+    //data word: move in bits 0-15, score 16-31, depth 32-39, bound 40-41, generation 42-49
+    private static final long PRESENT = 1L << 63;
+
+    private final long[] table;
+    private final int mask;
+    private volatile int generation;
+
+    /**
+     * @param entries how many positions the table holds, rounded up to a power of two
+     */
+    public TranspositionTable(int entries) {
+        int size = Integer.highestOneBit(Math.max(entries, 2) - 1) << 1;
+        mask = size - 1;
+        table = new long[size * 2];
+    }
+
+    /**
+     * Looks a position up
+     *
+     * @return the entry's data word, or 0 if the position is not in the table
+     */
+    public long probe(long key) {
+        int index = index(key);
+        long data = table[index + 1];
+        if ((table[index] ^ data) != key) {
+            return 0;
+        }
+        return data;
+    }
+
+    /**
+     * Saves a search result. An entry from an earlier search is always
+     * replaced; one from this search only by a result at least as deep.
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        int index = index(key);
+        long old = table[index + 1];
+        boolean samePosition = (table[index] ^ old) == key;
+        if (old != 0 && !samePosition && generation(old) == (generation & 0xFF) && depth(old) > depth) {
+            return;
+        }
+        //keep the move a shallower search found when this one has none
+        if (move == 0 && samePosition) {
+            move = move(old);
+        }
+        long data = PRESENT | (move & 0xFFFFL) | ((score & 0xFFFFL) << 16) | ((long) Math.min(depth, 255) << 32)
+                | ((long) bound << 40) | ((long) (generation & 0xFF) << 42);
+        table[index] = key ^ data;
+        table[index + 1] = data;
+    }
+
+    //ages every entry, called once per search so stale results give way to new ones
+    public void newSearch() {
+        generation++;
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0);
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    private int index(long key) {
+        return (int) (key & mask) << 1;
+    }
+
+    /// DATA WORD FIELDS ///
+
+    public static int move(long data) {
+        return (int) (data & 0xFFFF);
+    }
+
+    public static int score(long data) {
+        return (short) (data >>> 16);
+    }
+
+    public static int depth(long data) {
+        return (int) ((data >>> 32) & 0xFF);
+    }
+
+    public static int bound(long data) {
+        return (int) ((data >>> 40) & 3);
+    }
+
+    private static int generation(long data) {
+        return (int) ((data >>> 42) & 0xFF);
+    }
+}
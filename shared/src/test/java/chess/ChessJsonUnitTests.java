@@ -0,0 +1,107 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import model.GameData;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+public class ChessJsonUnitTests {
+
+    private static final Gson GSON = ChessJson.gson();
+
+    @Test
+    public void testGameIsOneFenString() {
+        ChessGame game = ChessGame.fromFen("r3k2r/8/8/3pP3/8/8/8/R3K2R w Kq d6 7 42");
+        String json = GSON.toJson(game);
+        Assertions.assertEquals("\"r3k2r/8/8/3pP3/8/8/8/R3K2R w Kq d6 7 42\"", json);
+        ChessGame read = GSON.fromJson(json, ChessGame.class);
+        Assertions.assertEquals(game, read);
+        Assertions.assertEquals(game.toFen(), read.toFen());
+    }
+
+    @Test
+    public void testRoundTripsPerftSuite() throws IOException {
+        for (Perft.Entry entry : Perft.loadSuite(Perft.DEFAULT_SUITE)) {
+            ChessGame game = ChessGame.fromFen(entry.fen());
+            Assertions.assertEquals(game, GSON.fromJson(GSON.toJson(game), ChessGame.class), entry.fen());
+        }
+    }
+
+    @Test
+    public void testBoard() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+        String json = GSON.toJson(board);
+        Assertions.assertEquals("\"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR KQkq\"", json);
+        ChessBoard read = GSON.fromJson(json, ChessBoard.class);
+        Assertions.assertEquals(board, read);
+        Assertions.assertEquals(BitBoard.ALL_CASTLING, read.getBitBoard().castlingRights());
+
+        //a board built piece by piece has no castling history, and reads back without one
+        ChessBoard built = new ChessBoard();
+        built.addPiece(ChessPosition.of(1, 5), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        built.addPiece(ChessPosition.of(8, 5), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        json = GSON.toJson(built);
+        Assertions.assertEquals("\"4k3/8/8/8/8/8/8/4K3\"", json);
+        Assertions.assertFalse(GSON.fromJson(json, ChessBoard.class).getBitBoard().castlingKnown());
+    }
+
+    @Test
+    public void testMoveIsUci() {
+        ChessMove move = new ChessMove(ChessPosition.of(7, 5), ChessPosition.of(8, 5), ChessPiece.PieceType.QUEEN);
+        Assertions.assertEquals("\"e7e8q\"", GSON.toJson(move));
+        Assertions.assertEquals(move, GSON.fromJson("\"e7e8q\"", ChessMove.class));
+        Assertions.assertNull(GSON.fromJson("null", ChessMove.class));
+        Assertions.assertEquals("null", GSON.toJson(null, ChessMove.class));
+    }
+
+    @Test
+    public void testNestedInRecords() {
+        ChessGame game = new ChessGame();
+        GameData data = new GameData(3, "white", null, "casual", game);
+        String json = GSON.toJson(data);
+        Assertions.assertTrue(json.contains("\"game\":\"" + game.toFen() + "\""), json);
+        Assertions.assertEquals(data, GSON.fromJson(json, GameData.class));
+    }
+
+    //written by the original reflective Gson code after 1. e4 d5 2. exd5 Qxd5 3. Nf3
+    @Test
+    public void testReadsBaselineJson() throws IOException {
+        ChessGame game = GSON.fromJson(resource("baseline-game.json"), ChessGame.class);
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+        Assertions.assertTrue(game.toFen().startsWith("rnb1kbnr/ppp1pppp/8/3q4/8/5N2/PPPP1PPP/RNBQKB1R b KQkq "),
+                game.toFen());
+        Assertions.assertEquals(ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN),
+                game.getBoard().getPiece(ChessPosition.of(5, 4)));
+
+        ChessMove move = GSON.fromJson(resource("baseline-move.json"), ChessMove.class);
+        Assertions.assertEquals(new ChessMove(ChessPosition.of(7, 1), ChessPosition.of(8, 1),
+                ChessPiece.PieceType.QUEEN), move);
+    }
+
+    @Test
+    public void testRejectsBadBaselineTiles() throws IOException {
+        Assertions.assertThrows(JsonParseException.class,
+                () -> GSON.fromJson("{\"tiles\":[[null]]}", ChessBoard.class));
+        String unknownColor = resource("baseline-game.json").replaceFirst("WHITE", "RED");
+        Assertions.assertThrows(JsonParseException.class, () -> GSON.fromJson(unknownColor, ChessGame.class));
+    }
+
+    private static String resource(String name) throws IOException {
+        try (InputStream in = ChessJsonUnitTests.class.getResourceAsStream(name)) {
+            Assertions.assertNotNull(in, name);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    public void testRejectsMalformed() {
+        Assertions.assertThrows(JsonParseException.class, () -> GSON.fromJson("\"not a fen\"", ChessGame.class));
+        Assertions.assertThrows(JsonParseException.class, () -> GSON.fromJson("\"8/8/8 KQ\"", ChessBoard.class));
+        Assertions.assertThrows(JsonParseException.class, () -> GSON.fromJson("\"e9e4\"", ChessMove.class));
+    }
+}
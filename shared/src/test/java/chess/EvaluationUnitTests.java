@@ -0,0 +1,71 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+public class EvaluationUnitTests {
+
+    private static final int RANDOM_GAMES = 200;
+
+    @Test
+    public void testStartPositionIsLevel() {
+        ChessGame game = new ChessGame();
+        Assertions.assertEquals(0, game.evaluate());
+        Assertions.assertEquals(0, game.getBoard().evaluate(ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    public void testExtraMaterialScoresForItsOwner() {
+        ChessBoard board = new ChessBoard();
+        board.addPiece(ChessPosition.of(1, 5), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        board.addPiece(ChessPosition.of(8, 5), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        board.addPiece(ChessPosition.of(4, 4), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        int white = board.evaluate(ChessGame.TeamColor.WHITE);
+        Assertions.assertTrue(white > 400);
+        Assertions.assertEquals(-white, board.evaluate(ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    public void testIncrementalMatchesFromScratch() {
+        SplittableRandom random = new SplittableRandom(14);
+        for (int i = 0; i < RANDOM_GAMES; i++) {
+            ChessGame game = new ChessGame();
+            BitBoard bits = game.getBoard().getBitBoard();
+            for (int ply = 0; ply < 100; ply++) {
+                assertMatches(bits);
+                List<ChessMove> moves = new ArrayList<>(game.legalMoves(game.getTeamTurn()));
+                if (moves.isEmpty()) {
+                    break;
+                }
+                for (ChessMove move : moves) {
+                    game.getBoard().makeMove(move);
+                    assertMatches(bits);
+                    game.getBoard().unmakeMove();
+                }
+                try {
+                    game.makeMove(moves.get(random.nextInt(moves.size())));
+                } catch (InvalidMoveException e) {
+                    Assertions.fail(e);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDeserializedBoardEvaluatesTheSame() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        Gson gson = new Gson();
+        ChessGame copy = gson.fromJson(gson.toJson(game), ChessGame.class);
+        Assertions.assertEquals(game.evaluate(), copy.evaluate());
+    }
+
+    private static void assertMatches(BitBoard bits) {
+        Assertions.assertEquals(PieceSquareTables.evaluate(bits, BitBoard.WHITE), bits.evaluate(BitBoard.WHITE));
+        Assertions.assertEquals(PieceSquareTables.evaluate(bits, BitBoard.BLACK), bits.evaluate(BitBoard.BLACK));
+    }
+}
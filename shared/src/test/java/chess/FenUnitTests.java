@@ -0,0 +1,119 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+
+public class FenUnitTests {
+
+    @Test
+    public void testStartPosition() {
+        ChessGame game = ChessGame.fromFen(Fen.START);
+        Assertions.assertEquals(new ChessGame(), game);
+        Assertions.assertEquals(Fen.START, new ChessGame().toFen());
+    }
+
+    @Test
+    public void testRoundTripsPerftSuite() throws IOException {
+        for (Perft.Entry entry : Perft.loadSuite(Perft.DEFAULT_SUITE)) {
+            Assertions.assertEquals(entry.fen(), ChessGame.fromFen(entry.fen()).toFen());
+        }
+    }
+
+    @Test
+    public void testReadsEveryField() {
+        ChessGame game = ChessGame.fromFen("r3k2r/8/8/3pP3/8/8/8/R3K2R w Kq d6 7 42");
+        BitBoard bits = game.getBoard().getBitBoard();
+        Assertions.assertEquals(ChessGame.TeamColor.WHITE, game.getTeamTurn());
+        Assertions.assertEquals(BitBoard.WHITE_KINGSIDE | BitBoard.BLACK_QUEENSIDE, bits.castlingRights());
+        Assertions.assertEquals(BitBoard.square(6, 4), bits.enPassantSquare());
+        Assertions.assertEquals(7, game.getHalfmoveClock());
+        Assertions.assertEquals(42, game.getFullmoveNumber());
+        Assertions.assertTrue(game.validMoves(ChessPosition.of(5, 5))
+                .contains(new ChessMove(ChessPosition.of(5, 5), ChessPosition.of(6, 4), null)));
+    }
+
+    @Test
+    public void testClocksFollowMoves() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(1, 7, 3, 6));
+        Assertions.assertEquals("rnbqkbnr/pppppppp/8/8/8/5N2/PPPPPPPP/RNBQKB1R b KQkq - 1 1", game.toFen());
+        game.makeMove(move(7, 5, 5, 5));
+        game.makeMove(move(3, 6, 5, 5));
+        Assertions.assertEquals("rnbqkbnr/pppp1ppp/8/4N3/8/8/PPPPPPPP/RNBQKB1R b KQkq - 0 2", game.toFen());
+    }
+
+    @Test
+    public void testUncapturableEnPassantIsDropped() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 5, 4, 5));
+        Assertions.assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1", game.toFen());
+        Assertions.assertEquals(game.toFen(),
+                ChessGame.fromFen("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1").toFen());
+    }
+
+    @Test
+    public void testWritingLeavesCastlingUnsettled() {
+        ChessGame game = new ChessGame();
+        ChessBoard board = new ChessBoard();
+        board.addPiece(ChessPosition.of(1, 5), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        board.addPiece(ChessPosition.of(1, 8), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        board.addPiece(ChessPosition.of(8, 5), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        game.board = board;
+        Assertions.assertEquals("4k3/8/8/8/8/8/8/4K2R w K - 0 1", game.toFen());
+        Assertions.assertFalse(board.getBitBoard().castlingKnown());
+
+        //still inferred from the pieces as they are now
+        board.addPiece(ChessPosition.of(1, 8), null);
+        Assertions.assertEquals("4k3/8/8/8/8/8/8/4K3 w - - 0 1", game.toFen());
+    }
+
+    @Test
+    public void testLoadReusesBoard() {
+        ChessGame game = new ChessGame();
+        ChessBoard board = game.getBoard();
+        game.loadFen("8/8/8/4k3/8/8/8/4K3 b - - 12 60");
+        Assertions.assertSame(board, game.getBoard());
+        Assertions.assertEquals(2, Long.bitCount(board.getBitBoard().occupied()));
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+    }
+
+    @Test
+    public void testOptionalFieldsDefault() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/8/4K2R w");
+        Assertions.assertEquals(0, game.getHalfmoveClock());
+        Assertions.assertEquals(1, game.getFullmoveNumber());
+    }
+
+    @Test
+    public void testMissingCastlingFieldIsInferred() {
+        BitBoard inferred = ChessGame.fromFen("r3k3/8/8/8/8/8/8/4K2R w").getBoard().getBitBoard();
+        Assertions.assertTrue(inferred.castlingKnown());
+        Assertions.assertEquals(BitBoard.WHITE_KINGSIDE | BitBoard.BLACK_QUEENSIDE, inferred.castlingRights());
+        Assertions.assertEquals("r3k3/8/8/8/8/8/8/4K2R b Kq - 0 1", ChessGame.fromFen("r3k3/8/8/8/8/8/8/4K2R b").toFen());
+        //an explicit "-" still means no rights
+        Assertions.assertEquals(0, ChessGame.fromFen("r3k3/8/8/8/8/8/8/4K2R w -").getBoard().getBitBoard().castlingRights());
+    }
+
+    @Test
+    public void testRejectsMalformed() {
+        String[] malformed = {
+                "",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                "rnbqkbnr/ppppxppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQxq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e4 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - a 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1 extra"
+        };
+        for (String fen : malformed) {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(fen), fen);
+        }
+    }
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(ChessPosition.of(startRow, startCol), ChessPosition.of(endRow, endCol), null);
+    }
+}
@@ -0,0 +1,61 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.*;
+
+public class FlyweightUnitTests {
+
+    @Test
+    public void testPositionsAreShared() {
+        for (int row = -1; row <= 10; row++) {
+            for (int col = -1; col <= 10; col++) {
+                ChessPosition position = ChessPosition.of(row, col);
+                Assertions.assertSame(position, ChessPosition.of(row, col));
+                Assertions.assertEquals(new ChessPosition(row, col), position);
+                Assertions.assertEquals(new ChessPosition(row, col).hashCode(), position.hashCode());
+            }
+        }
+        Assertions.assertSame(ChessPosition.of(4, 5), ChessPosition.ofSquare(BitBoard.square(4, 5)));
+        Assertions.assertEquals(new ChessPosition(20, -4), ChessPosition.of(20, -4));
+    }
+
+    @Test
+    public void testNeighboursDoNotAllocate() {
+        ChessPosition corner = ChessPosition.of(1, 1);
+        Assertions.assertSame(ChessPosition.of(2, 1), corner.getNorthPosition());
+        Assertions.assertSame(ChessPosition.of(-1, 0), corner.getDownDownLeftPosition());
+        Assertions.assertSame(ChessPosition.of(10, 9), ChessPosition.of(8, 8).getUpUpRightPosition());
+    }
+
+    @Test
+    public void testPiecesAreShared() {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+                ChessPiece piece = ChessPiece.of(color, type);
+                Assertions.assertSame(piece, ChessPiece.of(color, type));
+                Assertions.assertEquals(new ChessPiece(color, type), piece);
+                Assertions.assertEquals(new ChessPiece(color, type).hashCode(), piece.hashCode());
+            }
+        }
+    }
+
+    @Test
+    public void testBoardHandsOutSharedPieces() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+        Assertions.assertSame(ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING),
+                board.getPiece(ChessPosition.of(1, 5)));
+    }
+
+    @Test
+    public void testDeserializedHashesMatch() {
+        Gson gson = new Gson();
+        ChessPosition position = gson.fromJson(gson.toJson(ChessPosition.of(3, 6)), ChessPosition.class);
+        Assertions.assertEquals(ChessPosition.of(3, 6).hashCode(), position.hashCode());
+        ChessPiece piece = gson.fromJson(gson.toJson(ChessPiece.of(ChessGame.TeamColor.BLACK,
+                ChessPiece.PieceType.ROOK)), ChessPiece.class);
+        Assertions.assertEquals(ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK).hashCode(),
+                piece.hashCode());
+        Assertions.assertFalse(gson.toJson(position).contains("hash"));
+    }
+}
@@ -0,0 +1,79 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+public class GameSnapshotUnitTests {
+
+    @Test
+    public void testStartPosition() {
+        byte[] snapshot = GameSnapshot.encode(new ChessGame());
+        Assertions.assertEquals(37, snapshot.length);
+        Assertions.assertEquals(GameSnapshot.VERSION, snapshot[0]);
+        Assertions.assertEquals(new ChessGame(), GameSnapshot.decode(snapshot));
+    }
+
+    @Test
+    public void testRoundTripsPerftSuite() throws IOException {
+        for (Perft.Entry entry : Perft.loadSuite(Perft.DEFAULT_SUITE)) {
+            ChessGame game = ChessGame.fromFen(entry.fen());
+            ChessGame read = GameSnapshot.decode(GameSnapshot.encode(game));
+            Assertions.assertEquals(game, read, entry.fen());
+            Assertions.assertEquals(game.toFen(), read.toFen());
+        }
+    }
+
+    @Test
+    public void testKeepsEveryField() {
+        ChessGame game = ChessGame.fromFen("r3k2r/8/8/3pP3/8/8/8/R3K2R w Kq d6 300 1000");
+        byte[] snapshot = GameSnapshot.encode(game);
+        Assertions.assertEquals(39, snapshot.length);
+        Assertions.assertEquals("r3k2r/8/8/3pP3/8/8/8/R3K2R w Kq d6 300 1000", GameSnapshot.decode(snapshot).toFen());
+    }
+
+    @Test
+    public void testUnknownCastlingStaysUnknown() {
+        ChessGame game = new ChessGame();
+        ChessBoard board = new ChessBoard();
+        board.addPiece(ChessPosition.of(1, 5), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        board.addPiece(ChessPosition.of(1, 8), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        board.addPiece(ChessPosition.of(8, 5), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        game.board = board;
+        ChessGame read = GameSnapshot.decode(GameSnapshot.encode(game));
+        Assertions.assertFalse(read.getBoard().getBitBoard().castlingKnown());
+        //both then infer the same rights from the pieces
+        Assertions.assertEquals(game.positionKey(), read.positionKey());
+        Assertions.assertEquals(BitBoard.WHITE_KINGSIDE, read.getBoard().getBitBoard().settledCastlingRights());
+    }
+
+    @Test
+    public void testDecodeIntoReusedGameAtOffset() {
+        ChessGame game = ChessGame.fromFen("8/8/8/4k3/8/8/8/4K3 b - - 12 60");
+        byte[] buffer = new byte[3 + GameSnapshot.MAX_SIZE];
+        int end = GameSnapshot.encode(game, buffer, 3);
+
+        ChessGame reused = new ChessGame();
+        ChessBoard board = reused.getBoard();
+        Assertions.assertEquals(end, GameSnapshot.decode(buffer, 3, end - 3, reused));
+        Assertions.assertSame(board, reused.getBoard());
+        Assertions.assertEquals(game, reused);
+    }
+
+    @Test
+    public void testRejectsMalformed() {
+        byte[] snapshot = GameSnapshot.encode(new ChessGame());
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> GameSnapshot.decode(Arrays.copyOf(snapshot, 36)));
+        byte[] version = snapshot.clone();
+        version[0] = 2;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GameSnapshot.decode(version));
+        byte[] piece = snapshot.clone();
+        piece[5] = (byte) 0xF0;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GameSnapshot.decode(piece));
+        byte[] clock = snapshot.clone();
+        clock[35] = (byte) 0x80;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GameSnapshot.decode(clock));
+    }
+}
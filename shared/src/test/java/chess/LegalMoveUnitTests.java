@@ -0,0 +1,161 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.SplittableRandom;
+
+public class LegalMoveUnitTests {
+
+    private static final int RANDOM_GAMES = 300;
+    private static final int RANDOM_BOARDS = 20_000;
+
+    private static final ChessPiece.PieceType[] NON_KING_TYPES = {
+            ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT,
+            ChessPiece.PieceType.ROOK, ChessPiece.PieceType.PAWN
+    };
+
+    @Test
+    public void testMovePieceOnlyCapturesEnPassantOnItsSquare() {
+        ChessPiece whitePawn = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
+        ChessPiece blackPawn = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
+        //a black pawn sits behind f6, but there is no en passant square
+        ChessBoard board = ChessGame.fromFen("4k3/8/8/4Pp2/8/8/8/4K3 w - - 0 1").getBoard();
+        board.movePiece(new ChessMove(new ChessPosition(5, 5), new ChessPosition(6, 6), null));
+        Assertions.assertEquals(whitePawn, board.getPiece(new ChessPosition(6, 6)));
+        Assertions.assertEquals(blackPawn, board.getPiece(new ChessPosition(5, 6)));
+
+        ChessBoard passed = ChessGame.fromFen("4k3/8/8/4Pp2/8/8/8/4K3 w - f6 0 1").getBoard();
+        passed.movePiece(new ChessMove(new ChessPosition(5, 5), new ChessPosition(6, 6), null));
+        Assertions.assertNull(passed.getPiece(new ChessPosition(5, 6)));
+    }
+
+    @Test
+    public void testDoubleCheckOnlyAllowsKingMoves() {
+        ChessGame game = new ChessGame();
+        ChessBoard board = new ChessBoard();
+        board.addPiece(new ChessPosition(1, 5), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        board.addPiece(new ChessPosition(1, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        board.addPiece(new ChessPosition(8, 5), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        board.addPiece(new ChessPosition(3, 4), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
+        board.addPiece(new ChessPosition(8, 8), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        game.setBoard(board);
+
+        for (ChessMove move : game.legalMoves(ChessGame.TeamColor.WHITE)) {
+            Assertions.assertEquals(new ChessPosition(1, 5), move.getStartPosition());
+        }
+        assertMatchesFilteredMoves(game, ChessGame.TeamColor.WHITE);
+    }
+
+    @Test
+    public void testBoardWithMoreMovesThanAnyPosition() {
+        ChessGame game = new ChessGame();
+        ChessBoard board = new ChessBoard();
+        board.addPiece(new ChessPosition(1, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        //queens on every other edge square have more moves between them than a move list starts out holding
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                boolean edge = row == 1 || row == 8 || col == 1 || col == 8;
+                if (edge && !(row == 1 && col == 1)) {
+                    board.addPiece(new ChessPosition(row, col),
+                            new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
+                }
+            }
+        }
+        game.setBoard(board);
+
+        Assertions.assertTrue(game.legalMoves(ChessGame.TeamColor.WHITE).size() > MoveList.CAPACITY);
+        Assertions.assertEquals(6, game.validMoves(new ChessPosition(8, 8)).size());
+        assertMatchesFilteredMoves(game, ChessGame.TeamColor.WHITE);
+    }
+
+    @Test
+    public void testPinnedPieceStaysOnPinLine() {
+        ChessGame game = new ChessGame();
+        ChessBoard board = new ChessBoard();
+        board.addPiece(new ChessPosition(1, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        board.addPiece(new ChessPosition(3, 3), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
+        board.addPiece(new ChessPosition(6, 6), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
+        board.addPiece(new ChessPosition(8, 8), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        game.setBoard(board);
+
+        Collection<ChessMove> queenMoves = game.validMoves(new ChessPosition(3, 3));
+        Assertions.assertEquals(4, queenMoves.size());
+        for (ChessMove move : queenMoves) {
+            ChessPosition end = move.getEndPosition();
+            Assertions.assertEquals(end.getRow(), end.getColumn());
+        }
+    }
+
+    @Test
+    public void testMatchesFilteredMovesDuringRandomGames() {
+        SplittableRandom random = new SplittableRandom(240);
+        for (int i = 0; i < RANDOM_GAMES; i++) {
+            ChessGame game = new ChessGame();
+            for (int ply = 0; ply < 120; ply++) {
+                ChessGame.TeamColor turn = game.getTeamTurn();
+                assertMatchesFilteredMoves(game, turn);
+                assertMatchesFilteredMoves(game, game.oppositeTeam(turn));
+                List<ChessMove> moves = new ArrayList<>(game.legalMoves(turn));
+                if (moves.isEmpty()) {
+                    break;
+                }
+                try {
+                    game.makeMove(moves.get(random.nextInt(moves.size())));
+                } catch (InvalidMoveException e) {
+                    Assertions.fail(e);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testMatchesFilteredMovesOnRandomBoards() {
+        SplittableRandom random = new SplittableRandom(2024);
+        for (int i = 0; i < RANDOM_BOARDS; i++) {
+            ChessBoard board = new ChessBoard();
+            for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+                board.addPiece(randomPosition(random), new ChessPiece(color, ChessPiece.PieceType.KING));
+            }
+            int count = random.nextInt(16);
+            for (int j = 0; j < count; j++) {
+                ChessPosition position = randomPosition(random);
+                if (board.getPiece(position) != null) {
+                    continue;
+                }
+                ChessGame.TeamColor color = random.nextBoolean() ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+                ChessPiece.PieceType type = NON_KING_TYPES[random.nextInt(NON_KING_TYPES.length)];
+                if (type == ChessPiece.PieceType.PAWN && (position.getRow() == 1 || position.getRow() == 8)) {
+                    continue;
+                }
+                board.addPiece(position, new ChessPiece(color, type));
+            }
+            ChessGame game = new ChessGame();
+            game.setBoard(board);
+            assertMatchesFilteredMoves(game, ChessGame.TeamColor.WHITE);
+            assertMatchesFilteredMoves(game, ChessGame.TeamColor.BLACK);
+        }
+    }
+
+    private static boolean isCastleOrEnPassant(ChessBoard board, ChessMove move) {
+        int flags = Move.flags(Move.of(board.getBitBoard(), move));
+        return flags == Move.KING_CASTLE || flags == Move.QUEEN_CASTLE || flags == Move.EN_PASSANT;
+    }
+
+    private ChessPosition randomPosition(SplittableRandom random) {
+        return new ChessPosition(random.nextInt(8) + 1, random.nextInt(8) + 1);
+    }
+
+    //compares the legal generator with trying every pseudo-legal move on the board, which knows no castling or en passant
+    private void assertMatchesFilteredMoves(ChessGame game, ChessGame.TeamColor color) {
+        ChessBoard board = game.getBoard();
+        Collection<ChessMove> expected = game.safeMoves(board, game.allMovesByColor(board, color), color);
+        Collection<ChessMove> actual = new ArrayList<>(game.legalMoves(color));
+        actual.removeIf(move -> isCastleOrEnPassant(board, move));
+        Assertions.assertEquals(expected.size(), actual.size(), board.toString());
+        Assertions.assertEquals(expected, new HashSet<>(actual), board.toString());
+    }
+}
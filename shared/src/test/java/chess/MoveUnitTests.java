@@ -0,0 +1,82 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+
+public class MoveUnitTests {
+
+    @Test
+    public void testEncodeRoundTrip() {
+        int move = Move.encode(BitBoard.square(2, 5), BitBoard.square(4, 5), Move.DOUBLE_PAWN_PUSH);
+        Assertions.assertEquals(BitBoard.square(2, 5), Move.from(move));
+        Assertions.assertEquals(BitBoard.square(4, 5), Move.to(move));
+        Assertions.assertEquals(Move.DOUBLE_PAWN_PUSH, Move.flags(move));
+        Assertions.assertFalse(Move.isCapture(move));
+        Assertions.assertEquals(BitBoard.NO_PIECE, Move.promotionKind(move));
+        Assertions.assertEquals(0, move >>> 16);
+    }
+
+    @Test
+    public void testPromotionsKeepTheirPiece() {
+        for (int kind : new int[]{BitBoard.QUEEN, BitBoard.ROOK, BitBoard.BISHOP, BitBoard.KNIGHT}) {
+            int move = Move.promotion(BitBoard.square(7, 1), BitBoard.square(8, 2), kind, true);
+            Assertions.assertTrue(Move.isPromotion(move));
+            Assertions.assertTrue(Move.isCapture(move));
+            Assertions.assertEquals(kind, Move.promotionKind(move));
+        }
+    }
+
+    @Test
+    public void testKingAndPawnPromotionsAreRejected() {
+        ChessGame game = ChessGame.fromFen("8/4P3/8/8/8/8/k7/6K1 w - - 0 1");
+        for (ChessPiece.PieceType type : new ChessPiece.PieceType[]{ChessPiece.PieceType.KING,
+                ChessPiece.PieceType.PAWN}) {
+            ChessMove move = new ChessMove(new ChessPosition(7, 5), new ChessPosition(8, 5), type);
+            Assertions.assertEquals(Move.NONE, Move.of(game.getBoard().bits, move));
+            Assertions.assertEquals(Move.NONE, Move.of(move));
+            Assertions.assertThrows(InvalidMoveException.class, () -> game.makeMove(move));
+        }
+        Assertions.assertEquals(ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN),
+                game.getBoard().getPiece(new ChessPosition(7, 5)));
+        Assertions.assertEquals(ChessGame.TeamColor.WHITE, game.getTeamTurn());
+    }
+
+    @Test
+    public void testChessMoveConversion() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+        ChessMove move = new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null);
+        Assertions.assertEquals(move, Move.toChessMove(Move.of(board.bits, move)));
+
+        ChessMove promotion = new ChessMove(new ChessPosition(7, 1), new ChessPosition(8, 1),
+                ChessPiece.PieceType.KNIGHT);
+        Assertions.assertEquals(promotion, Move.toChessMove(Move.of(board.bits, promotion)));
+    }
+
+    @Test
+    public void testChessMoveWithoutBoard() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("4k3/1P6/8/8/8/8/8/4K2R w K - 3 40");
+        Assertions.assertEquals(78, game.getPly());
+        ChessMove castle = new ChessMove(new ChessPosition(1, 5), new ChessPosition(1, 7), null);
+        ChessMove promotion = new ChessMove(new ChessPosition(7, 2), new ChessPosition(8, 2),
+                ChessPiece.PieceType.ROOK);
+        for (ChessMove move : new ChessMove[]{castle, promotion}) {
+            int stored = Move.of(move);
+            Assertions.assertTrue(Move.sameAction(stored, Move.of(game.getBoard().bits, move)));
+            Assertions.assertEquals(move, Move.toChessMove(stored));
+        }
+        game.makeMove(castle);
+        Assertions.assertEquals(79, game.getPly());
+    }
+
+    @Test
+    public void testMoveListFindIgnoresFlags() {
+        MoveList moves = new MoveList();
+        int capture = Move.encode(BitBoard.square(4, 4), BitBoard.square(5, 5), Move.CAPTURE);
+        moves.add(Move.encode(BitBoard.square(4, 4), BitBoard.square(5, 4), Move.QUIET));
+        moves.add(capture);
+        Assertions.assertEquals(capture, moves.find(Move.encode(BitBoard.square(4, 4), BitBoard.square(5, 5), Move.QUIET)));
+        Assertions.assertEquals(Move.NONE, moves.find(Move.encode(BitBoard.square(4, 4), BitBoard.square(6, 4), Move.QUIET)));
+        moves.clear();
+        Assertions.assertTrue(moves.isEmpty());
+    }
+}
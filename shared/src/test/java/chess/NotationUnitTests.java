@@ -0,0 +1,133 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+
+public class NotationUnitTests {
+
+    @Test
+    public void testUciEncode() {
+        Assertions.assertEquals("e2e4", Uci.encode(Move.encode(BitBoard.square(2, 5), BitBoard.square(4, 5),
+                Move.DOUBLE_PAWN_PUSH)));
+        Assertions.assertEquals("e7e8q", Uci.encode(Move.promotion(BitBoard.square(7, 5), BitBoard.square(8, 5),
+                BitBoard.QUEEN, false)));
+        Assertions.assertEquals("0000", Uci.encode(Move.NONE));
+        Assertions.assertEquals("a7b8n", new ChessMove(ChessPosition.of(7, 1), ChessPosition.of(8, 2),
+                ChessPiece.PieceType.KNIGHT).toUci());
+    }
+
+    @Test
+    public void testUciParse() {
+        Assertions.assertEquals(new ChessMove(ChessPosition.of(1, 7), ChessPosition.of(3, 6), null),
+                ChessMove.fromUci("g1f3"));
+        Assertions.assertEquals(new ChessMove(ChessPosition.of(2, 8), ChessPosition.of(1, 8), ChessPiece.PieceType.ROOK),
+                ChessMove.fromUci("h2h1r"));
+        for (String bad : new String[]{"", "e2", "e2e9", "i2e4", "e7e8k", "e2e4qq"}) {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> ChessMove.fromUci(bad), bad);
+        }
+    }
+
+    @Test
+    public void testUciDecodeSetsFlags() {
+        BitBoard bits = ChessGame.fromFen("r3k2r/8/8/3pP3/8/8/8/R3K2R w KQkq d6 0 1").getBoard().getBitBoard();
+        MoveList scratch = new MoveList();
+        Assertions.assertEquals(Move.KING_CASTLE, Move.flags(Uci.decode(bits, BitBoard.WHITE, "e1g1", scratch)));
+        Assertions.assertEquals(Move.EN_PASSANT, Move.flags(Uci.decode(bits, BitBoard.WHITE, "e5d6", scratch)));
+        Assertions.assertEquals(Move.NONE, Uci.decode(bits, BitBoard.WHITE, "e1e3", scratch));
+        Assertions.assertEquals(Move.NONE, Uci.decode(bits, BitBoard.WHITE, "e1g1q", scratch));
+    }
+
+    @Test
+    public void testSanDisambiguation() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/4K3/R6R w - - 0 1");
+        Assertions.assertEquals("Rad1", game.toSan(move(1, 1, 1, 4)));
+        Assertions.assertEquals("Ra4", game.toSan(move(1, 1, 4, 1)));
+
+        game = ChessGame.fromFen("4k3/8/8/R7/8/8/4K3/R7 w - - 0 1");
+        Assertions.assertEquals("R1a3", game.toSan(move(1, 1, 3, 1)));
+
+        game = ChessGame.fromFen("6k1/8/8/8/Q2Q4/8/8/Q3K3 w - - 0 1");
+        Assertions.assertEquals("Qa4d1", game.toSan(move(4, 1, 1, 4)));
+        Assertions.assertEquals("Qda7", game.toSan(move(4, 4, 7, 1)));
+    }
+
+    @Test
+    public void testSanSpecialMoves() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("r3k2r/1P6/8/3pP3/8/8/8/R3K2R w KQkq d6 0 1");
+        Assertions.assertEquals("O-O", game.toSan(move(1, 5, 1, 7)));
+        Assertions.assertEquals("O-O-O", game.toSan(move(1, 5, 1, 3)));
+        Assertions.assertEquals("exd6", game.toSan(move(5, 5, 6, 4)));
+        Assertions.assertEquals("bxa8=Q+", game.toSan(new ChessMove(ChessPosition.of(7, 2), ChessPosition.of(8, 1),
+                ChessPiece.PieceType.QUEEN)));
+        Assertions.assertEquals("b8=N", game.toSan(new ChessMove(ChessPosition.of(7, 2), ChessPosition.of(8, 2),
+                ChessPiece.PieceType.KNIGHT)));
+        //encoding leaves the position alone
+        Assertions.assertEquals("r3k2r/1P6/8/3pP3/8/8/8/R3K2R w KQkq d6 0 1", game.toFen());
+
+        ChessGame mate = ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R3K3 w - - 0 1");
+        Assertions.assertEquals("Ra8#", mate.toSan(move(1, 1, 8, 1)));
+        Assertions.assertThrows(InvalidMoveException.class, () -> mate.toSan(move(1, 5, 3, 5)));
+    }
+
+    @Test
+    public void testFromSan() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        Assertions.assertEquals(move(1, 7, 3, 6), game.fromSan("Nf3"));
+        Assertions.assertEquals(move(2, 5, 4, 5), game.fromSan("e4"));
+        Assertions.assertThrows(InvalidMoveException.class, () -> game.fromSan("Nd4"));
+    }
+
+    @Test
+    public void testPgnMovesReencodeToTheSameText() throws IOException {
+        String movetext = "e4 e5 Nf3 d6 d4 Bg4 dxe5 Bxf3 Qxf3 dxe5 Bc4 Nf6 Qb3 Qe7 Nc3 c6 Bg5 b5 Nxb5 cxb5 "
+                + "Bxb5+ Nbd7 O-O-O Rd8 Rxd7 Rxd7 Rd1 Qe6 Bxd7+ Nxd7 Qb8+ Nxb8 Rd8#";
+        PgnGame pgn = PgnReader.of(movetext + " 1-0").next();
+        Assertions.assertTrue(pgn.isValid(), pgn.error());
+
+        ChessGame game = new ChessGame();
+        MoveList scratch = new MoveList();
+        StringBuilder written = new StringBuilder();
+        for (int move : pgn.moves()) {
+            int us = game.isWhiteTurn ? BitBoard.WHITE : BitBoard.BLACK;
+            if (!written.isEmpty()) {
+                written.append(' ');
+            }
+            San.encode(game.getBoard().getBitBoard(), us, move, scratch, written);
+            game.playMove(move);
+        }
+        Assertions.assertEquals(movetext, written.toString());
+    }
+
+    @Test
+    public void testEveryLegalMoveRoundTrips() throws IOException {
+        MoveList moves = new MoveList();
+        MoveList scratch = new MoveList();
+        for (Perft.Entry entry : Perft.loadSuite(Perft.DEFAULT_SUITE)) {
+            ChessGame game = ChessGame.fromFen(entry.fen());
+            BitBoard bits = game.getBoard().getBitBoard();
+            int us = game.isWhiteTurn ? BitBoard.WHITE : BitBoard.BLACK;
+            moves.clear();
+            MoveGenerator.generateLegal(bits, us, -1L, moves);
+            for (int i = 0; i < moves.size(); i++) {
+                int move = moves.get(i);
+                String san = San.encode(bits, us, move, scratch);
+                Assertions.assertEquals(move, San.decode(bits, us, san, scratch), entry.fen() + " " + san);
+                String uci = Uci.encode(move);
+                Assertions.assertEquals(move, Uci.decode(bits, us, uci, scratch), entry.fen() + " " + uci);
+                Assertions.assertEquals(Move.toChessMove(move), ChessMove.fromUci(uci));
+            }
+        }
+    }
+
+    @Test
+    public void testPositionToString() {
+        Assertions.assertEquals("{4,e}", ChessPosition.of(4, 5).toString());
+        Assertions.assertEquals("{0, }", ChessPosition.of(0, 9).toString());
+        Assertions.assertEquals("({2,e} to {4,e})", move(2, 5, 4, 5).toString());
+    }
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(ChessPosition.of(startRow, startCol), ChessPosition.of(endRow, endCol), null);
+    }
+}
@@ -0,0 +1,53 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+public class PerftUnitTests {
+
+    //keeps the regression run short; deeper counts are covered by running chess.Perft directly
+    private static final long NODE_LIMIT = 250_000;
+
+    private static List<Perft.Entry> suite;
+
+    @BeforeAll
+    public static void init() throws IOException {
+        suite = Perft.loadSuite(Perft.DEFAULT_SUITE);
+    }
+
+    @Test
+    public void testSuiteLoaded() {
+        Assertions.assertFalse(suite.isEmpty());
+        Assertions.assertEquals(20, suite.get(0).expected()[0]);
+    }
+
+    @Test
+    public void testPerftMatchesSuite() {
+        for (Perft.Entry entry : suite) {
+            ChessGame game = ChessGame.fromFen(entry.fen());
+            for (int depth = 1; depth <= entry.maxDepth() && entry.expected()[depth - 1] <= NODE_LIMIT; depth++) {
+                Assertions.assertEquals(entry.expected()[depth - 1], Perft.perft(game, depth),
+                        entry.fen() + " at depth " + depth);
+            }
+        }
+    }
+
+    @Test
+    public void testDivideAddsUpToPerft() {
+        ChessGame game = new ChessGame();
+        Map<ChessMove, Long> divide = Perft.divide(game, 3);
+        Assertions.assertEquals(20, divide.size());
+        Assertions.assertEquals(8902, divide.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    public void testPerftLeavesGameUntouched() {
+        ChessGame game = new ChessGame();
+        ChessGame expected = new ChessGame();
+        Perft.perft(game, 3);
+        Assertions.assertEquals(expected, game);
+    }
+}
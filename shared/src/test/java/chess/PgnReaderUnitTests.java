@@ -0,0 +1,136 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+public class PgnReaderUnitTests {
+
+    private static final String OPERA_GAME = """
+            [Event "Paris"]
+            [Site "Paris FRA"]
+            [Date "1858.??.??"]
+            [White "Paul Morphy"]
+            [Black "Duke Karl / Count Isouard"]
+            [Result "1-0"]
+
+            1.e4 e5 2.Nf3 d6 3.d4 Bg4 {This is a weak move already.} 4.dxe5 Bxf3 5.Qxf3 dxe5
+            6.Bc4 Nf6 7.Qb3 Qe7 8.Nc3 c6 9.Bg5 b5 (9...Qb4 10.Qxb4 Bxb4) 10.Nxb5 cxb5
+            11.Bxb5+ Nbd7 12.O-O-O Rd8 13.Rxd7 Rxd7 14.Rd1 Qe6 15.Bxd7+ Nxd7 16.Qb8+ $1 Nxb8
+            17.Rd8# 1-0
+            """;
+
+    private static final String SPECIAL_MOVES = """
+            [White "Promoter"]
+            [Black "Passer"]
+
+            1. e4 d5 2. e5 f5 3. exf6 g6 4. f7+ Kd7 5. fxg8=Q Rxg8 *
+            """;
+
+    @Test
+    public void testReadsTagsAndMoves() throws IOException {
+        try (PgnReader reader = PgnReader.of(OPERA_GAME)) {
+            PgnGame game = reader.next();
+            Assertions.assertTrue(game.isValid(), game.error());
+            Assertions.assertEquals("Paul Morphy", game.tag("White"));
+            Assertions.assertEquals("Duke Karl / Count Isouard", game.tag("Black"));
+            Assertions.assertEquals("1-0", game.result());
+            Assertions.assertEquals(33, game.moves().length);
+            Assertions.assertTrue(game.game().isInCheckmate(ChessGame.TeamColor.BLACK));
+            //12.O-O-O
+            Assertions.assertEquals(Move.QUEEN_CASTLE, Move.flags(game.moves()[22]));
+            Assertions.assertNull(reader.next());
+            Assertions.assertEquals(1, reader.games());
+        }
+    }
+
+    @Test
+    public void testDigitCastling() throws IOException {
+        String pgn = "1.e4 e5 2.Nf3 Nc6 3.Bc4 Bc5 4.0-0 Nf6 5.d3 d6 6.Bg5 Be6 7.Nc3 Qd7 8.a3 0-0-0 9.Re1 *";
+        try (PgnReader reader = PgnReader.of(pgn)) {
+            PgnGame game = reader.next();
+            Assertions.assertTrue(game.isValid(), game.error());
+            Assertions.assertEquals(17, game.moves().length);
+            Assertions.assertEquals(Move.KING_CASTLE, Move.flags(game.moves()[6]));
+            Assertions.assertEquals(Move.QUEEN_CASTLE, Move.flags(game.moves()[15]));
+        }
+    }
+
+    @Test
+    public void testEnPassantAndPromotion() throws IOException {
+        try (PgnReader reader = PgnReader.of(SPECIAL_MOVES)) {
+            PgnGame game = reader.next();
+            Assertions.assertTrue(game.isValid(), game.error());
+            Assertions.assertEquals("*", game.result());
+            Assertions.assertEquals(Move.EN_PASSANT, Move.flags(game.moves()[4]));
+            Assertions.assertEquals(BitBoard.QUEEN, Move.promotionKind(game.moves()[8]));
+            Assertions.assertEquals("rnbq1br1/pppkp2p/6p1/3p4/8/8/PPPP1PPP/RNBQKBNR w KQ - 0 6",
+                    game.game().toFen());
+        }
+    }
+
+    @Test
+    public void testReadsConsecutiveGames() throws IOException {
+        String archive = OPERA_GAME + "\n" + SPECIAL_MOVES + "\n" + OPERA_GAME;
+        try (PgnReader reader = new PgnReader(Channels.newChannel(
+                new ByteArrayInputStream(archive.getBytes(StandardCharsets.UTF_8))))) {
+            Assertions.assertEquals("1-0", reader.next().result());
+            Assertions.assertEquals("Promoter", reader.next().tag("White"));
+            Assertions.assertEquals(33, reader.next().moves().length);
+            Assertions.assertNull(reader.next());
+            Assertions.assertEquals(3, reader.games());
+        }
+    }
+
+    @Test
+    public void testFenTagSetsStart() throws IOException {
+        String pgn = """
+                [FEN "4k3/8/8/8/8/8/8/R3K3 w Q - 0 1"]
+                [SetUp "1"]
+
+                1. O-O-O Kf7 2. Rd7+ 1/2-1/2
+                """;
+        try (PgnReader reader = PgnReader.of(pgn)) {
+            PgnGame game = reader.next();
+            Assertions.assertTrue(game.isValid(), game.error());
+            Assertions.assertEquals("8/3R1k2/8/8/8/8/8/2K5 b - - 3 2", game.game().toFen());
+        }
+    }
+
+    @Test
+    public void testIllegalMoveStopsOnlyThatGame() throws IOException {
+        String pgn = "[White \"A\"]\n\n1. e4 e5 2. Ke3 Nc6 1-0\n\n" + OPERA_GAME;
+        try (PgnReader reader = PgnReader.of(pgn)) {
+            PgnGame bad = reader.next();
+            Assertions.assertFalse(bad.isValid());
+            Assertions.assertEquals(2, bad.moves().length);
+            Assertions.assertTrue(bad.error().contains("Ke3"), bad.error());
+            Assertions.assertTrue(reader.next().isValid());
+        }
+    }
+
+    @Test
+    public void testGameWithoutResultEndsAtNextTags() throws IOException {
+        try (PgnReader reader = PgnReader.of("1. d4 d5\n" + OPERA_GAME)) {
+            PgnGame first = reader.next();
+            Assertions.assertEquals(2, first.moves().length);
+            Assertions.assertEquals("*", first.result());
+            Assertions.assertEquals("Paul Morphy", reader.next().tag("White"));
+        }
+    }
+
+    @Test
+    public void testSanDisambiguation() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/4K3/R6R w - - 0 1");
+        BitBoard bits = game.getBoard().getBitBoard();
+        MoveList scratch = new MoveList();
+        Assertions.assertEquals(Move.NONE, San.decode(bits, BitBoard.WHITE, "Rd1", scratch));
+        int move = San.decode(bits, BitBoard.WHITE, "Rhf1", scratch);
+        Assertions.assertEquals(BitBoard.square(1, 8), Move.from(move));
+        Assertions.assertEquals(Move.NONE, San.decode(bits, BitBoard.WHITE, "Rb2", scratch));
+        Assertions.assertEquals(Move.NONE, San.decode(bits, BitBoard.WHITE, "Qd1", scratch));
+    }
+}
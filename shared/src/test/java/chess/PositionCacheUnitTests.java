@@ -0,0 +1,168 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class PositionCacheUnitTests {
+
+    @Test
+    public void testStoreThenProbe() {
+        PositionCache cache = new PositionCache(64);
+        MoveList moves = movesFor(42, 30);
+        cache.store(42, moves, PositionCache.IN_CHECK);
+
+        MoveList output = new MoveList();
+        Assertions.assertEquals(PositionCache.IN_CHECK, cache.probe(42, output));
+        assertSameMoves(moves, output);
+        Assertions.assertEquals(PositionCache.MISS, cache.probe(43, output));
+        Assertions.assertTrue(output.isEmpty());
+        Assertions.assertEquals(1, cache.hits());
+        Assertions.assertEquals(1, cache.misses());
+    }
+
+    @Test
+    public void testEmptyMoveListIsCached() {
+        PositionCache cache = new PositionCache(64);
+        cache.store(7, new MoveList(), 0);
+        MoveList output = movesFor(1, 3);
+        Assertions.assertEquals(0, cache.probe(7, output));
+        Assertions.assertTrue(output.isEmpty());
+    }
+
+    @Test
+    public void testLongMoveListsAreSkipped() {
+        PositionCache cache = new PositionCache(64);
+        cache.store(5, movesFor(5, PositionCache.MAX_MOVES + 1), 0);
+        Assertions.assertEquals(PositionCache.MISS, cache.probe(5, new MoveList()));
+        Assertions.assertEquals(0, cache.stores());
+        Assertions.assertEquals(1, cache.skipped());
+
+        cache.store(5, movesFor(5, PositionCache.MAX_MOVES), 0);
+        Assertions.assertNotEquals(PositionCache.MISS, cache.probe(5, new MoveList()));
+        Assertions.assertEquals(1, cache.skipped());
+    }
+
+    @Test
+    public void testBucketKeepsNewestEntries() {
+        PositionCache cache = new PositionCache(2);
+        MoveList output = new MoveList();
+        for (long key = 1; key <= 10; key++) {
+            cache.store(key, movesFor(key, 4), 0);
+            Assertions.assertNotEquals(PositionCache.MISS, cache.probe(key, output));
+        }
+        Assertions.assertNotEquals(PositionCache.MISS, cache.probe(9, output));
+        Assertions.assertEquals(PositionCache.MISS, cache.probe(1, output));
+    }
+
+    @Test
+    public void testConcurrentReadersNeverSeeTornEntries() throws InterruptedException {
+        PositionCache cache = new PositionCache(16);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int seed = t;
+            threads.add(new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                MoveList output = new MoveList();
+                try {
+                    for (int i = 0; i < 100_000; i++) {
+                        long key = random.nextInt(64) + 1;
+                        if (cache.probe(key, output) == PositionCache.MISS) {
+                            cache.store(key, movesFor(key, (int) key % 40), 0);
+                        } else {
+                            assertSameMoves(movesFor(key, (int) key % 40), output);
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assertions.assertNull(failure.get());
+    }
+
+    @Test
+    public void testConcurrentQueriesOnOneGame() throws InterruptedException {
+        ChessGame game = ChessGame.fromFen("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1");
+        int white = game.legalMoves(ChessGame.TeamColor.WHITE).size();
+        int black = game.legalMoves(ChessGame.TeamColor.BLACK).size();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < 20_000; i++) {
+                        Assertions.assertEquals(white, game.legalMoves(ChessGame.TeamColor.WHITE).size());
+                        Assertions.assertEquals(black, game.legalMoves(ChessGame.TeamColor.BLACK).size());
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assertions.assertNull(failure.get());
+    }
+
+    @Test
+    public void testGameStatusUsesCache() {
+        PositionCache cache = ChessGame.positionCache();
+        ChessGame game = new ChessGame();
+        game.legalMoves(ChessGame.TeamColor.WHITE);
+        long hits = cache.hits();
+        Assertions.assertEquals(20, game.legalMoves(ChessGame.TeamColor.WHITE).size());
+        Assertions.assertFalse(game.isInCheckmate(ChessGame.TeamColor.WHITE));
+        Assertions.assertFalse(game.isInStalemate(ChessGame.TeamColor.WHITE));
+        Assertions.assertEquals(2, game.validMoves(ChessPosition.of(1, 2)).size());
+        Assertions.assertTrue(cache.hits() >= hits + 4);
+    }
+
+    @Test
+    public void testSharedCacheCanBeResizedOrTurnedOff() {
+        try {
+            ChessGame.resizePositionCache(256);
+            Assertions.assertEquals(256, ChessGame.positionCache().capacity());
+
+            ChessGame.resizePositionCache(0);
+            Assertions.assertNull(ChessGame.positionCache());
+            ChessGame game = new ChessGame();
+            Assertions.assertEquals(20, game.legalMoves(ChessGame.TeamColor.WHITE).size());
+            Assertions.assertFalse(game.isInCheckmate(ChessGame.TeamColor.WHITE));
+
+            Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.resizePositionCache(-1));
+        } finally {
+            ChessGame.resizePositionCache(PositionCache.DEFAULT_ENTRIES);
+        }
+    }
+
+    //distinct, reproducible moves for a key
+    private static MoveList movesFor(long key, int count) {
+        MoveList moves = new MoveList();
+        for (int i = 0; i < count; i++) {
+            moves.add(Move.encode(i, (int) ((key + i) & 63), (int) (key & 7)));
+        }
+        return moves;
+    }
+
+    private static void assertSameMoves(MoveList expected, MoveList actual) {
+        Assertions.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assertions.assertEquals(expected.get(i), actual.get(i));
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.SplittableRandom;
+
+public class SlidingMoveUnitTests {
+
+    private static final int RANDOM_OCCUPANCIES = 2_000_000;
+    private static final int RANDOM_BOARDS = 100_000;
+    private static final long STARTUP_BUDGET_MILLIS = 250;
+
+    private static final int[][] ROOK_STEPS = {{1, 0}, {0, 1}, {-1, 0}, {0, -1}};
+    private static final int[][] BISHOP_STEPS = {{1, 1}, {-1, 1}, {-1, -1}, {1, -1}};
+
+    private static final ChessPiece.PieceType[] SLIDERS = {
+            ChessPiece.PieceType.ROOK, ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.QUEEN
+    };
+
+    @Test
+    public void testTablesBuiltWithinStartupBudget() {
+        long millis = Magics.INIT_NANOS / 1_000_000;
+        Assertions.assertTrue(millis < STARTUP_BUDGET_MILLIS,
+                "magic tables took " + millis + "ms to build");
+    }
+
+    @Test
+    public void testMagicLookupMatchesRayWalk() {
+        SplittableRandom random = new SplittableRandom(240);
+        for (int i = 0; i < RANDOM_OCCUPANCIES; i++) {
+            int square = random.nextInt(64);
+            //vary the density so both crowded and open boards come up
+            long occupied = random.nextLong() & random.nextLong();
+            if ((i & 1) == 0) {
+                occupied &= random.nextLong();
+            }
+            Assertions.assertEquals(Magics.rookReference(square, occupied), Attacks.rook(square, occupied));
+            Assertions.assertEquals(Magics.bishopReference(square, occupied), Attacks.bishop(square, occupied));
+        }
+    }
+
+    @Test
+    public void testPieceMovesMatchRecursiveGenerator() {
+        SplittableRandom random = new SplittableRandom(2024);
+        for (int i = 0; i < RANDOM_BOARDS; i++) {
+            ChessBoard board = randomBoard(random);
+            ChessPosition position = new ChessPosition(random.nextInt(8) + 1, random.nextInt(8) + 1);
+            ChessGame.TeamColor color = random.nextBoolean() ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+            ChessPiece piece = new ChessPiece(color, SLIDERS[random.nextInt(SLIDERS.length)]);
+            board.addPiece(position, piece);
+
+            Collection<ChessMove> expected = new HashSet<>();
+            if (piece.getPieceType() != ChessPiece.PieceType.BISHOP) {
+                recursiveMoves(board, piece, position, ROOK_STEPS, expected);
+            }
+            if (piece.getPieceType() != ChessPiece.PieceType.ROOK) {
+                recursiveMoves(board, piece, position, BISHOP_STEPS, expected);
+            }
+            Collection<ChessMove> actual = piece.pieceMoves(board, position);
+            Assertions.assertEquals(expected.size(), actual.size(), board.toString());
+            Assertions.assertEquals(expected, new HashSet<>(actual), board.toString());
+        }
+    }
+
+    private ChessBoard randomBoard(SplittableRandom random) {
+        ChessBoard board = new ChessBoard();
+        List<ChessPiece> pieces = new ArrayList<>();
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+                pieces.add(new ChessPiece(color, type));
+            }
+        }
+        int count = random.nextInt(33);
+        for (int i = 0; i < count; i++) {
+            ChessPosition position = new ChessPosition(random.nextInt(8) + 1, random.nextInt(8) + 1);
+            board.addPiece(position, pieces.get(random.nextInt(pieces.size())));
+        }
+        return board;
+    }
+
+    //the ray walk ChessPiece used before the magic tables: step until leaving the board, stopping on any piece
+    //and keeping the square only if that piece is an enemy
+    private void recursiveMoves(ChessBoard board, ChessPiece piece, ChessPosition start, int[][] steps,
+                                Collection<ChessMove> output) {
+        for (int[] step : steps) {
+            recursiveStep(board, piece, start, start, step, output);
+        }
+    }
+
+    private void recursiveStep(ChessBoard board, ChessPiece piece, ChessPosition start, ChessPosition position,
+                               int[] step, Collection<ChessMove> output) {
+        ChessPosition newPosition = new ChessPosition(position.getRow() + step[0], position.getColumn() + step[1]);
+        if (newPosition.getRow() < 1 || newPosition.getRow() > 8
+                || newPosition.getColumn() < 1 || newPosition.getColumn() > 8) {
+            return;
+        }
+        ChessPiece other = board.getPiece(newPosition);
+        if (other != null) {
+            if (other.getTeamColor() != piece.getTeamColor()) {
+                output.add(new ChessMove(start, newPosition, null));
+            }
+            return;
+        }
+        output.add(new ChessMove(start, newPosition, null));
+        recursiveStep(board, piece, start, newPosition, step, output);
+    }
+}
@@ -0,0 +1,179 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+public class ZobristUnitTests {
+
+    private static final int RANDOM_GAMES = 200;
+
+    @Test
+    public void testTranspositionsShareKey() throws InvalidMoveException {
+        ChessGame first = new ChessGame();
+        first.makeMove(move(1, 7, 3, 6));
+        first.makeMove(move(8, 7, 6, 6));
+        first.makeMove(move(1, 2, 3, 3));
+
+        ChessGame second = new ChessGame();
+        second.makeMove(move(1, 2, 3, 3));
+        second.makeMove(move(8, 7, 6, 6));
+        second.makeMove(move(1, 7, 3, 6));
+
+        Assertions.assertEquals(first.positionKey(), second.positionKey());
+        Assertions.assertNotEquals(new ChessGame().positionKey(), first.positionKey());
+    }
+
+    @Test
+    public void testSideToMoveChangesKey() {
+        ChessGame game = new ChessGame();
+        long white = game.positionKey();
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        Assertions.assertNotEquals(white, game.positionKey());
+        Assertions.assertEquals(white, game.getBoard().bits.positionKey(BitBoard.WHITE));
+    }
+
+    @Test
+    public void testLostCastlingRightsChangeKey() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        long before = game.positionKey();
+        //the kings walk out and back, so only the rights differ
+        game.makeMove(move(1, 5, 1, 4));
+        game.makeMove(move(8, 5, 8, 4));
+        game.makeMove(move(1, 4, 1, 5));
+        game.makeMove(move(8, 4, 8, 5));
+        Assertions.assertEquals(0, game.getBoard().bits.castlingRights());
+        Assertions.assertEquals(Zobrist.placementKey(game.getBoard().bits), game.getBoard().bits.key());
+        Assertions.assertNotEquals(before, game.positionKey());
+    }
+
+    @Test
+    public void testEqualsAndHashCodeLeaveCastlingUnsettled() {
+        ChessGame game = new ChessGame();
+        ChessBoard board = new ChessBoard();
+        board.addPiece(ChessPosition.of(1, 5), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        board.addPiece(ChessPosition.of(1, 8), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        board.addPiece(ChessPosition.of(8, 5), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        game.board = board;
+        ChessGame settled = ChessGame.fromFen("4k3/8/8/8/8/8/8/4K2R w K - 0 1");
+
+        Assertions.assertEquals(settled.hashCode(), game.hashCode());
+        Assertions.assertEquals(settled, game);
+        Assertions.assertFalse(board.getBitBoard().castlingKnown());
+
+        //still inferred from the pieces as they are now
+        board.addPiece(ChessPosition.of(1, 8), null);
+        Assertions.assertNotEquals(settled.positionKey(), game.positionKey());
+    }
+
+    @Test
+    public void testEnPassantOnlyKeyedWhenCapturable() throws InvalidMoveException {
+        ChessGame lone = ChessGame.fromFen("4k3/8/8/8/8/8/4P3/4K3 w - - 0 1");
+        lone.makeMove(move(2, 5, 4, 5));
+        Assertions.assertEquals(-1, lone.getBoard().bits.enPassantSquare());
+
+        ChessGame capturable = ChessGame.fromFen("4k3/8/8/8/3p4/8/4P3/4K3 w - - 0 1");
+        capturable.makeMove(move(2, 5, 4, 5));
+        Assertions.assertEquals(BitBoard.square(3, 5), capturable.getBoard().bits.enPassantSquare());
+        ChessGame same = ChessGame.fromFen("4k3/8/8/8/3pP3/8/8/4K3 b - - 0 1");
+        Assertions.assertNotEquals(same.positionKey(), capturable.positionKey());
+        Assertions.assertEquals(same.getBoard(), capturable.getBoard());
+    }
+
+    @Test
+    public void testUnmakeRestoresCastlingAndEnPassant() {
+        ChessGame game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        BitBoard bits = game.getBoard().bits;
+        MoveList moves = new MoveList();
+        MoveList replies = new MoveList();
+        MoveGenerator.generateLegal(bits, BitBoard.WHITE, -1L, moves);
+        for (int i = 0; i < moves.size(); i++) {
+            long before = bits.positionKey(BitBoard.BLACK);
+            bits.makeMove(moves.get(i));
+            replies.clear();
+            MoveGenerator.generateLegal(bits, BitBoard.BLACK, -1L, replies);
+            for (int j = 0; j < replies.size(); j++) {
+                long after = bits.positionKey(BitBoard.WHITE);
+                bits.makeMove(replies.get(j));
+                bits.unmakeMove();
+                Assertions.assertEquals(after, bits.positionKey(BitBoard.WHITE));
+            }
+            bits.unmakeMove();
+            Assertions.assertEquals(before, bits.positionKey(BitBoard.BLACK));
+        }
+    }
+
+    @Test
+    public void testUnmakeLineLongerThanFirstUndoStack() {
+        ChessGame game = new ChessGame();
+        String start = game.toFen();
+        BitBoard bits = game.getBoard().bits;
+        long before = bits.positionKey(BitBoard.WHITE);
+        SplittableRandom random = new SplittableRandom(3);
+        MoveList moves = new MoveList();
+        int made = 0;
+        for (int us = BitBoard.WHITE; made < 60; us ^= 1) {
+            moves.clear();
+            MoveGenerator.generateLegal(bits, us, -1L, moves);
+            if (moves.isEmpty()) {
+                break;
+            }
+            bits.makeMove(moves.get(random.nextInt(moves.size())));
+            made++;
+        }
+        for (int i = 0; i < made; i++) {
+            bits.unmakeMove();
+        }
+        Assertions.assertEquals(before, bits.positionKey(BitBoard.WHITE));
+        Assertions.assertEquals(start, game.toFen());
+    }
+
+    @Test
+    public void testIncrementalKeyMatchesRecomputed() {
+        SplittableRandom random = new SplittableRandom(10);
+        for (int i = 0; i < RANDOM_GAMES; i++) {
+            ChessGame game = new ChessGame();
+            for (int ply = 0; ply < 100; ply++) {
+                BitBoard bits = game.getBoard().bits;
+                Assertions.assertEquals(Zobrist.placementKey(bits), bits.key());
+                List<ChessMove> moves = new ArrayList<>(game.legalMoves(game.getTeamTurn()));
+                if (moves.isEmpty()) {
+                    break;
+                }
+                //make and take back every move, which must restore the key exactly
+                long before = bits.key();
+                for (ChessMove move : moves) {
+                    game.getBoard().makeMove(move);
+                    Assertions.assertEquals(Zobrist.placementKey(bits), bits.key());
+                    game.getBoard().unmakeMove();
+                    Assertions.assertEquals(before, bits.key());
+                }
+                try {
+                    game.makeMove(moves.get(random.nextInt(moves.size())));
+                } catch (InvalidMoveException e) {
+                    Assertions.fail(e);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDeserializedGameKeepsKey() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 5, 4, 5));
+        Gson gson = new Gson();
+        ChessGame copy = gson.fromJson(gson.toJson(game), ChessGame.class);
+        Assertions.assertEquals(game.positionKey(), copy.positionKey());
+        Assertions.assertEquals(game.hashCode(), copy.hashCode());
+
+        copy.makeMove(move(7, 5, 5, 5));
+        Assertions.assertEquals(Zobrist.placementKey(copy.getBoard().bits), copy.getBoard().bits.key());
+    }
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(ChessPosition.of(startRow, startCol), ChessPosition.of(endRow, endCol), null);
+    }
+}
@@ -0,0 +1,68 @@
+package chess.engine;
+
+import chess.*;
+import org.junit.jupiter.api.*;
+
+public class ParallelSearchUnitTests {
+
+    private static final int THREADS = 4;
+
+    private ParallelSearch search;
+
+    @BeforeEach
+    public void setup() {
+        search = new ParallelSearch(THREADS, new TranspositionTable(1 << 16));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        search.close();
+    }
+
+    @Test
+    public void testFindsMateWithHelpers() {
+        ChessBoard board = new ChessBoard();
+        board.addPiece(ChessPosition.of(1, 7), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        board.addPiece(ChessPosition.of(1, 1), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        board.addPiece(ChessPosition.of(8, 7), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        for (int col = 6; col <= 8; col++) {
+            board.addPiece(ChessPosition.of(2, col), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+            board.addPiece(ChessPosition.of(7, col), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+        }
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+
+        Search.Result result = search.search(game, Search.Limits.depth(4));
+        Assertions.assertEquals(new ChessMove(ChessPosition.of(1, 1), ChessPosition.of(8, 1), null), result.move());
+    }
+
+    @Test
+    public void testSharedNodeLimit() {
+        ChessGame game = new ChessGame();
+        Search.Result result = search.search(game, Search.Limits.nodes(20_000));
+        //each worker reports its nodes to the shared budget in batches of up to 1024
+        Assertions.assertTrue(result.nodes() <= 20_000 + THREADS * 1024L, "searched " + result.nodes());
+        Assertions.assertTrue(game.legalMoves(ChessGame.TeamColor.WHITE).contains(result.move()));
+    }
+
+    @Test
+    public void testMatchesSingleThreadedDepth() {
+        ChessGame game = new ChessGame();
+        Search.Result result = search.search(game, Search.Limits.depth(4));
+        Assertions.assertTrue(result.depth() >= 4);
+        Assertions.assertTrue(game.legalMoves(ChessGame.TeamColor.WHITE).contains(result.move()));
+        Assertions.assertEquals(new ChessGame(), game);
+    }
+
+    @Test
+    public void testSingleThread() {
+        try (ParallelSearch single = new ParallelSearch(1)) {
+            Assertions.assertNotNull(single.bestMove(new ChessGame(), Search.Limits.depth(3)));
+        }
+    }
+
+    @Test
+    public void testRejectsNoThreads() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ParallelSearch(0));
+    }
+}
@@ -0,0 +1,105 @@
+package chess.engine;
+
+import chess.*;
+import org.junit.jupiter.api.*;
+
+public class SearchUnitTests {
+
+    private Search search;
+
+    @BeforeEach
+    public void setup() {
+        search = new Search(new TranspositionTable(1 << 16));
+    }
+
+    @Test
+    public void testFindsBackRankMate() {
+        ChessGame game = game(ChessGame.TeamColor.WHITE,
+                "g1K", "a1R", "f2P", "g2P", "h2P",
+                "g8k", "f7p", "g7p", "h7p");
+        Search.Result result = search.search(game, Search.Limits.depth(4));
+        Assertions.assertEquals(move(1, 1, 8, 1), result.move());
+        Assertions.assertTrue(result.score() >= Search.MATE - Search.MAX_PLY);
+    }
+
+    @Test
+    public void testTakesHangingQueen() {
+        ChessGame game = game(ChessGame.TeamColor.WHITE,
+                "e1K", "c3N", "a2P", "b2P",
+                "e8k", "d5q", "a7p", "b7p");
+        Assertions.assertEquals(move(3, 3, 5, 4), search.bestMove(game, Search.Limits.depth(3)));
+    }
+
+    @Test
+    public void testAvoidsLosingQueenToPawn() {
+        ChessGame game = game(ChessGame.TeamColor.BLACK,
+                "e1K", "d4P", "f4P",
+                "e8k", "e6q", "a7p");
+        ChessMove move = search.bestMove(game, Search.Limits.depth(4));
+        //the queen is attacked by nothing yet, but e5 walks into a pawn capture
+        Assertions.assertNotEquals(move(6, 5, 5, 5), move);
+    }
+
+    @Test
+    public void testRespectsNodeLimit() {
+        ChessGame game = new ChessGame();
+        Search.Result result = search.search(game, Search.Limits.nodes(5_000));
+        Assertions.assertTrue(result.nodes() <= 5_000);
+        Assertions.assertTrue(game.legalMoves(ChessGame.TeamColor.WHITE).contains(result.move()));
+    }
+
+    @Test
+    public void testRespectsTimeLimit() {
+        ChessGame game = new ChessGame();
+        long start = System.nanoTime();
+        ChessMove move = search.bestMove(game, Search.Limits.millis(100));
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        Assertions.assertTrue(millis < 1_000, "took " + millis + " ms");
+        Assertions.assertTrue(game.legalMoves(ChessGame.TeamColor.WHITE).contains(move));
+    }
+
+    @Test
+    public void testNoMoveWhenMated() {
+        ChessGame game = game(ChessGame.TeamColor.BLACK,
+                "g1K", "a8R", "f2P", "g2P", "h2P",
+                "g8k", "f7p", "g7p", "h7p");
+        Search.Result result = search.search(game, Search.Limits.depth(3));
+        Assertions.assertNull(result.move());
+        Assertions.assertEquals(-Search.MATE, result.score());
+    }
+
+    @Test
+    public void testLeavesGameUntouched() {
+        ChessGame game = new ChessGame();
+        search.search(game, Search.Limits.depth(4));
+        Assertions.assertEquals(new ChessGame(), game);
+    }
+
+    //builds a game from pieces written as square then piece letter, upper case for white
+    private static ChessGame game(ChessGame.TeamColor turn, String... pieces) {
+        ChessBoard board = new ChessBoard();
+        for (String piece : pieces) {
+            ChessPosition position = ChessPosition.of(piece.charAt(1) - '0', piece.charAt(0) - 'a' + 1);
+            char letter = piece.charAt(2);
+            ChessGame.TeamColor color = Character.isUpperCase(letter) ? ChessGame.TeamColor.WHITE
+                    : ChessGame.TeamColor.BLACK;
+            ChessPiece.PieceType type = switch (Character.toLowerCase(letter)) {
+                case 'k' -> ChessPiece.PieceType.KING;
+                case 'q' -> ChessPiece.PieceType.QUEEN;
+                case 'r' -> ChessPiece.PieceType.ROOK;
+                case 'b' -> ChessPiece.PieceType.BISHOP;
+                case 'n' -> ChessPiece.PieceType.KNIGHT;
+                default -> ChessPiece.PieceType.PAWN;
+            };
+            board.addPiece(position, ChessPiece.of(color, type));
+        }
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        game.setTeamTurn(turn);
+        return game;
+    }
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(ChessPosition.of(startRow, startCol), ChessPosition.of(endRow, endCol), null);
+    }
+}